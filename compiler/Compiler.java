@@ -1,22 +1,19 @@
-import backend.mips.MipsGenerator;
+import driver.BatchCompiler;
+import driver.CompileClient;
+import driver.CompileOptions;
+import driver.CompileServer;
+import driver.CompileThreads;
+import driver.Pipeline;
+import driver.Stage;
 import frontend.FileHandler;
-import frontend.Visitor;
-import frontend.ast.CompUnit;
-import frontend.error.ErrorList;
-import frontend.Lexer;
-import frontend.Parser;
-import frontend.symbol.SymbolManager;
-import midend.ir.IRBuilder;
-import midend.ir.IRGenerator;
-import midend.ir.Quad;
+import frontend.token.SourceText;
 
 import java.io.IOException;
-import java.util.List;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Arrays;
 
 public class Compiler {
-    public enum Stage {
-        LEXER, PARSER, SEMANTIC, IR, MIPS
-    }
 
 //    public static final Stage STAGE= Stage.LEXER;
 //    public static final Stage STAGE= Stage.PARSER;
@@ -24,70 +21,44 @@ public class Compiler {
 //    public static final Stage STAGE= Stage.IR;
     public static final Stage STAGE= Stage.MIPS;
 
+    /*
+        无参数：编译当前目录下的 testfile.txt，运行到 STAGE 为止
+        [--stage STAGE] [--emit STAGE,...] [-i 源文件] [-o 输出目录]：选择停止的阶段、同时输出多个阶段的结果、指定输入输出路径
+        --charset 名称：源文件字符集，缺省 UTF-8
+        --stats / --stats-json：在 stderr 输出各阶段的耗时、分配内存与产出数量
+        --stack-size 大小：编译线程的栈大小（如 1g），嵌套极深的程序需要调大
+        --max-errors N：error.txt 最多输出 N 条错误（每行只输出一条）
+        --function-jobs N：按函数并行做语义分析与 IR 生成，N 为线程数（0 表示全部核心）
+        -O0 / -O1 / -O2、--passes 名字,...：IR 优化级别或直接给出 pass 序列，缺省 -O0
+        --verify-ir：每个 pass 之后校验 IR；--dump-ir-after 名字,...|all：在这些 pass 之后输出 ir.<序号>.<名字>.txt
+        --batch [-j N] [--stage/--emit ...] <目录|清单>...：在同一个 JVM 中批量编译，-j 为并行线程数（0 表示全部核心）
+        --daemon <[host:]port|unix:路径> [-j N]：常驻编译服务，协议见 CompileServer
+        --client <[host:]port|unix:路径> <STAGE[,STAGE...]> <源文件> [输出目录]：向常驻服务发送一次编译请求
+     */
     public static void main(String[] args) {
         try {
-            ErrorList.clear();
-            String sourceCode = FileHandler.readTestFile();
-            Lexer lexer = new Lexer();
-            lexer.analyze(sourceCode);
-
-            if(STAGE == Stage.LEXER){
-                if(ErrorList.getErrors().isEmpty()){
-                    FileHandler.writeLexerFile(lexer.getTokens());
-                } else {
-                    FileHandler.writeErrorFile(ErrorList.getErrors());
-                }
+            if (args.length > 0 && args[0].equals("--batch")) {
+                BatchCompiler batchCompiler = new BatchCompiler(STAGE);
+                batchCompiler.run(Arrays.asList(args).subList(1, args.length));
                 return;
             }
-
-            Parser parser = new Parser(lexer.getTokens());
-            CompUnit ast = parser.analyze();
-
-            if(STAGE == Stage.PARSER){
-                if(ErrorList.getErrors().isEmpty()){
-                    FileHandler.writeParserFile(parser.getOutputs());
-                } else {
-                    FileHandler.writeErrorFile(ErrorList.getErrors());
-                }
+            if (args.length > 1 && args[0].equals("--daemon")) {
+                int jobs = args.length > 3 && args[2].equals("-j")
+                        ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+                new CompileServer(CompileServer.parseAddress(args[1]), jobs).serve();
                 return;
             }
-
-            Visitor visitor = new Visitor(ast);
-            visitor.analyze();
-
-            if(STAGE == Stage.SEMANTIC){
-                if(ErrorList.getErrors().isEmpty()){
-                    FileHandler.writeSymbolFile(visitor.getAllSymbols());
-                } else {
-                    FileHandler.writeErrorFile(ErrorList.getErrors());
-                }
+            if (args.length > 3 && args[0].equals("--client")) {
+                Path outDir = args.length > 4 ? Paths.get(args[4]) : Paths.get("");
+                CompileClient.send(CompileServer.parseAddress(args[1]), args[2], Paths.get(args[3]), outDir);
                 return;
             }
 
-            if(ErrorList.getErrors().isEmpty()){
-                SymbolManager symbolManager = visitor.getSymbolManager();
-                IRBuilder irBuilder = new IRBuilder();
-                IRGenerator irGenerator = new IRGenerator(ast,symbolManager,irBuilder);
-                irGenerator.generate();
-                List<Quad> quads = irBuilder.getIr();
-
-                if(STAGE == Stage.IR){
-                    FileHandler.writeIRFile(quads);
-                    return;
-                }
-
-                MipsGenerator mipsGenerator = new MipsGenerator(quads);
-                List<String> mipsCode = mipsGenerator.generate();
-
-                if(STAGE == Stage.MIPS){
-                    FileHandler.writeMipsFile(mipsCode);
-                }
-            } else {
-                FileHandler.writeErrorFile(ErrorList.getErrors());
-            }
-
-
-        } catch (IOException e) {
+            CompileOptions options = CompileOptions.parse(Arrays.asList(args), STAGE);
+            SourceText sourceText = FileHandler.mapSourceFile(options.getInput(), options.getCharset());
+            // 深层嵌套的程序需要很大的栈，编译在单独的线程上进行
+            CompileThreads.run(options.getStackSize(), () -> Pipeline.compile(sourceText, options, options.getOutDir()));
+        } catch (IOException | IllegalArgumentException e) {
             System.err.println(e.getMessage());
         }
     }
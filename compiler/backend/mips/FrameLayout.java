@@ -1,23 +1,25 @@
 package backend.mips;
 
+import midend.ir.Opcode;
+import midend.ir.Operand;
 import midend.ir.Quad;
 
 import java.util.*;
 
 public class FrameLayout {
-    private final Map<String, Integer> offsetMap;
+    private final Map<Operand, Integer> offsetMap;
     private final int size;
     private final boolean isMain;
-    private final List<String> params;
+    private final List<Operand> params;
 
-    public FrameLayout(Map<String, Integer> offsetMap, int size, boolean isMain, List<String> params) {
+    public FrameLayout(Map<Operand, Integer> offsetMap, int size, boolean isMain, List<Operand> params) {
         this.offsetMap = offsetMap;
         this.size = size;
         this.isMain = isMain;
         this.params = params;
     }
 
-    public int getOffset(String name){
+    public int getOffset(Operand name){
         Integer offset = offsetMap.get(name);
         if (offset==null){
             throw  new IllegalStateException("No offset for: "+name);
@@ -33,18 +35,18 @@ public class FrameLayout {
         return isMain;
     }
 
-    public List<String> getParams() {
+    public List<Operand> getParams() {
         return params;
     }
 
     public static FrameLayout fromQuads(String funcName, List<Quad> quads){
         boolean isMain = funcName.equals("main");
-        LinkedHashMap<String, Integer> varSizeMap = new LinkedHashMap<>();
-        LinkedHashSet<String> paramSet = new LinkedHashSet<>();
+        LinkedHashMap<Operand, Integer> varSizeMap = new LinkedHashMap<>();
+        LinkedHashSet<Operand> paramSet = new LinkedHashSet<>();
 
         for (Quad quad:quads){
-            if(quad.op.equals("fparam") || quad.op.equals("fparam_arr")){
-                String param = quad.arg1;
+            if(quad.op==Opcode.FPARAM || quad.op==Opcode.FPARAM_ARR){
+                Operand param = quad.arg1;
                 if (param!=null){
                     paramSet.add(param);
                     varSizeMap.putIfAbsent(param,1);
@@ -57,86 +59,79 @@ public class FrameLayout {
             collectOperand(quad.res,varSizeMap,paramSet);
 
             switch (quad.op){
-                case "decl" ->{
-                    String name = quad.arg1;
-                    String size = quad.arg2;
+                case DECL ->{
+                    Operand name = quad.arg1;
+                    Operand size = quad.arg2;
                     if (name==null) break;
-                    if (name.startsWith("v") || name.startsWith("t")){
+                    if (name.getKind()==Operand.Kind.LOCAL || name.isTemp()){
                         int slots =1;
-                        if (size!=null && isImm(size)){
-                            slots=Math.max(1,Integer.parseInt(size));
+                        if (size!=null && size.isImm()){
+                            slots=Math.max(1,size.getValue());
                         }
                         varSizeMap.put(name,slots);
                     }
                 }
-                case "storearr" ->{
-                    String arr = quad.res;
-                    String index = quad.arg2;
+                case STOREARR ->{
+                    Operand arr = quad.res;
+                    Operand index = quad.arg2;
                     updateArraySize(varSizeMap,arr,index);
                 }
-                case "loadarr" ->{
-                    String arr = quad.arg1;
-                    String index = quad.arg2;
+                case LOADARR ->{
+                    Operand arr = quad.arg1;
+                    Operand index = quad.arg2;
                     updateArraySize(varSizeMap,arr,index);
                 }
                 default -> {}
             }
         }
 
-        Map<String,Integer> offsetMap = new HashMap<>();
+        Map<Operand,Integer> offsetMap = new HashMap<>();
         int offset = 0;
-        for (Map.Entry<String,Integer> entry: varSizeMap.entrySet()){
-            String var = entry.getKey();
+        for (Map.Entry<Operand,Integer> entry: varSizeMap.entrySet()){
+            Operand var = entry.getKey();
             int slots = entry.getValue();
             offsetMap.put(var,offset);
             offset+=slots*4;
         }
 
         int size = offset + 4 + 4;  //$ra & old $fp
-        List<String> paramList = new ArrayList<>(paramSet);
+        List<Operand> paramList = new ArrayList<>(paramSet);
 
         return new FrameLayout(offsetMap,size,isMain,paramList);
     }
 
-    public static boolean isImm(String str){
-        try{
-            Integer.parseInt(str);
-            return true;
-        } catch (Exception e){
-            return false;
-        }
-    }
-    private static boolean isStaticName(String name){
-        return name!=null && name.matches("s\\d+_.*");
-    }
-
-    private static boolean isGlobalName(String name){
-        return name!=null && (name.startsWith("g_") || isStaticName(name));
-    }
-
-
-    public static void collectOperand(String operand, Map<String, Integer>varSizeMap, Set<String> paramSet){
+    /*
+        临时变量、局部变量与形参各占一个位置，形参另记入 paramSet
+        函数名与字符串沿用按名字首字母归类的旧规则（p/v/t 开头的也占一个位置，p 开头的算作形参），栈帧布局与之前相同
+     */
+    public static void collectOperand(Operand operand, Map<Operand, Integer>varSizeMap, Set<Operand> paramSet){
         if (operand==null) return;
-        if (isImm(operand)) return;
-        if (operand.startsWith("L") || isGlobalName(operand)) return;
-        if (operand.startsWith("#")) return;
-
-        if (operand.startsWith("p") || operand.startsWith("v")|| operand.startsWith("t")){
-            varSizeMap.putIfAbsent(operand,1);
-            if (operand.startsWith("p")){
+        switch (operand.getKind()){
+            case TEMP, LOCAL -> varSizeMap.putIfAbsent(operand,1);
+            case PARAM -> {
+                varSizeMap.putIfAbsent(operand,1);
                 paramSet.add(operand);
             }
+            case NAME, STR -> {
+                String name = operand.getName();
+                char first = name.isEmpty() ? 0 : name.charAt(0);
+                if (first=='p' || first=='v' || first=='t'){
+                    varSizeMap.putIfAbsent(operand,1);
+                    if (first=='p'){
+                        paramSet.add(operand);
+                    }
+                }
+            }
+            default -> {}
         }
     }
 
-    private static void updateArraySize(Map<String,Integer> varSizeMap, String arr, String index){
+    private static void updateArraySize(Map<Operand,Integer> varSizeMap, Operand arr, Operand index){
         if (arr==null || index==null) return;
-        if (arr.startsWith("p") || isGlobalName(arr)) return;
-        if(arr.startsWith("#")) return;
-        if (!isImm(index)) return;
+        if (arr.isParam() || arr.isGlobal()) return;
+        if (!index.isImm()) return;
 
-        int idx = Integer.parseInt(index);
-        int need = idx+1;
+        int need = index.getValue()+1;
         int old = varSizeMap.getOrDefault(arr,1);
         if (need>old){
             varSizeMap.put(arr,need);
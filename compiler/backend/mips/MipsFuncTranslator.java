@@ -3,6 +3,8 @@ package backend.mips;
 import backend.mips.instr.*;
 import backend.register.RegAllocator;
 import backend.register.Register;
+import midend.ir.Opcode;
+import midend.ir.Operand;
 import midend.ir.Quad;
 
 import java.util.*;
@@ -42,9 +44,9 @@ public class MipsFuncTranslator {
         mipsCode.add(new LoadStoreInstr("sw", Register.FP, frameSize-8, Register.SP));
         mipsCode.add(new MoveInstr(Register.FP,Register.SP)); // fp=sp
 
-        List<String> params = frame.getParams();
+        List<Operand> params = frame.getParams();
         for (int i=0; i<params.size(); i++){
-            String paramVar = params.get(i);
+            Operand paramVar = params.get(i);
             Register dst = regAllocator.getRegForWrite(paramVar);
 
             Register src = null;
@@ -77,21 +79,13 @@ public class MipsFuncTranslator {
 
     }
 
-    private static boolean isStaticName(String name){
-        return name!=null && name.matches("s\\d+_.*");
-    }
-
-    private static boolean isGlobalName(String name){
-        return name!=null && (name.startsWith("g_") || isStaticName(name));
-    }
-
-    private Register buildElemAddr(String arr, String idxOperand){
+    private Register buildElemAddr(Operand arr, Operand idxOperand){
         Register index = regAllocator.getRegForRead(idxOperand);
         mipsCode.add(new SllInstr(Register.T8,index,2));
 
-        if(isGlobalName(arr)){
-            mipsCode.add(new LaInstr(Register.T9,arr));
-        } else if(arr.startsWith("p")){
+        if(arr.isGlobal()){
+            mipsCode.add(new LaInstr(Register.T9,arr.toString()));
+        } else if(arr.isParam()){
             Register param = regAllocator.getRegForRead(arr);
             mipsCode.add(new MoveInstr(Register.T9,param));
         } else {
@@ -104,25 +98,25 @@ public class MipsFuncTranslator {
 
     private void translateQuad(Quad quad){
         switch (quad.op) {
-            case "add", "sub", "mul", "lt", "le", "gt", "ge", "eq", "ne"-> translateArithType(quad);
-            case "div", "mod" -> translateDivMod(quad);
-            case "neg" -> translateNeg(quad);
-            case "not" -> translateNot(quad);
-            case "move" ->translateMove(quad);
-            case "load" -> translateLoad(quad);
-            case "loadarr" -> translateLoadArr(quad);
-            case "storearr" -> translateStoreArr(quad);
-            case "label" -> translateLabel(quad);
-            case "j" -> translateJ(quad);
-            case "bez" -> translateBez(quad);
-            case "param_val" -> translateParamVal(quad);
-            case "param_addr" -> translateParamAddr(quad);
-            case "decl", "fparam", "fparam_arr" -> { }
-            case "call" -> translateCall(quad);
-            case "ret" -> translateReturn(quad);
-            case "print_int" -> translatePrintInt(quad);
-            case "print_str" -> translatePrintStr(quad);
-            case "getint" -> translateGetInt(quad);
+            case ADD, SUB, MUL, LT, LE, GT, GE, EQ, NE -> translateArithType(quad);
+            case DIV, MOD -> translateDivMod(quad);
+            case NEG -> translateNeg(quad);
+            case NOT -> translateNot(quad);
+            case MOVE ->translateMove(quad);
+            case LOAD -> translateLoad(quad);
+            case LOADARR -> translateLoadArr(quad);
+            case STOREARR -> translateStoreArr(quad);
+            case LABEL -> translateLabel(quad);
+            case J -> translateJ(quad);
+            case BEZ -> translateBez(quad);
+            case PARAM_VAL -> translateParamVal(quad);
+            case PARAM_ADDR -> translateParamAddr(quad);
+            case DECL, FPARAM, FPARAM_ARR -> { }
+            case CALL -> translateCall(quad);
+            case RET -> translateReturn(quad);
+            case PRINT_INT -> translatePrintInt(quad);
+            case PRINT_STR -> translatePrintStr(quad);
+            case GETINT -> translateGetInt(quad);
             default -> { }
         }
     }
@@ -133,15 +127,16 @@ public class MipsFuncTranslator {
         Register rd = regAllocator.getRegForWrite(quad.res);
 
         switch (quad.op){
-            case "add" -> mipsCode.add(new RTypeInstr("addu",rd,rs,rt));
-            case "sub" -> mipsCode.add(new RTypeInstr("subu",rd,rs,rt));
-            case "mul" -> mipsCode.add(new RTypeInstr("mul",rd,rs,rt));
-            case "lt" -> mipsCode.add(new RTypeInstr("slt",rd,rs,rt));
-            case "gt" -> mipsCode.add(new RTypeInstr("sgt",rd,rs,rt));
-            case "le" -> mipsCode.add(new RTypeInstr("sle",rd,rs,rt));
-            case "ge" -> mipsCode.add(new RTypeInstr("sge",rd,rs,rt));
-            case "eq" -> mipsCode.add(new RTypeInstr("seq",rd,rs,rt));
-            case "ne" -> mipsCode.add(new RTypeInstr("sne",rd,rs,rt));
+            case ADD -> mipsCode.add(new RTypeInstr("addu",rd,rs,rt));
+            case SUB -> mipsCode.add(new RTypeInstr("subu",rd,rs,rt));
+            case MUL -> mipsCode.add(new RTypeInstr("mul",rd,rs,rt));
+            case LT -> mipsCode.add(new RTypeInstr("slt",rd,rs,rt));
+            case GT -> mipsCode.add(new RTypeInstr("sgt",rd,rs,rt));
+            case LE -> mipsCode.add(new RTypeInstr("sle",rd,rs,rt));
+            case GE -> mipsCode.add(new RTypeInstr("sge",rd,rs,rt));
+            case EQ -> mipsCode.add(new RTypeInstr("seq",rd,rs,rt));
+            case NE -> mipsCode.add(new RTypeInstr("sne",rd,rs,rt));
+            default -> {}
         }
     }
 
@@ -152,8 +147,9 @@ public class MipsFuncTranslator {
 
         mipsCode.add(new DivModInstr("div",rs,rt));
         switch (quad.op) {
-            case "div" -> mipsCode.add(new DivModInstr("mflo",rd));
-            case "mod" -> mipsCode.add(new DivModInstr("mfhi",rd));
+            case DIV -> mipsCode.add(new DivModInstr("mflo",rd));
+            case MOD -> mipsCode.add(new DivModInstr("mfhi",rd));
+            default -> {}
         }
     }
 
@@ -183,7 +179,7 @@ public class MipsFuncTranslator {
 
     // "loadarr" -> res + " = " + arg1 + "[" + arg2 + "]"
     private void translateLoadArr(Quad quad){
-        String arr = quad.arg1;
+        Operand arr = quad.arg1;
         Register addr = buildElemAddr(arr, quad.arg2);
         Register rd = regAllocator.getRegForWrite(quad.res);
         mipsCode.add(new LoadStoreInstr("lw",rd,0,addr));
@@ -191,7 +187,7 @@ public class MipsFuncTranslator {
 
     // "storearr" -> res + "[" + arg2 +"]"+ " = " + arg1 ;
     private void translateStoreArr(Quad quad){
-        String arr=quad.res;
+        Operand arr=quad.res;
         Register addr = buildElemAddr(arr, quad.arg2);
         Register value = regAllocator.getRegForRead(quad.arg1);
         mipsCode.add(new LoadStoreInstr("sw",value,0,addr));
@@ -199,18 +195,18 @@ public class MipsFuncTranslator {
 
     private void translateLabel(Quad quad){
         regAllocator.flushAll();
-        mipsCode.add(new LabelInstr(quad.res));
+        mipsCode.add(new LabelInstr(quad.res.toString()));
     }
 
     private void translateJ(Quad quad){
         regAllocator.flushAll();
-        mipsCode.add(new JumpInstr("j",quad.res));
+        mipsCode.add(new JumpInstr("j",quad.res.toString()));
     }
 
     private void translateBez(Quad quad){
         Register reg = regAllocator.getRegForRead(quad.arg1);
         regAllocator.flushAll();
-        mipsCode.add(new BeqzInstr(reg,quad.res));
+        mipsCode.add(new BeqzInstr(reg,quad.res.toString()));
     }
 
     private Register getAReg(int idx){
@@ -224,9 +220,9 @@ public class MipsFuncTranslator {
 
     private static class ArgInfo{
         final boolean isAddr;
-        final String operand;
+        final Operand operand;
 
-        public ArgInfo(boolean isAddr, String operand) {
+        public ArgInfo(boolean isAddr, Operand operand) {
             this.isAddr = isAddr;
             this.operand = operand;
         }
@@ -247,11 +243,11 @@ public class MipsFuncTranslator {
         if (!argInfo.isAddr){
             return regAllocator.getRegForRead(argInfo.operand);
         }
-        String arr = argInfo.operand;
-        if(isGlobalName(arr)){
-            mipsCode.add(new LaInstr(Register.T8,arr));
+        Operand arr = argInfo.operand;
+        if(arr.isGlobal()){
+            mipsCode.add(new LaInstr(Register.T8,arr.toString()));
             return Register.T8;
-        } else if(arr.startsWith("p")){
+        } else if(arr.isParam()){
             return regAllocator.getRegForRead(arr);
         }else {
             int offset = frame.getOffset(arr);
@@ -261,7 +257,7 @@ public class MipsFuncTranslator {
     }
 
     private void translateCall(Quad quad){
-        String callee = quad.arg1;
+        String callee = quad.arg1.toString();
         regAllocator.beforeCall();
 
         int argCount=pendingArgs.size();
@@ -301,7 +297,8 @@ public class MipsFuncTranslator {
     }
 
     private void translatePrintStr(Quad quad){
-        String label = strLabelMap.getOrDefault(quad.arg1,quad.arg1);
+        String content = quad.arg1==null ? null : quad.arg1.getName();
+        String label = strLabelMap.getOrDefault(content,content);
         mipsCode.add(new LaInstr(Register.A0,label));
         mipsCode.add(new LiInstr(Register.V0, 4));
         mipsCode.add(new SyscallInstr());
@@ -2,7 +2,10 @@ package backend.mips;
 
 import backend.mips.data.GlobalVar;
 import backend.mips.data.StringConst;
+import backend.mips.instr.LabelInstr;
 import backend.mips.instr.MipsInstr;
+import midend.ir.Opcode;
+import midend.ir.Operand;
 import midend.ir.Quad;
 
 import java.util.ArrayList;
@@ -16,6 +19,7 @@ public class MipsGenerator {
     private final Map<String, StringConst> stringConsts = new LinkedHashMap<>();
     private final Map<String,String> strLabelMap = new LinkedHashMap<>();
     private int strCount =0;
+    private int instrCount =0;
 
     public MipsGenerator(List<Quad> ir) {
         this.ir = ir;
@@ -38,15 +42,16 @@ public class MipsGenerator {
         mipsCode.add("  jal main");
         mipsCode.add("  li $v0, 10");
         mipsCode.add("  syscall");
+        instrCount += 4;
 
         int i=0, n=ir.size();
         while (i<n){
             Quad quad = ir.get(i);
-            if (quad.op.equals("func")){
-                String funcName = quad.arg1;
+            if (quad.op==Opcode.FUNC){
+                String funcName = quad.arg1.toString();
                 int start = i+1;
                 int j=start;
-                while (j<n && !ir.get(j).op.equals("endfunc")) j++;
+                while (j<n && ir.get(j).op!=Opcode.ENDFUNC) j++;
                 int end =j;
 
                 List<Quad> funcBody = ir.subList(start,end);
@@ -54,6 +59,7 @@ public class MipsGenerator {
                 List < MipsInstr> instrs = mipsFuncTranslator.translate();
                 for (MipsInstr instr : instrs){
                     mipsCode.add(instr.toString());
+                    if (!(instr instanceof LabelInstr)) instrCount++;
                 }
 
                 i =j+1;
@@ -65,48 +71,45 @@ public class MipsGenerator {
         return mipsCode;
     }
 
+    // 生成的指令条数，不含标签与数据段
+    public int getInstrCount() {
+        return instrCount;
+    }
+
     private void collectGlobalAndStr() {
         for(Quad quad:ir){
-            if (quad.op.equals("func")) break;
+            if (quad.op==Opcode.FUNC) break;
             switch (quad.op){
-                case "gdecl" -> globalDecl(quad);
-                case "ginit" -> globalInit(quad);
-                case "ginitarr" -> globalInitArr(quad);
+                case GDECL -> globalDecl(quad);
+                case GINIT -> globalInit(quad);
+                case GINITARR -> globalInitArr(quad);
+                default -> {}
             }
         }
 
         for(Quad quad:ir){
-            if(quad.op.equals("print_str") && quad.arg1!=null){
-                if(!stringConsts.containsKey(quad.arg1)){
+            if(quad.op==Opcode.PRINT_STR && quad.arg1!=null){
+                String content = quad.arg1.getName();
+                if(!stringConsts.containsKey(content)){
                     String label = ".str" +(strCount++);
-                    stringConsts.put(quad.arg1,new StringConst(label, quad.arg1));
-                    strLabelMap.put(quad.arg1, label);
+                    stringConsts.put(content,new StringConst(label, content));
+                    strLabelMap.put(content, label);
                 }
             }
 
         }
     }
 
-    public static boolean isImm(String str){
-        try{
-            Integer.parseInt(str);
-            return true;
-        } catch (Exception e){
-            return false;
-        }
-    }
-
-
     //ir: "gdecl " + arg1 + ", " arg2
     // gdecl name, size
     private void globalDecl(Quad quad){
-        String name = quad.arg1;
-        String size = quad.arg2;
+        String name = quad.arg1.toString();
+        Operand size = quad.arg2;
 
         GlobalVar globalVar = globalVars.computeIfAbsent(name,GlobalVar::new);
         int s =1;
-        if (size!=null && isImm(size)){
-            s = Math.max(1,Integer.parseInt(size));
+        if (size!=null && size.isImm()){
+            s = Math.max(1,size.getValue());
         }
         globalVar.ensureSize(s);
     }
@@ -114,30 +117,30 @@ public class MipsGenerator {
     // ir："ginit " +arg1+ ", " + res;
     // ginit value, name
     private void globalInit(Quad quad){
-        String dst = quad.res;
-        String value = quad.arg1;
+        String dst = quad.res.toString();
+        Operand value = quad.arg1;
 
         GlobalVar globalVar = globalVars.computeIfAbsent(dst,GlobalVar::new);
         globalVar.ensureSize(1);
-        if (isImm(value)){
-            globalVar.setInitAt(0,Integer.parseInt(value));
+        if (value.isImm()){
+            globalVar.setInitAt(0,value.getValue());
         }
     }
 
     // ir："ginitarr"-> op +" " + arg1 + ", " + arg2 + ", "+res ;
     // ginitarr value, index, name
     private void globalInitArr(Quad quad){
-        String arr = quad.res;
-        String value = quad.arg1;
-        String index = quad.arg2;
-        if (!isImm(index)) return;
+        String arr = quad.res.toString();
+        Operand value = quad.arg1;
+        Operand index = quad.arg2;
+        if (!index.isImm()) return;
 
-        int idx = Integer.parseInt(index);
+        int idx = index.getValue();
         GlobalVar globalVar = globalVars.computeIfAbsent(arr,GlobalVar::new);
 
         globalVar.ensureSize(idx+1);
-        if (isImm(value)){
-            int val = Integer.parseInt(value);
+        if (value.isImm()){
+            int val = value.getValue();
             globalVar.setInitAt(idx,val);
         }
     }
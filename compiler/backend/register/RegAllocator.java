@@ -2,6 +2,7 @@ package backend.register;
 
 import backend.mips.FrameLayout;
 import backend.mips.instr.*;
+import midend.ir.Operand;
 
 import java.util.*;
 
@@ -9,9 +10,9 @@ public class RegAllocator {
     private final FrameLayout frame;
     private final List<MipsInstr> mipsCode;
     private final List<Register> regs = new ArrayList<>();
-    private final Map<String,Register> varToReg=new HashMap<>();
-    private final Map<Register,String> regToVar=new HashMap<>();
-    private final Set<String> dirtyVars = new HashSet<>();
+    private final Map<Operand,Register> varToReg=new HashMap<>();
+    private final Map<Register,Operand> regToVar=new EnumMap<>(Register.class);
+    private final Set<Operand> dirtyVars = new HashSet<>();
 
     public RegAllocator(FrameLayout frame, List<MipsInstr> mipsCode) {
         this.frame = frame;
@@ -27,36 +28,30 @@ public class RegAllocator {
         }
     }
 
-    private void bind(Register reg, String var){
+    // 常量也绑定在寄存器上（键为常量操作数），但从不写回
+    private void bind(Register reg, Operand var){
         regToVar.put(reg,var);
         varToReg.put(var,reg);
     }
-    private static boolean isStaticName(String name){
-        return name!=null && name.matches("s\\d+_.*");
-    }
-
-    private static boolean isGlobalName(String name){
-        return name!=null && (name.startsWith("g_") || isStaticName(name));
-    }
 
-    private void markDirty(String var){
+    private void markDirty(Operand var){
         if (var==null) return;
-        if(var.startsWith("#")) return;
+        if(var.isImm()) return;
         dirtyVars.add(var);
     }
 
-    private void markClean(String var){
+    private void markClean(Operand var){
         if (var==null) return;
         dirtyVars.remove(var);
     }
 
     private void spill(Register reg){
-        String var = regToVar.get(reg);
+        Operand var = regToVar.get(reg);
         if (var==null) return;
-        if (var.startsWith("#"))return;
+        if (var.isImm())return;
         if (!dirtyVars.contains(var)) return;
 
-        if (isGlobalName(var)){
+        if (var.isGlobal()){
             mipsCode.add(new SimpleInstr("  sw "+reg+", "+var));
         } else {
             int offset = frame.getOffset(var);
@@ -65,7 +60,7 @@ public class RegAllocator {
         markClean(var);
     }
 
-    private Register allocReg(String var, Register avoid){
+    private Register allocReg(Operand var, Register avoid){
         for (Register reg:regs){
             if(avoid!= null && reg==avoid) continue;
             if (!regToVar.containsKey(reg)){
@@ -85,7 +80,7 @@ public class RegAllocator {
             victim = regs.get(0);
         }
         spill(victim);
-        String oldVar = regToVar.get(victim);
+        Operand oldVar = regToVar.get(victim);
         if (oldVar!=null){
             varToReg.remove(oldVar);
         }
@@ -93,20 +88,19 @@ public class RegAllocator {
         return victim;
     }
 
-    private Register allocReg(String var){
+    private Register allocReg(Operand var){
         return allocReg(var, null );
     }
 
-    public Register getRegForReadAvoid(String operand, Register avoid){
+    public Register getRegForReadAvoid(Operand operand, Register avoid){
         if (operand == null) return Register.ZERO;
 
-        if (isImm(operand)){
-            String immKey = "#imm" + operand;
-            Register reg = varToReg.get(immKey);
+        if (operand.isImm()){
+            Register reg = varToReg.get(operand);
             if (reg == null){
-                reg = allocReg(immKey, avoid);
+                reg = allocReg(operand, avoid);
             }
-            mipsCode.add(new LiInstr(reg, Integer.parseInt(operand)));
+            mipsCode.add(new LiInstr(reg, operand.getValue()));
             return reg;
         }
 
@@ -115,7 +109,7 @@ public class RegAllocator {
 
         reg = allocReg(operand, avoid);
 
-        if (isGlobalName(operand)){
+        if (operand.isGlobal()){
             mipsCode.add(new SimpleInstr("  lw " + reg + ", " + operand));
         } else {
             int offset = frame.getOffset(operand);
@@ -136,33 +130,22 @@ public class RegAllocator {
         dirtyVars.clear();
     }
 
-    private boolean isImm(String str){
-        if (str==null) return false;
-        try {
-            Integer.parseInt(str);
-            return true;
-        } catch (Exception e){
-            return false;
-        }
-    }
-
-    public Register getRegForRead(String operand){
+    public Register getRegForRead(Operand operand){
         if (operand==null) return Register.ZERO;
 
-        if (isImm(operand)){
-            String imm = "#imm" + operand;
-            Register reg = varToReg.get(imm);
+        if (operand.isImm()){
+            Register reg = varToReg.get(operand);
             if (reg==null) {
-                reg = allocReg(imm);
+                reg = allocReg(operand);
             }
-            mipsCode.add(new LiInstr(reg,Integer.parseInt(operand)));
+            mipsCode.add(new LiInstr(reg,operand.getValue()));
             return reg;
         }
         Register reg = varToReg.get(operand);
         if (reg!=null) return reg;
 
         reg=allocReg(operand);
-        if (operand.startsWith("g_") || operand.startsWith("s")){
+        if (operand.isGlobal()){
             mipsCode.add(new SimpleInstr("  lw "+reg.toString()+", "+operand));
         } else {
             int offset = frame.getOffset(operand);
@@ -172,7 +155,7 @@ public class RegAllocator {
         return reg;
     }
 
-    public Register getRegForWrite(String var){
+    public Register getRegForWrite(Operand var){
         if (var==null) return null;
 
         Register reg = varToReg.get(var);
@@ -188,9 +171,11 @@ public class RegAllocator {
         flushAll();
     }
 
-    public void afterCall(String retVar){
+    // 被调函数会改写可分配的寄存器：传参时读进寄存器的变量在调用后不能再当作还在寄存器中
+    public void afterCall(Operand retVar){
+        flushAll();
         if (retVar==null) return;
-        if (isGlobalName(retVar)){
+        if (retVar.isGlobal()){
             mipsCode.add(new SimpleInstr("  sw " + Register.V0+", "+retVar));
         } else {
             int offset = frame.getOffset(retVar);
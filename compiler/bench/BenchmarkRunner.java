@@ -0,0 +1,245 @@
+package bench;
+
+import driver.CompileThreads;
+import driver.Stage;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/*
+    各阶段的吞吐基准测试，用法：
+        java -cp <classes> bench.BenchmarkRunner [选项] [源文件|目录|@清单|synthetic:...]...
+    目录递归收集其中的测试程序；清单须以 @ 开头给出，每行一个源文件路径；其余参数都当作一个源文件
+    选项：
+        --stages LEXER,PARSER,...   被测阶段，缺省全部
+        --warmup N                  预热轮数，缺省 5
+        --iterations N              测量轮数，缺省 10
+        --time MS                   每轮至少运行的毫秒数，缺省 200
+        --forks N                   每个输入在 N 个新的 JVM 中分别测量，缺省 1；0 表示在当前 JVM 中测量
+        --labs DIR                  未给出输入时使用的 labs 目录，缺省 ../labs
+        --csv FILE                  把结果写成 CSV，供之后 --compare 使用
+        --compare FILE              与之前保存的 CSV 对比，输出耗时比值
+    每一轮重复执行被测阶段直到超过 --time，记录该轮的 ns/op；结果为全部测量轮的均值与标准差
+    合成程序使用固定种子，同样的参数在不同提交之间得到同样的输入
+ */
+public class BenchmarkRunner {
+    private EnumSet<Stage> stages = EnumSet.allOf(Stage.class);
+    private int warmup = 5;
+    private int iterations = 10;
+    private long iterationMillis = 200;
+    private int forks = 1;
+    private Path labsDir = Paths.get("..", "labs");
+    private Path csvFile;
+    private Path compareFile;
+    private final List<String> specs = new ArrayList<>();
+
+    // workload → stage → 每轮的 ns/op
+    private final Map<String, Map<Stage, List<Double>>> samples = new LinkedHashMap<>();
+
+    public static void main(String[] args) {
+        try {
+            if (args.length > 0 && args[0].equals("--child")) {
+                runChild(args);
+                return;
+            }
+            BenchmarkRunner runner = new BenchmarkRunner();
+            runner.parseArgs(args);
+            runner.run();
+        } catch (IOException | InterruptedException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void parseArgs(String[] args) throws IOException {
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--stages" -> {
+                    stages = EnumSet.noneOf(Stage.class);
+                    for (String name : args[++i].split(",")) {
+                        stages.add(Stage.parse(name));
+                    }
+                }
+                case "--warmup" -> warmup = Integer.parseInt(args[++i]);
+                case "--iterations" -> iterations = Integer.parseInt(args[++i]);
+                case "--time" -> iterationMillis = Long.parseLong(args[++i]);
+                case "--forks" -> forks = Integer.parseInt(args[++i]);
+                case "--labs" -> labsDir = Paths.get(args[++i]);
+                case "--csv" -> csvFile = Paths.get(args[++i]);
+                case "--compare" -> compareFile = Paths.get(args[++i]);
+                default -> {
+                    if (args[i].startsWith("synthetic:")) {
+                        specs.add(args[i]);
+                    } else if (args[i].startsWith("@") || Files.isDirectory(Paths.get(args[i]))) {
+                        Path input = Paths.get(args[i].startsWith("@") ? args[i].substring(1) : args[i]);
+                        for (Path path : frontend.FileHandler.collectSources(input)) {
+                            specs.add(path.toString());
+                        }
+                    } else {
+                        specs.add(args[i]);
+                    }
+                }
+            }
+        }
+        if (specs.isEmpty()) {
+            specs.addAll(Workload.defaultSpecs(labsDir));
+        }
+    }
+
+    private void run() throws IOException, InterruptedException {
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", " + Runtime.getRuntime().availableProcessors() + " cpus, warmup=" + warmup
+                + ", iterations=" + iterations + ", time=" + iterationMillis + "ms, forks=" + forks);
+        for (String spec : specs) {
+            if (forks == 0) {
+                Workload workload = Workload.parse(spec);
+                CompileThreads.run(CompileThreads.DEFAULT_STACK_SIZE, () -> measure(workload, stages, warmup,
+                        iterations, iterationMillis, (stage, nsPerOp) -> addSample(spec, stage, nsPerOp)));
+            } else {
+                for (int f = 0; f < forks; f++) {
+                    fork(spec);
+                }
+            }
+        }
+
+        List<String> csv = new ArrayList<>();
+        csv.add("workload,stage,ns_per_op,stddev,samples");
+        System.out.println(String.format("%-60s %-9s %14s %12s", "workload", "stage", "us/op", "stddev"));
+        for (var workload : samples.entrySet()) {
+            for (var entry : workload.getValue().entrySet()) {
+                double mean = mean(entry.getValue());
+                double stddev = stddev(entry.getValue(), mean);
+                System.out.println(String.format(Locale.ROOT, "%-60s %-9s %14.2f %12.2f",
+                        workload.getKey(), entry.getKey(), mean / 1000, stddev / 1000));
+                csv.add(String.format(Locale.ROOT, "%s,%s,%.1f,%.1f,%d",
+                        workload.getKey(), entry.getKey(), mean, stddev, entry.getValue().size()));
+            }
+        }
+        if (csvFile != null) {
+            Files.write(csvFile, csv, StandardCharsets.UTF_8);
+        }
+        if (compareFile != null) {
+            compare(readCsv(compareFile), csv);
+        }
+    }
+
+    private interface SampleSink {
+        void accept(Stage stage, double nsPerOp);
+    }
+
+    private static void measure(Workload workload, EnumSet<Stage> stages, int warmup, int iterations,
+                                long iterationMillis, SampleSink sink) {
+        StageBenchmark benchmark = new StageBenchmark(workload.getSource());
+        long iterationNanos = iterationMillis * 1_000_000;
+        long blackhole = 0;
+        for (Stage stage : stages) {
+            if (!benchmark.supports(stage)) continue;
+            for (int i = 0; i < warmup + iterations; i++) {
+                long ops = 0;
+                long start = System.nanoTime();
+                long elapsed;
+                do {
+                    blackhole += benchmark.run(stage);
+                    ops++;
+                    elapsed = System.nanoTime() - start;
+                } while (elapsed < iterationNanos);
+                if (i >= warmup) {
+                    sink.accept(stage, (double) elapsed / ops);
+                }
+            }
+        }
+        if (blackhole == 42) {
+            System.err.print("");
+        }
+    }
+
+    private void addSample(String spec, Stage stage, double nsPerOp) {
+        samples.computeIfAbsent(spec, k -> new LinkedHashMap<>())
+                .computeIfAbsent(stage, k -> new ArrayList<>()).add(nsPerOp);
+    }
+
+    // 在新的 JVM 中测量，子进程每行输出一个样本：<stage> <ns/op>
+    private void fork(String spec) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(BenchmarkRunner.class.getName());
+        command.add("--child");
+        command.add(spec);
+        command.add(String.join(",", stages.stream().map(Stage::name).toList()));
+        command.add(String.valueOf(warmup));
+        command.add(String.valueOf(iterations));
+        command.add(String.valueOf(iterationMillis));
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] parts = line.split(" ");
+                addSample(spec, Stage.valueOf(parts[0]), Double.parseDouble(parts[1]));
+            }
+        }
+        if (process.waitFor() != 0) {
+            throw new IOException("benchmark fork failed: " + spec);
+        }
+    }
+
+    private static void runChild(String[] args) throws IOException {
+        EnumSet<Stage> stages = EnumSet.noneOf(Stage.class);
+        for (String name : args[2].split(",")) {
+            stages.add(Stage.parse(name));
+        }
+        Workload workload = Workload.parse(args[1]);
+        CompileThreads.run(CompileThreads.DEFAULT_STACK_SIZE, () -> measure(workload, stages,
+                Integer.parseInt(args[3]), Integer.parseInt(args[4]), Long.parseLong(args[5]),
+                (stage, nsPerOp) -> System.out.println(stage + " " + nsPerOp)));
+    }
+
+    private static Map<String, Double> readCsv(Path file) throws IOException {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+            String[] parts = line.split(",");
+            if (parts.length < 3 || parts[0].equals("workload")) continue;
+            result.put(parts[0] + "," + parts[1], Double.parseDouble(parts[2]));
+        }
+        return result;
+    }
+
+    private static void compare(Map<String, Double> base, List<String> csv) {
+        System.out.println();
+        System.out.println(String.format("%-60s %-9s %12s %12s %8s", "workload", "stage", "base us", "now us", "ratio"));
+        for (String line : csv) {
+            String[] parts = line.split(",");
+            if (parts[0].equals("workload")) continue;
+            Double before = base.get(parts[0] + "," + parts[1]);
+            if (before == null) continue;
+            double now = Double.parseDouble(parts[2]);
+            System.out.println(String.format(Locale.ROOT, "%-60s %-9s %12.2f %12.2f %8.3f",
+                    parts[0], parts[1], before / 1000, now / 1000, now / before));
+        }
+    }
+
+    private static double mean(List<Double> values) {
+        double sum = 0;
+        for (double value : values) sum += value;
+        return sum / values.size();
+    }
+
+    private static double stddev(List<Double> values, double mean) {
+        if (values.size() < 2) return 0;
+        double sum = 0;
+        for (double value : values) sum += (value - mean) * (value - mean);
+        return Math.sqrt(sum / (values.size() - 1));
+    }
+}
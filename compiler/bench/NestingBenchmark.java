@@ -0,0 +1,107 @@
+package bench;
+
+import driver.CompileThreads;
+import driver.Stage;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+    嵌套深度的伸缩性测试，用法：
+        java -cp <classes> bench.NestingBenchmark [选项]
+    选项：
+        --shapes block,if,...   测试的嵌套形状，缺省全部，见 ProgramGenerator.nestedProgram
+        --max-depth N           最大嵌套深度，缺省 100000
+        --steps N               从 N 个深度测起，每次加倍到 max-depth，缺省 4
+        --repeat N              每个阶段重复测量的次数，取最小值，缺省 5
+        --stack-size 大小       编译线程的栈大小，缺省同编译器
+    每个深度输出各阶段耗时（毫秒）、每层耗时与相对上一个深度的耗时比值；深度加倍时比值接近 2 说明是线性的
+ */
+public class NestingBenchmark {
+    private List<String> shapes = ProgramGenerator.NEST_SHAPES;
+    private int maxDepth = 100_000;
+    private int steps = 4;
+    private int repeat = 5;
+    private long stackSize = CompileThreads.DEFAULT_STACK_SIZE;
+
+    public static void main(String[] args) {
+        try {
+            NestingBenchmark benchmark = new NestingBenchmark();
+            benchmark.parseArgs(args);
+            CompileThreads.run(benchmark.stackSize, benchmark::run);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException(args[i] + " needs a value");
+            switch (args[i]) {
+                case "--shapes" -> shapes = List.of(args[++i].split(","));
+                case "--max-depth" -> maxDepth = Integer.parseInt(args[++i]);
+                case "--steps" -> steps = Integer.parseInt(args[++i]);
+                case "--repeat" -> repeat = Integer.parseInt(args[++i]);
+                case "--stack-size" -> stackSize = CompileThreads.parseSize(args[++i]);
+                default -> throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+    }
+
+    private void run() {
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", max-depth=" + maxDepth + ", steps=" + steps + ", repeat=" + repeat
+                + ", stack=" + (stackSize >> 20) + "m");
+        // 预热：每种形状先用最小的深度跑一遍
+        for (String shape : shapes) {
+            measure(shape, Math.max(1, maxDepth >> (steps - 1)));
+        }
+
+        StringBuilder header = new StringBuilder(String.format("%-7s %8s", "shape", "depth"));
+        for (Stage stage : Stage.values()) {
+            header.append(String.format(" %9s", stage));
+        }
+        header.append(String.format(" %9s %9s %7s", "total", "ns/level", "ratio"));
+        System.out.println(header);
+
+        for (String shape : shapes) {
+            double previous = 0;
+            for (int step = steps - 1; step >= 0; step--) {
+                int depth = Math.max(1, maxDepth >> step);
+                double[] millis = measure(shape, depth);
+                double total = 0;
+                StringBuilder line = new StringBuilder(String.format("%-7s %8d", shape, depth));
+                for (double ms : millis) {
+                    line.append(String.format(Locale.ROOT, " %9.2f", ms));
+                    total += ms;
+                }
+                line.append(String.format(Locale.ROOT, " %9.2f %9.1f %7s", total, total * 1e6 / depth,
+                        previous == 0 ? "-" : String.format(Locale.ROOT, "%.2f", total / previous)));
+                System.out.println(line);
+                previous = total;
+            }
+        }
+    }
+
+    // 各阶段的最短耗时（毫秒），按 Stage 的顺序；前端有错误时不测 IR 与 MIPS
+    private double[] measure(String shape, int depth) {
+        StageBenchmark benchmark = new StageBenchmark(ProgramGenerator.nestedProgram(shape, depth));
+        List<Double> result = new ArrayList<>();
+        for (Stage stage : Stage.values()) {
+            if (!benchmark.supports(stage)) {
+                result.add(0.0);
+                continue;
+            }
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < repeat; i++) {
+                long start = System.nanoTime();
+                benchmark.run(stage);
+                best = Math.min(best, System.nanoTime() - start);
+            }
+            result.add(best / 1e6);
+        }
+        return result.stream().mapToDouble(Double::doubleValue).toArray();
+    }
+}
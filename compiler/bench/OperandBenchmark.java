@@ -0,0 +1,177 @@
+package bench;
+
+import backend.mips.MipsGenerator;
+import driver.CompileThreads;
+import frontend.Lexer;
+import frontend.Parser;
+import frontend.Visitor;
+import frontend.ast.SyntaxTree;
+import frontend.error.ErrorList;
+import frontend.symbol.SymbolManager;
+import frontend.token.NameTable;
+import frontend.token.SourceText;
+import midend.ir.IRBuilder;
+import midend.ir.IRGenerator;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/*
+    后端操作数分类的对比测试，用法：
+        java -cp <classes> bench.OperandBenchmark [选项]
+    选项：
+        --gen SPEC     被测程序，参数见 ProgramGenerator.parse，缺省为只有 main 的一个大函数
+        --rounds N     测量轮数，取最小值，缺省 10
+        --time MS      每轮至少运行的毫秒数，缺省 200
+    把 IR 中的每个操作数同时保存为 Operand 与原先的字符串写法，分别测量：
+        string   原先的做法：Integer.parseInt 捕获异常判断常量，s\d+_ 正则判断 static 变量，其余看前缀
+        typed    读 Operand 的种类
+        mips     整个后端（MipsGenerator.generate）处理一遍
+    string 中绝大多数操作数不是常量，每次都抛出并捕获一个异常
+    不用 JMH：仓库没有构建文件，引不进依赖；与 BenchmarkRunner 等一样自己计时，每轮至少运行 --time 毫秒、取各轮最小值，
+    结果累加到 blackhole 并在最后用到，避免被 JIT 当作死代码删掉
+ */
+public class OperandBenchmark {
+    private static final int IMM = 0, GLOBAL = 1, LABEL = 2, PARAM = 3, LOCAL = 4, OTHER = 5;
+
+    private String spec = "functions=0,nesting=3,width=3000,arrays=4,printfs=4";
+    private int rounds = 10;
+    private long iterationMillis = 200;
+
+    public static void main(String[] args) {
+        try {
+            OperandBenchmark benchmark = new OperandBenchmark();
+            benchmark.parseArgs(args);
+            CompileThreads.run(CompileThreads.DEFAULT_STACK_SIZE, benchmark::run);
+        } catch (IOException | IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    private void parseArgs(String[] args) {
+        for (int i = 0; i < args.length; i++) {
+            if (i + 1 >= args.length) throw new IllegalArgumentException(args[i] + " needs a value");
+            switch (args[i]) {
+                case "--gen" -> spec = args[++i];
+                case "--rounds" -> rounds = Integer.parseInt(args[++i]);
+                case "--time" -> iterationMillis = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+    }
+
+    private void run() {
+        List<Quad> quads = generateIr(ProgramGenerator.parse(spec).generate());
+        List<Operand> operands = new ArrayList<>();
+        for (Quad quad : quads) {
+            if (quad.arg1 != null) operands.add(quad.arg1);
+            if (quad.arg2 != null) operands.add(quad.arg2);
+            if (quad.res != null) operands.add(quad.res);
+        }
+        Operand[] typed = operands.toArray(new Operand[0]);
+        String[] strings = new String[typed.length];
+        int mismatches = 0;
+        for (int i = 0; i < typed.length; i++) {
+            Operand operand = typed[i];
+            strings[i] = operand.getKind() == Operand.Kind.STR ? operand.getName() : operand.toString();
+            if (operand.getKind() != Operand.Kind.STR && classify(strings[i]) != classify(operand)) {
+                mismatches++;
+            }
+        }
+
+        System.out.println("# " + System.getProperty("java.vm.name") + " " + System.getProperty("java.version")
+                + ", gen=" + spec + ", quads=" + quads.size() + ", operands=" + typed.length
+                + ", rounds=" + rounds + ", time=" + iterationMillis + "ms");
+        if (mismatches > 0) {
+            System.out.println("# WARNING: " + mismatches + " operands classified differently");
+        }
+
+        double stringNs = Double.MAX_VALUE;
+        double typedNs = Double.MAX_VALUE;
+        double mipsNs = Double.MAX_VALUE;
+        long blackhole = 0;
+        long iterationNanos = iterationMillis * 1_000_000;
+        for (int round = 0; round < rounds; round++) {
+            long ops = 0;
+            long start = System.nanoTime();
+            long elapsed;
+            do {
+                for (String operand : strings) blackhole += classify(operand);
+                ops++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            stringNs = Math.min(stringNs, (double) elapsed / ops / strings.length);
+
+            ops = 0;
+            start = System.nanoTime();
+            do {
+                for (Operand operand : typed) blackhole += classify(operand);
+                ops++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            typedNs = Math.min(typedNs, (double) elapsed / ops / typed.length);
+
+            ops = 0;
+            start = System.nanoTime();
+            do {
+                blackhole += new MipsGenerator(quads).generate().size();
+                ops++;
+                elapsed = System.nanoTime() - start;
+            } while (elapsed < iterationNanos);
+            mipsNs = Math.min(mipsNs, (double) elapsed / ops);
+        }
+
+        System.out.println(String.format(Locale.ROOT, "%-8s %14.2f ns/operand", "string", stringNs));
+        System.out.println(String.format(Locale.ROOT, "%-8s %14.2f ns/operand %8.1fx", "typed", typedNs, stringNs / typedNs));
+        System.out.println(String.format(Locale.ROOT, "%-8s %14.2f ms/op", "mips", mipsNs / 1_000_000));
+        if (blackhole == 42) {
+            System.err.print("");
+        }
+    }
+
+    private static List<Quad> generateIr(String source) {
+        ErrorList errorList = new ErrorList();
+        NameTable names = new NameTable();
+        Lexer lexer = new Lexer(errorList, names);
+        lexer.analyze(SourceText.of(source));
+        SyntaxTree ast = new Parser(lexer.getTokens(), errorList).analyze();
+        SymbolManager symbolManager = new SymbolManager(names);
+        new Visitor(ast, symbolManager, errorList).analyze();
+        if (!errorList.isEmpty()) {
+            throw new IllegalArgumentException("generated program has errors: " + errorList.getErrors());
+        }
+        IRBuilder irBuilder = new IRBuilder();
+        new IRGenerator(ast, symbolManager, irBuilder).generate();
+        return irBuilder.getIr();
+    }
+
+    // 原先后端对字符串操作数的判断方式
+    private static int classify(String operand) {
+        try {
+            Integer.parseInt(operand);
+            return IMM;
+        } catch (NumberFormatException e) {
+            // 不是常量
+        }
+        if (operand.startsWith("g_") || operand.matches("s\\d+_.*")) return GLOBAL;
+        if (operand.startsWith("L")) return LABEL;
+        if (operand.startsWith("p")) return PARAM;
+        if (operand.startsWith("v") || operand.startsWith("t")) return LOCAL;
+        return OTHER;
+    }
+
+    private static int classify(Operand operand) {
+        return switch (operand.getKind()) {
+            case IMM -> IMM;
+            case GLOBAL, STATIC -> GLOBAL;
+            case LABEL -> LABEL;
+            case PARAM -> PARAM;
+            case LOCAL, TEMP -> LOCAL;
+            case NAME, STR -> OTHER;
+        };
+    }
+}
@@ -0,0 +1,329 @@
+package bench;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/*
+    按给定规模生成符合课程文法、能通过语义检查并正常运行结束的程序，用于压力测试与基准测试
+        functions   函数个数（不含 main），每个函数只调用排在它前面的函数，不会递归
+        nesting     函数体内 if / for 语句的嵌套深度，for 循环固定执行 2 次
+        exprDepth   表达式中括号的嵌套深度
+        width       每个表达式的项数
+        arrays      全局数组个数（一半为 const 数组），下标总是取模落在范围内
+        arraySize   全局数组长度
+        printfs     main 中不同格式串的 printf 个数
+        seed        随机种子，同样的参数与种子总是生成同样的源码
+    命令行：java bench.ProgramGenerator [--functions N] [--nesting N] [--expr-depth N] [--width N]
+           [--arrays N] [--array-size N] [--printfs N] [--seed N] [-o 文件]
+    也可以用 key=value,... 的形式描述，见 parse
+ */
+public class ProgramGenerator {
+    private int functions = 10;
+    private int nesting = 2;
+    private int exprDepth = 1;
+    private int width = 4;
+    private int arrays = 2;
+    private int arraySize = 16;
+    private int printfs = 4;
+    private long seed = 20250101L;
+
+    private Random random;
+    private StringBuilder sb;
+    private final List<String> constArrays = new ArrayList<>();
+    private final List<String> varArrays = new ArrayList<>();
+
+    // ================== 预置规模 ==================
+    public static ProgramGenerator deepExpression(int depth) {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.functions = 0;
+        generator.nesting = 0;
+        generator.exprDepth = depth;
+        generator.width = 2;
+        generator.printfs = 1;
+        return generator;
+    }
+
+    public static ProgramGenerator manyFunctions(int count) {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.functions = count;
+        generator.nesting = 1;
+        generator.width = 3;
+        return generator;
+    }
+
+    public static ProgramGenerator hugeGlobalArrays(int arrays, int size) {
+        ProgramGenerator generator = new ProgramGenerator();
+        generator.functions = 1;
+        generator.arrays = arrays;
+        generator.arraySize = size;
+        return generator;
+    }
+
+    /*
+        嵌套深度测试：main 中只有一处嵌套 depth 层的结构，源码长度与深度成正比
+            block   { { ... s = s + 1; ... } }
+            if      if (s < 9) if (s < 9) ... s = s + 1;
+            else    if (s == 0) s = 1; else if (s == 1) s = 2; else ...
+            for     for (; s < 1;) for (; s < 1;) ... s = s + 1;
+            paren   s = ((( ... s + 1 ... )));
+            unary   s = - - - ... s;
+     */
+    public static final List<String> NEST_SHAPES = List.of("block", "if", "else", "for", "paren", "unary");
+
+    public static String nestedProgram(String shape, int depth) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("int main() {\n");
+        sb.append("    int s = 0;\n");
+        switch (shape) {
+            case "block" -> sb.append("    ").append("{ ".repeat(depth)).append("s = s + 1; ").append("} ".repeat(depth));
+            case "if" -> sb.append("    ").append("if (s < 9) ".repeat(depth)).append("s = s + 1;");
+            case "else" -> {
+                for (int i = 0; i < depth; i++) {
+                    sb.append("    if (s == ").append(i).append(") s = ").append(i + 1).append(";\n    else");
+                }
+                sb.append(" s = 0;");
+            }
+            case "for" -> sb.append("    ").append("for (; s < 1;) ".repeat(depth)).append("s = s + 1;");
+            case "paren" -> sb.append("    s = ").append("(".repeat(depth)).append("s + 1").append(")".repeat(depth)).append(';');
+            case "unary" -> sb.append("    s = ").append("- ".repeat(depth)).append("s;");
+            default -> throw new IllegalArgumentException("unknown nesting shape: " + shape);
+        }
+        sb.append("\n    printf(\"%d\\n\", s);\n");
+        sb.append("    return 0;\n");
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /*
+        spec 形如 functions=2000,nesting=3,width=8（也可以用 ; 分隔）；未给出的参数取缺省值
+     */
+    public static ProgramGenerator parse(String spec) {
+        ProgramGenerator generator = new ProgramGenerator();
+        for (String item : spec.split("[,;]")) {
+            if (item.isBlank()) continue;
+            String[] kv = item.split("=", 2);
+            if (kv.length != 2) {
+                throw new IllegalArgumentException("bad generator parameter: " + item);
+            }
+            generator.set(kv[0].trim(), kv[1].trim());
+        }
+        return generator;
+    }
+
+    private void set(String key, String value) {
+        switch (key) {
+            case "functions" -> functions = Integer.parseInt(value);
+            case "nesting" -> nesting = Integer.parseInt(value);
+            case "expr-depth", "exprDepth" -> exprDepth = Integer.parseInt(value);
+            case "width" -> width = Math.max(1, Integer.parseInt(value));
+            case "arrays" -> arrays = Integer.parseInt(value);
+            case "array-size", "arraySize" -> arraySize = Math.max(1, Integer.parseInt(value));
+            case "printfs" -> printfs = Integer.parseInt(value);
+            case "seed" -> seed = Long.parseLong(value);
+            default -> throw new IllegalArgumentException("unknown generator parameter: " + key);
+        }
+    }
+
+    public static void main(String[] args) {
+        ProgramGenerator generator = new ProgramGenerator();
+        String output = null;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            if (args[i].equals("-o")) {
+                output = args[i + 1];
+            } else if (args[i].startsWith("--")) {
+                generator.set(args[i].substring(2), args[i + 1]);
+            } else {
+                throw new IllegalArgumentException("unknown option: " + args[i]);
+            }
+        }
+        String source = generator.generate();
+        try {
+            if (output == null) {
+                System.out.print(source);
+            } else {
+                Files.writeString(Paths.get(output), source, StandardCharsets.UTF_8);
+            }
+        } catch (IOException e) {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // =================== 生成 ===================
+    public String generate() {
+        random = new Random(seed);
+        sb = new StringBuilder();
+        constArrays.clear();
+        varArrays.clear();
+
+        genGlobals();
+        for (int i = 0; i < functions; i++) {
+            genFunction(i);
+        }
+        genMain();
+        return sb.toString();
+    }
+
+    private void genGlobals() {
+        sb.append("const int K0 = ").append(random.nextInt(9) + 1)
+                .append(", K1 = ").append(random.nextInt(90) + 10).append(";\n");
+        for (int i = 0; i < arrays; i++) {
+            boolean isConst = i % 2 == 0;
+            String name = (isConst ? "c" : "g") + i;
+            (isConst ? constArrays : varArrays).add(name);
+            sb.append(isConst ? "const int " : "int ").append(name).append('[').append(arraySize).append("] = {");
+            for (int j = 0; j < arraySize; j++) {
+                if (j > 0) sb.append(j % 16 == 0 ? ",\n    " : ", ");
+                sb.append(random.nextInt(1000));
+            }
+            sb.append("};\n");
+        }
+    }
+
+    // 函数 fN(int a, int b, int arr[])，有全局变量数组时带数组形参
+    private void genFunction(int index) {
+        boolean hasArrayParam = !varArrays.isEmpty();
+        sb.append("int f").append(index).append("(int a, int b").append(hasArrayParam ? ", int arr[]" : "").append(") {\n");
+        List<String> vars = new ArrayList<>(List.of("a", "b"));
+        if (hasArrayParam) {
+            vars.add("arr[" + random.nextInt(arraySize) + "]");
+        }
+
+        int locals = Math.max(1, width / 2);
+        for (int i = 0; i < locals; i++) {
+            sb.append("    int x").append(i).append(" = ").append(expr(vars)).append(";\n");
+            vars.add("x" + i);
+        }
+        if (nesting > 0) {
+            sb.append("    int i0 = 0");
+            for (int i = 1; i < nesting; i++) {
+                sb.append(", i").append(i).append(" = 0");
+            }
+            sb.append(";\n");
+        }
+        if (index > 0) {
+            sb.append("    x0 = x0 + ").append(call(random.nextInt(index), vars)).append(";\n");
+        }
+        genNested(vars, nesting, 1);
+        sb.append("    return ").append(expr(vars)).append(";\n");
+        sb.append("}\n");
+    }
+
+    private String call(int callee, List<String> vars) {
+        String args = pick(vars) + ", " + pick(vars);
+        if (!varArrays.isEmpty()) {
+            args += ", " + varArrays.get(random.nextInt(varArrays.size()));
+        }
+        return "f" + callee + "(" + args + ")";
+    }
+
+    private void genNested(List<String> vars, int level, int indent) {
+        String pad = "    ".repeat(indent);
+        if (level == 0) {
+            sb.append(pad).append(pick(assignable(vars))).append(" = ").append(expr(vars)).append(";\n");
+            return;
+        }
+        int loop = nesting - level;
+        if (level % 2 == 0) {
+            sb.append(pad).append("if (").append(expr(vars)).append(" > ").append(random.nextInt(100))
+                    .append(" && ").append(pick(vars)).append(" != 0) {\n");
+            genNested(vars, level - 1, indent + 1);
+            sb.append(pad).append("} else {\n");
+            sb.append(pad).append("    ").append(pick(assignable(vars))).append(" = ").append(expr(vars)).append(";\n");
+            sb.append(pad).append("}\n");
+        } else {
+            sb.append(pad).append("for (i").append(loop).append(" = 0; i").append(loop).append(" < 2; i")
+                    .append(loop).append(" = i").append(loop).append(" + 1) {\n");
+            List<String> inner = new ArrayList<>(vars);
+            inner.add("i" + loop);
+            genNested(inner, level - 1, indent + 1);
+            sb.append(pad).append("}\n");
+        }
+    }
+
+    private List<String> assignable(List<String> vars) {
+        List<String> result = new ArrayList<>();
+        for (String var : vars) {
+            if (var.startsWith("x")) result.add(var);
+        }
+        return result.isEmpty() ? vars : result;
+    }
+
+    private void genMain() {
+        sb.append("int main() {\n");
+        sb.append("    int s = ").append(random.nextInt(10)).append(";\n");
+        List<String> vars = new ArrayList<>(List.of("s"));
+        sb.append("    int x0 = ").append(expr(vars)).append(";\n");
+        vars.add("x0");
+        int step = Math.max(1, functions / 16);
+        for (int i = 0; i < functions; i += step) {
+            sb.append("    s = s + ").append(call(i, vars)).append(" % 1000;\n");
+        }
+        for (int i = 0; i < printfs; i++) {
+            sb.append("    printf(\"p").append(i).append(": %d, %d\\n\", s, ").append(expr(vars)).append(");\n");
+        }
+        sb.append("    return 0;\n");
+        sb.append("}\n");
+    }
+
+    // ================== 表达式 ==================
+    private String expr(List<String> vars) {
+        StringBuilder e = new StringBuilder();
+        for (int i = 0; i < width; i++) {
+            if (i > 0) {
+                e.append(pickOp());
+            }
+            e.append(i == 0 ? nested(vars, exprDepth) : term(vars));
+        }
+        return e.toString();
+    }
+
+    private String nested(List<String> vars, int depth) {
+        StringBuilder e = new StringBuilder();
+        for (int i = 0; i < depth; i++) {
+            e.append(pick(vars)).append(pickOp()).append('(');
+        }
+        e.append(term(vars));
+        e.append(")".repeat(depth));
+        return e.toString();
+    }
+
+    private String pickOp() {
+        return switch (random.nextInt(7)) {
+            case 0, 1 -> " + ";
+            case 2, 3 -> " - ";
+            case 4 -> " * ";
+            case 5 -> " / " + (random.nextInt(9) + 1) + " + ";
+            default -> " % " + (random.nextInt(9) + 1) + " - ";
+        };
+    }
+
+    private String term(List<String> vars) {
+        int choice = random.nextInt(6);
+        List<String> all = new ArrayList<>(constArrays);
+        all.addAll(varArrays);
+        if (choice == 0 && !all.isEmpty()) {
+            String index = pick(vars);
+            return all.get(random.nextInt(all.size())) + "[(" + index + " % " + arraySize + " + " + arraySize + ") % "
+                    + arraySize + "]";
+        }
+        if (choice == 1) {
+            return random.nextBoolean() ? "K0" : "K1";
+        }
+        if (choice == 2) {
+            return String.valueOf(random.nextInt(100));
+        }
+        if (choice == 3) {
+            return "-" + pick(vars);
+        }
+        return pick(vars);
+    }
+
+    private String pick(List<String> vars) {
+        return vars.get(random.nextInt(vars.size()));
+    }
+}
@@ -0,0 +1,85 @@
+package bench;
+
+import backend.mips.MipsGenerator;
+import driver.Stage;
+import frontend.Lexer;
+import frontend.Parser;
+import frontend.Visitor;
+import frontend.ast.SyntaxTree;
+import frontend.error.ErrorList;
+import frontend.symbol.SymbolManager;
+import frontend.token.NameTable;
+import frontend.token.SourceText;
+import frontend.token.TokenBuffer;
+import midend.ir.IRBuilder;
+import midend.ir.IRGenerator;
+import midend.ir.Quad;
+
+import java.util.List;
+
+/*
+    单独测量某一个阶段：先把前面各阶段的结果准备好，每次只重复执行被测阶段
+    各阶段的输入在测量过程中只读，可以反复使用
+    前端有错误的程序不测 IR 与 MIPS
+ */
+public class StageBenchmark {
+    private final SourceText source;
+    private final TokenBuffer tokens;
+    private final SyntaxTree ast;
+    private final SymbolManager symbolManager;
+    private final List<Quad> quads;
+
+    public StageBenchmark(String source) {
+        this.source = SourceText.of(source);
+        ErrorList errorList = new ErrorList();
+        NameTable names = new NameTable();
+        Lexer lexer = new Lexer(errorList, names);
+        lexer.analyze(this.source);
+        tokens = lexer.getTokens();
+        ast = new Parser(tokens, errorList).analyze();
+        symbolManager = new SymbolManager(names);
+        new Visitor(ast, symbolManager, errorList).analyze();
+        if (errorList.isEmpty()) {
+            IRBuilder irBuilder = new IRBuilder();
+            new IRGenerator(ast, symbolManager, irBuilder).generate();
+            quads = irBuilder.getIr();
+        } else {
+            quads = null;
+        }
+    }
+
+    public boolean supports(Stage stage) {
+        return quads != null || stage.compareTo(Stage.SEMANTIC) <= 0;
+    }
+
+    /*
+        执行一次被测阶段，返回与结果相关的数，防止被 JIT 当作无用代码消除
+     */
+    public long run(Stage stage) {
+        switch (stage) {
+            case LEXER -> {
+                Lexer lexer = new Lexer(new ErrorList());
+                lexer.analyze(source);
+                return lexer.getTokens().size();
+            }
+            case PARSER -> {
+                Parser parser = new Parser(tokens, new ErrorList());
+                return parser.analyze().getRoot() + parser.getNodeCount();
+            }
+            case SEMANTIC -> {
+                Visitor visitor = new Visitor(ast, new SymbolManager(symbolManager.getNames()), new ErrorList());
+                visitor.analyze();
+                return visitor.getAllSymbols().size();
+            }
+            case IR -> {
+                IRBuilder irBuilder = new IRBuilder();
+                new IRGenerator(ast, symbolManager, irBuilder).generate();
+                return irBuilder.getIr().size();
+            }
+            case MIPS -> {
+                return new MipsGenerator(quads).generate().size();
+            }
+        }
+        throw new IllegalArgumentException(stage.toString());
+    }
+}
@@ -0,0 +1,75 @@
+package bench;
+
+import frontend.FileHandler;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    一个基准测试输入，用 spec 字符串描述，便于传给子进程：
+        synthetic:deep-expr:<深度>
+        synthetic:functions:<函数个数>
+        synthetic:arrays:<数组个数>:<长度>
+        synthetic:gen:<key=value;...>   任意规模，参数见 ProgramGenerator
+        synthetic:nest:<形状>:<深度>     嵌套 depth 层的语句或表达式，形状见 ProgramGenerator.nestedProgram
+        其他            源文件路径
+ */
+public class Workload {
+    private final String spec;
+    private final String name;
+    private final String source;
+
+    private Workload(String spec, String name, String source) {
+        this.spec = spec;
+        this.name = name;
+        this.source = source;
+    }
+
+    public static Workload parse(String spec) throws IOException {
+        if (!spec.startsWith("synthetic:")) {
+            Path path = Paths.get(spec);
+            return new Workload(spec, spec, FileHandler.readSourceFile(path));
+        }
+        String[] parts = spec.split(":");
+        String source = switch (parts[1]) {
+            case "deep-expr" -> ProgramGenerator.deepExpression(Integer.parseInt(parts[2])).generate();
+            case "functions" -> ProgramGenerator.manyFunctions(Integer.parseInt(parts[2])).generate();
+            case "arrays" -> ProgramGenerator.hugeGlobalArrays(Integer.parseInt(parts[2]), Integer.parseInt(parts[3])).generate();
+            case "gen" -> ProgramGenerator.parse(parts.length > 2 ? parts[2] : "").generate();
+            case "nest" -> ProgramGenerator.nestedProgram(parts[2], Integer.parseInt(parts[3]));
+            default -> throw new IllegalArgumentException("unknown synthetic workload: " + spec);
+        };
+        return new Workload(spec, spec.substring("synthetic:".length()), source);
+    }
+
+    /*
+        labs 目录下的全部测试程序（按路径排序）加上默认的合成程序
+     */
+    public static List<String> defaultSpecs(Path labsDir) throws IOException {
+        List<String> specs = new ArrayList<>();
+        if (labsDir.toFile().isDirectory()) {
+            for (Path path : FileHandler.collectSources(labsDir)) {
+                specs.add(path.toString());
+            }
+        }
+        specs.add("synthetic:deep-expr:200");
+        specs.add("synthetic:functions:2000");
+        specs.add("synthetic:arrays:8:4096");
+        return specs;
+    }
+
+    public String getSpec() {
+        return spec;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getSource() {
+        return source;
+    }
+}
@@ -0,0 +1,104 @@
+package driver;
+
+import frontend.FileHandler;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    批量编译：在同一个 JVM 中编译多个源文件
+    参数可以是目录（递归收集名字以 testfile 开头的文件，跳过 .zip 与输出目录 *.out）或清单文件（每行一个源文件路径，# 开头为注释）
+    跳过的压缩包、没有找到源文件的参数在 stderr 上提示
+    每个源文件 xxx.txt 的输出写入同目录下的 xxx.out/
+    -j N 指定并行编译的线程数，默认 1，0 表示全部核心；每个源文件使用独立的 Compilation，互不干扰
+    --stage / --emit 与单文件模式相同
+ */
+public class BatchCompiler {
+    private final Stage defaultStage;
+    private final AtomicInteger compiled = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private CompileOptions options;
+
+    public BatchCompiler(Stage defaultStage) {
+        this.defaultStage = defaultStage;
+    }
+
+    public int getCompiled() {
+        return compiled.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public void run(List<String> args) throws IOException {
+        options = CompileOptions.parse(args, defaultStage);
+        int jobs = options.getJobs(1);
+        List<Path> sources = new ArrayList<>();
+        for (String arg : options.getPositional()){
+            List<Path> skipped = new ArrayList<>();
+            List<Path> found = FileHandler.collectSources(Paths.get(arg), skipped);
+            for (Path path : skipped){
+                System.err.println("batch: skipped " + path);
+            }
+            if (found.isEmpty()){
+                System.err.println("batch: no source files in " + arg);
+            }
+            sources.addAll(found);
+        }
+
+        long start = System.nanoTime();
+        // 编译线程使用 --stack-size 指定的栈大小
+        if (jobs <= 1) {
+            CompileThreads.run(options.getStackSize(), () -> {
+                for (Path source : sources){
+                    compileOne(source);
+                }
+            });
+        } else {
+            ExecutorService pool = Executors.newFixedThreadPool(jobs,
+                    CompileThreads.factory("batch", options.getStackSize()));
+            for (Path source : sources){
+                pool.execute(() -> compileOne(source));
+            }
+            pool.shutdown();
+            try {
+                pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        long elapsed = (System.nanoTime() - start) / 1_000_000;
+        System.out.println("batch: " + compiled + " compiled, " + failed + " failed, " + elapsed + " ms, "
+                + jobs + " job(s)");
+    }
+
+    private void compileOne(Path source){
+        try {
+            Path outDir = outDirOf(source);
+            Files.createDirectories(outDir);
+            Pipeline.compile(FileHandler.mapSourceFile(source, options.getCharset()), options, outDir);
+            compiled.incrementAndGet();
+        } catch (IOException | RuntimeException | StackOverflowError e) {
+            // 单个文件失败不影响整批
+            failed.incrementAndGet();
+            System.err.println(source + ": " + e);
+        }
+    }
+
+    public static Path outDirOf(Path source){
+        String fileName = source.getFileName().toString();
+        int dot = fileName.lastIndexOf('.');
+        String stem = dot > 0 ? fileName.substring(0, dot) : fileName;
+        return source.resolveSibling(stem + ".out");
+    }
+}
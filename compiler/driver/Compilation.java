@@ -0,0 +1,33 @@
+package driver;
+
+import frontend.error.ErrorList;
+import frontend.symbol.SymbolManager;
+import frontend.token.NameTable;
+import midend.ir.IRBuilder;
+
+/*
+    一次编译的全部可变状态：错误表、标识符表、符号表、IR 构造器（临时变量/标签计数器）
+    不同的 Compilation 之间没有共享的可变状态，因此可以在多个线程上并发编译
+ */
+public class Compilation {
+    private final ErrorList errorList = new ErrorList();
+    private final NameTable names = new NameTable();
+    private final SymbolManager symbolManager = new SymbolManager(names);
+    private final IRBuilder irBuilder = new IRBuilder();
+
+    public ErrorList getErrorList() {
+        return errorList;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
+    public SymbolManager getSymbolManager() {
+        return symbolManager;
+    }
+
+    public IRBuilder getIrBuilder() {
+        return irBuilder;
+    }
+}
@@ -0,0 +1,55 @@
+package driver;
+
+import frontend.FileHandler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/*
+    CompileServer 的命令行客户端：发送一个源文件，把返回的输出文件写入 outDir
+    stages 为逗号分隔的阶段列表，如 IR,MIPS
+ */
+public class CompileClient {
+
+    public static void send(SocketAddress address, String stages, Path source, Path outDir) throws IOException {
+        byte[] sourceBytes = FileHandler.readSourceFile(source).getBytes(StandardCharsets.UTF_8);
+        try (SocketChannel channel = address instanceof UnixDomainSocketAddress
+                ? SocketChannel.open(StandardProtocolFamily.UNIX) : SocketChannel.open()) {
+            channel.connect(address);
+            InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel));
+
+            CompileServer.writeLine(out, "COMPILE " + stages + " " + sourceBytes.length);
+            out.write(sourceBytes);
+            out.flush();
+
+            String status = CompileServer.readLine(in);
+            if (status == null || !status.startsWith("OK ")) {
+                throw new IOException("daemon: " + status);
+            }
+            String[] parts = status.split(" ");
+            int files = Integer.parseInt(parts[2]);
+            Files.createDirectories(outDir);
+            for (int i = 0; i < files; i++) {
+                String[] header = CompileServer.readLine(in).split(" ");
+                byte[] content = CompileServer.readExactly(in, Integer.parseInt(header[2]));
+                Files.write(outDir.resolve(header[1]), content);
+            }
+            System.out.println(source + ": " + parts[1] + " us");
+
+            CompileServer.writeLine(out, "QUIT");
+            out.flush();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package driver;
+
+import midend.pass.PassManager;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+    命令行选项：
+        --stage <STAGE>        编译到哪个阶段为止（LEXER/PARSER/SEMANTIC/IR/MIPS）
+        --emit <STAGE,...>     输出哪些阶段的结果，可以同时输出多个；缺省只输出 --stage 对应的结果
+        -i <文件>              源文件，缺省为 testfile.txt
+        -o <目录>              输出目录，缺省为当前目录
+        -j <N>                 并行线程数（批量编译/常驻服务）
+        --charset <名称>       源文件字符集，缺省 UTF-8
+        --stats                各阶段耗时、分配内存与产出数量，以表格输出到 stderr
+        --stats-json           同上，以 JSON 输出
+        --stack-size <大小>    编译线程的栈大小，如 256m、1g，缺省见 CompileThreads
+        --max-errors <N>       error.txt 最多输出的错误数，缺省不限
+        --function-jobs <N>    按函数并行做语义分析与 IR 生成的线程数，缺省 1（顺序）；0 表示全部核心
+        -O0 / -O1 / -O2        IR 优化级别，缺省 -O0（不做变换），各级别的 pass 见 PassManager.preset
+        --passes <名字,...>    直接给出依次运行的 pass，覆盖 -O
+        --verify-ir            第一个 pass 之前与每个 pass 之后校验 IR
+        --dump-ir-after <名字,...|all>  这些 pass 运行后各输出一份 ir.<序号>.<名字>.txt
+    其余参数按顺序保留在 positional 中
+ */
+public class CompileOptions {
+    private Stage stopStage;
+    private final EnumSet<Stage> emits = EnumSet.noneOf(Stage.class);
+    private Path input = Paths.get("testfile.txt");
+    private Path outDir = Paths.get("");
+    private int jobs = -1;
+    private Charset charset = StandardCharsets.UTF_8;
+    private boolean stats = false;
+    private boolean statsJson = false;
+    private long stackSize = CompileThreads.DEFAULT_STACK_SIZE;
+    private int maxErrors = Integer.MAX_VALUE;
+    private int functionJobs = 1;
+    private int optLevel = 0;
+    private List<String> passes = null;
+    private boolean verifyIr = false;
+    private final Set<String> dumpIrAfter = new LinkedHashSet<>();
+    private final List<String> positional = new ArrayList<>();
+
+    public static CompileOptions of(Stage stage) {
+        CompileOptions options = new CompileOptions();
+        options.stopStage = stage;
+        options.emits.add(stage);
+        return options;
+    }
+
+    /*
+        emits 形如 "IR,MIPS"，编译到其中最靠后的阶段为止
+     */
+    public static CompileOptions ofEmits(String emits) {
+        CompileOptions options = new CompileOptions();
+        options.addEmits(emits);
+        options.finish(Stage.MIPS);
+        return options;
+    }
+
+    public static CompileOptions parse(List<String> args, Stage defaultStage) {
+        CompileOptions options = new CompileOptions();
+        for (int i = 0; i < args.size(); i++) {
+            String arg = args.get(i);
+            boolean hasValue = i + 1 < args.size();
+            switch (arg) {
+                case "--stage" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--stage needs a value");
+                    options.stopStage = Stage.parse(args.get(++i));
+                }
+                case "--emit" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--emit needs a value");
+                    options.addEmits(args.get(++i));
+                }
+                case "-i" -> {
+                    if (!hasValue) throw new IllegalArgumentException("-i needs a value");
+                    options.input = Paths.get(args.get(++i));
+                }
+                case "-o" -> {
+                    if (!hasValue) throw new IllegalArgumentException("-o needs a value");
+                    options.outDir = Paths.get(args.get(++i));
+                }
+                case "-j", "--jobs" -> {
+                    if (!hasValue) throw new IllegalArgumentException(arg + " needs a value");
+                    options.jobs = Integer.parseInt(args.get(++i));
+                }
+                case "--charset" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--charset needs a value");
+                    options.charset = Charset.forName(args.get(++i));
+                }
+                case "--stack-size" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--stack-size needs a value");
+                    options.stackSize = CompileThreads.parseSize(args.get(++i));
+                }
+                case "--max-errors" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--max-errors needs a value");
+                    options.maxErrors = Integer.parseInt(args.get(++i));
+                }
+                case "--function-jobs" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--function-jobs needs a value");
+                    options.functionJobs = Integer.parseInt(args.get(++i));
+                }
+                case "-O0", "-O1", "-O2" -> options.optLevel = arg.charAt(2) - '0';
+                case "--passes" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--passes needs a value");
+                    options.passes = passList(args.get(++i));
+                }
+                case "--verify-ir" -> options.verifyIr = true;
+                case "--dump-ir-after" -> {
+                    if (!hasValue) throw new IllegalArgumentException("--dump-ir-after needs a value");
+                    String list = args.get(++i);
+                    options.dumpIrAfter.addAll(list.equals(PassManager.DUMP_ALL) ? Set.of(list) : passList(list));
+                }
+                case "--stats" -> options.stats = true;
+                case "--stats-json" -> {
+                    options.stats = true;
+                    options.statsJson = true;
+                }
+                default -> options.positional.add(arg);
+            }
+        }
+        options.finish(defaultStage);
+        return options;
+    }
+
+    private void addEmits(String list) {
+        for (String name : list.split(",")) {
+            if (!name.isBlank()) {
+                emits.add(Stage.parse(name));
+            }
+        }
+    }
+
+    private static List<String> passList(String list) {
+        List<String> names = new ArrayList<>();
+        for (String name : list.split(",")) {
+            name = name.trim();
+            if (name.isEmpty()) continue;
+            if (!PassManager.isPass(name)) {
+                throw new IllegalArgumentException("unknown pass: " + name + ", expected one of " + PassManager.getPassNames());
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    private void finish(Stage defaultStage) {
+        if (emits.isEmpty()) {
+            if (stopStage == null) stopStage = defaultStage;
+            emits.add(stopStage);
+            return;
+        }
+        Stage last = null;
+        for (Stage stage : emits) {
+            last = stage;
+        }
+        if (stopStage == null || stopStage.compareTo(last) < 0) {
+            stopStage = last;
+        }
+    }
+
+    public Stage getStopStage() {
+        return stopStage;
+    }
+
+    public boolean emits(Stage stage) {
+        return emits.contains(stage);
+    }
+
+    public EnumSet<Stage> getEmits() {
+        return emits;
+    }
+
+    public Path getInput() {
+        return input;
+    }
+
+    public Path getOutDir() {
+        return outDir;
+    }
+
+    /*
+        未指定时返回 defaultJobs；0 表示全部核心
+     */
+    public int getJobs(int defaultJobs) {
+        int n = jobs < 0 ? defaultJobs : jobs;
+        return n <= 0 ? Runtime.getRuntime().availableProcessors() : n;
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    public boolean isStats() {
+        return stats;
+    }
+
+    public boolean isStatsJson() {
+        return statsJson;
+    }
+
+    public long getStackSize() {
+        return stackSize;
+    }
+
+    public int getMaxErrors() {
+        return maxErrors;
+    }
+
+    public int getFunctionJobs() {
+        return functionJobs <= 0 ? Runtime.getRuntime().availableProcessors() : functionJobs;
+    }
+
+    public int getOptLevel() {
+        return optLevel;
+    }
+
+    /*
+        依次运行的 pass：给了 --passes 时为其列表，否则为 -O 级别的预设
+     */
+    public List<String> getPasses() {
+        return passes != null ? passes : PassManager.preset(optLevel);
+    }
+
+    public boolean isVerifyIr() {
+        return verifyIr;
+    }
+
+    public Set<String> getDumpIrAfter() {
+        return dumpIrAfter;
+    }
+
+    public List<String> getPositional() {
+        return positional;
+    }
+}
@@ -0,0 +1,40 @@
+package driver;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    一次编译产生的输出文件：文件名 → 内容（按行），按产生顺序排列
+    开启统计时附带各阶段的 StageStats
+ */
+public class CompileResult {
+    private final Map<String, List<String>> outputs = new LinkedHashMap<>();
+    private boolean hasErrors = false;
+    private StageStats stats;
+
+    public void addOutput(String fileName, List<String> lines) {
+        outputs.put(fileName, lines);
+    }
+
+    public void addErrors(List<String> errors) {
+        hasErrors = true;
+        outputs.put("error.txt", errors);
+    }
+
+    public Map<String, List<String>> getOutputs() {
+        return outputs;
+    }
+
+    public boolean hasErrors() {
+        return hasErrors;
+    }
+
+    public StageStats getStats() {
+        return stats;
+    }
+
+    public void setStats(StageStats stats) {
+        this.stats = stats;
+    }
+}
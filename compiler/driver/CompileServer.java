@@ -0,0 +1,222 @@
+package driver;
+
+import frontend.token.SourceText;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+    常驻编译服务：监听 localhost 端口或 Unix domain socket，JVM 与 JIT 编译结果在请求之间保持热态
+    协议（按行，UTF-8），一个连接上可以连续发送多个请求：
+        COMPILE <STAGE[,STAGE...]> <n>\n<n 字节源码>  → OK <耗时微秒> <k>\n 之后 k 个 FILE <文件名> <字节数>\n<内容>
+        STATS                                        → STATS requests=<n> total_us=<t> max_us=<m>
+        QUIT                                         → 关闭当前连接
+        SHUTDOWN                                     → BYE，停止服务
+    出错时返回 ERR <原因>；COMPILE 缺参数或长度不是 0 到 MAX_SOURCE_BYTES 之间的整数时找不到下一个请求的开头，回复 ERR 后关闭连接
+ */
+public class CompileServer {
+    public static final int MAX_SOURCE_BYTES = 16 << 20;
+    private final SocketAddress address;
+    private final ExecutorService workers = Executors.newCachedThreadPool(
+            CompileThreads.factory("daemon", CompileThreads.DEFAULT_STACK_SIZE));
+    private final Semaphore compileSlots;
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+    private ServerSocketChannel server;
+    private volatile boolean running = true;
+
+    public CompileServer(SocketAddress address, int jobs) {
+        this.address = address;
+        this.compileSlots = new Semaphore(Math.max(1, jobs));
+    }
+
+    /*
+        unix:<路径> 为 Unix domain socket，[host:]port 为 TCP（host 缺省为回环地址）
+     */
+    public static SocketAddress parseAddress(String spec) throws IOException {
+        if (spec.startsWith("unix:")) {
+            return UnixDomainSocketAddress.of(spec.substring("unix:".length()));
+        }
+        int colon = spec.lastIndexOf(':');
+        if (colon < 0) {
+            return new InetSocketAddress(InetAddress.getLoopbackAddress(), Integer.parseInt(spec));
+        }
+        return new InetSocketAddress(spec.substring(0, colon), Integer.parseInt(spec.substring(colon + 1)));
+    }
+
+    public void serve() throws IOException {
+        if (address instanceof UnixDomainSocketAddress unix) {
+            Files.deleteIfExists(unix.getPath());
+            server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        } else {
+            server = ServerSocketChannel.open();
+        }
+        server.bind(address);
+        System.err.println("daemon: listening on " + server.getLocalAddress());
+
+        try {
+            while (running) {
+                SocketChannel channel;
+                try {
+                    channel = server.accept();
+                } catch (AsynchronousCloseException e) {
+                    break;
+                }
+                workers.execute(() -> handle(channel));
+            }
+        } finally {
+            workers.shutdown();
+            if (address instanceof UnixDomainSocketAddress unix) {
+                Files.deleteIfExists(unix.getPath());
+            }
+        }
+    }
+
+    public void shutdown() {
+        running = false;
+        try {
+            server.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    private void handle(SocketChannel channel) {
+        try (channel;
+             InputStream in = new BufferedInputStream(Channels.newInputStream(channel));
+             OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel))) {
+            String line;
+            while ((line = readLine(in)) != null) {
+                String[] parts = line.trim().split("\\s+");
+                switch (parts[0]) {
+                    case "COMPILE" -> {
+                        if (!handleCompile(parts, in, out)) {
+                            out.flush();
+                            return;
+                        }
+                    }
+                    case "STATS" -> writeLine(out, "STATS requests=" + requests.get()
+                            + " total_us=" + totalNanos.get() / 1000 + " max_us=" + maxNanos.get() / 1000);
+                    case "QUIT" -> {
+                        return;
+                    }
+                    case "SHUTDOWN" -> {
+                        writeLine(out, "BYE");
+                        out.flush();
+                        shutdown();
+                        return;
+                    }
+                    default -> writeLine(out, "ERR unknown command: " + parts[0]);
+                }
+                out.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            // 一个连接出错不影响其他连接与服务本身
+            System.err.println("daemon: " + e);
+        }
+    }
+
+    // 返回 false 表示请求体没有读，连接上的数据已经对不上，应关闭连接
+    private boolean handleCompile(String[] parts, InputStream in, OutputStream out) throws IOException {
+        if (parts.length != 3) {
+            writeLine(out, "ERR usage: COMPILE <STAGE> <bytes>");
+            return false;
+        }
+        int length;
+        try {
+            length = Integer.parseInt(parts[2]);
+        } catch (NumberFormatException e) {
+            length = -1;
+        }
+        if (length < 0 || length > MAX_SOURCE_BYTES) {
+            writeLine(out, "ERR bad length: " + parts[2] + ", expected 0.." + MAX_SOURCE_BYTES);
+            return false;
+        }
+        SourceText sourceText = SourceText.of(readExactly(in, length), StandardCharsets.UTF_8);
+        CompileOptions options;
+        try {
+            options = CompileOptions.ofEmits(parts[1]);
+        } catch (IllegalArgumentException e) {
+            writeLine(out, "ERR unknown stage: " + parts[1]);
+            return true;
+        }
+
+        // 连接数不限，同时进行的编译数不超过 jobs
+        compileSlots.acquireUninterruptibly();
+        long start = System.nanoTime();
+        CompileResult result;
+        try {
+            result = Pipeline.compile(sourceText, options);
+        } catch (RuntimeException | StackOverflowError e) {
+            writeLine(out, "ERR compile failed: " + e);
+            return true;
+        } finally {
+            compileSlots.release();
+        }
+        long elapsed = System.nanoTime() - start;
+        requests.incrementAndGet();
+        totalNanos.addAndGet(elapsed);
+        maxNanos.accumulateAndGet(elapsed, Math::max);
+        System.err.println("daemon: " + parts[1] + " " + length + " bytes " + elapsed / 1000 + " us");
+
+        writeLine(out, "OK " + elapsed / 1000 + " " + result.getOutputs().size());
+        for (Map.Entry<String, List<String>> output : result.getOutputs().entrySet()) {
+            byte[] content = joinLines(output.getValue());
+            writeLine(out, "FILE " + output.getKey() + " " + content.length);
+            out.write(content);
+        }
+        return true;
+    }
+
+    static byte[] joinLines(List<String> lines) {
+        StringBuilder sb = new StringBuilder();
+        for (String line : lines) {
+            sb.append(line).append('\n');
+        }
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        int b;
+        while ((b = in.read()) != -1 && b != '\n') {
+            buffer.write(b);
+        }
+        if (b == -1 && buffer.size() == 0) return null;
+        return buffer.toString(StandardCharsets.UTF_8);
+    }
+
+    static void writeLine(OutputStream out, String line) throws IOException {
+        out.write((line + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    static byte[] readExactly(InputStream in, int length) throws IOException {
+        byte[] bytes = in.readNBytes(length);
+        if (bytes.length != length) {
+            throw new EOFException("expected " + length + " bytes, got " + bytes.length);
+        }
+        return bytes;
+    }
+}
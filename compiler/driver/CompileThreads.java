@@ -0,0 +1,79 @@
+package driver;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+    编译用的线程：递归下降分析与语法树的遍历都按嵌套深度递归，嵌套很深的程序需要很大的线程栈
+    栈大小由 --stack-size 指定，缺省 DEFAULT_STACK_SIZE；这只是预留的地址空间，实际用到多少才占用多少内存
+    单文件编译、批量编译、常驻服务与基准测试都在这样的线程上执行编译
+ */
+public final class CompileThreads {
+    // 嵌套 10 万层的语句或表达式约需 100MB，留出余量
+    public static final long DEFAULT_STACK_SIZE = 512L << 20;
+
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    private CompileThreads() {
+    }
+
+    /*
+        在一个新线程上执行 task 并等待结束，task 中的异常与错误原样抛给调用者
+     */
+    public static void run(long stackSize, Task task) throws IOException {
+        Throwable[] failure = new Throwable[1];
+        Thread thread = new Thread(null, () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                failure[0] = e;
+            }
+        }, "compile", stackSize);
+        thread.start();
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        }
+        Throwable e = failure[0];
+        if (e instanceof IOException io) throw io;
+        if (e instanceof RuntimeException re) throw re;
+        if (e instanceof Error error) throw error;
+        if (e != null) throw new IllegalStateException(e);
+    }
+
+    public static ThreadFactory factory(String name, long stackSize) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(null, task, name + "-" + count.incrementAndGet(), stackSize);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /*
+        形如 512m、1g、65536k 或字节数
+     */
+    public static long parseSize(String text) {
+        String s = text.trim().toLowerCase();
+        if (s.isEmpty()) throw new IllegalArgumentException("empty size");
+        long unit = switch (s.charAt(s.length() - 1)) {
+            case 'k' -> 1L << 10;
+            case 'm' -> 1L << 20;
+            case 'g' -> 1L << 30;
+            default -> 1;
+        };
+        String digits = unit == 1 ? s : s.substring(0, s.length() - 1);
+        try {
+            long size = Long.parseLong(digits) * unit;
+            if (size <= 0) throw new IllegalArgumentException("bad size: " + text);
+            return size;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad size: " + text);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package driver;
+
+import frontend.Visitor;
+import frontend.ast.NodeKind;
+import frontend.ast.SyntaxTree;
+import frontend.error.ErrorList;
+import midend.ir.IRBuilder;
+import midend.ir.IRGenerator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+
+/*
+    按函数并行的语义分析与 IR 生成（--function-jobs N）
+    全局声明先在当前线程上处理，之后各函数的函数体交给线程池并发处理，结果按源程序顺序合并：
+        语义分析：每个函数各有一个 fork 出的 SymbolManager 与 ErrorList，只能看到此前定义的函数
+        IR 生成：每个函数各有一个 IRBuilder，合并时临时变量与标签接着前面的编号
+    输出与顺序编译完全相同；编译单元中有声明出现在函数之后（错误恢复时可能）则不适用，按顺序处理
+ */
+final class FunctionParallel {
+    private FunctionParallel() {
+    }
+
+    // 全部声明在函数之前，且至少有两个函数
+    static boolean applicable(SyntaxTree tree) {
+        int compUnit = tree.getRoot();
+        int functions = 0;
+        for (int i = 0; i < tree.childCount(compUnit); i++) {
+            NodeKind kind = tree.kind(tree.child(compUnit, i));
+            if (kind.isDecl()) {
+                if (functions > 0) return false;
+            } else if (kind == NodeKind.FUNC_DEF || kind == NodeKind.MAIN_FUNC_DEF) {
+                functions++;
+            }
+        }
+        return functions >= 2;
+    }
+
+    static void analyze(SyntaxTree tree, Visitor visitor, ErrorList errorList, ExecutorService pool) {
+        visitor.analyzeGlobals();
+        List<Integer> functions = functions(tree);
+        List<Visitor> visitors = new ArrayList<>(functions.size());
+        List<ErrorList> errors = new ArrayList<>(functions.size());
+        for (int node : functions) {
+            ErrorList functionErrors = new ErrorList();
+            visitors.add(visitor.forFunction(node, functionErrors));
+            errors.add(functionErrors);
+        }
+        run(pool, functions.size(), i -> visitors.get(i).analyzeFunction(functions.get(i)));
+        for (int i = 0; i < functions.size(); i++) {
+            visitor.merge(visitors.get(i));
+            errorList.addAll(errors.get(i));
+        }
+    }
+
+    static void generate(SyntaxTree tree, IRGenerator generator, IRBuilder irBuilder, ExecutorService pool) {
+        generator.generateGlobals();
+        List<Integer> functions = functions(tree);
+        List<IRBuilder> builders = new ArrayList<>(functions.size());
+        List<IRGenerator> generators = new ArrayList<>(functions.size());
+        for (int i = 0; i < functions.size(); i++) {
+            IRBuilder builder = new IRBuilder();
+            builders.add(builder);
+            generators.add(generator.forFunction(builder));
+        }
+        run(pool, functions.size(), i -> generators.get(i).generateFunction(functions.get(i)));
+        for (IRBuilder builder : builders) {
+            irBuilder.append(builder);
+        }
+    }
+
+    private static List<Integer> functions(SyntaxTree tree) {
+        int compUnit = tree.getRoot();
+        List<Integer> functions = new ArrayList<>();
+        for (int i = 0; i < tree.childCount(compUnit); i++) {
+            int node = tree.child(compUnit, i);
+            NodeKind kind = tree.kind(node);
+            if (kind == NodeKind.FUNC_DEF || kind == NodeKind.MAIN_FUNC_DEF) {
+                functions.add(node);
+            }
+        }
+        return functions;
+    }
+
+    // 提交 task(0..n-1) 并等待全部完成，任务中的异常原样抛出
+    private static void run(ExecutorService pool, int n, IntConsumer task) {
+        List<Future<?>> futures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            int index = i;
+            futures.add(pool.submit(() -> task.accept(index)));
+        }
+        for (Future<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("interrupted", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException re) throw re;
+                if (cause instanceof Error error) throw error;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
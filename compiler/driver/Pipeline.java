@@ -0,0 +1,184 @@
+package driver;
+
+import backend.mips.MipsGenerator;
+import frontend.FileHandler;
+import frontend.Lexer;
+import frontend.Parser;
+import frontend.Visitor;
+import frontend.ast.SyntaxTree;
+import frontend.error.ErrorList;
+import frontend.token.SourceText;
+import frontend.token.TokenStream;
+import frontend.symbol.SymbolManager;
+import midend.ir.IRBuilder;
+import midend.ir.IRGenerator;
+import midend.ir.Quad;
+import midend.pass.PassManager;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/*
+    一次完整的编译流程：Lexer → Parser → Visitor → IRGenerator → PassManager → MipsGenerator
+    运行到 options 的 stopStage 为止，输出 emits 中各阶段的结果；存在错误时输出 error.txt
+    前端无错时才会生成 IR 与 MIPS；ir.txt 为优化 pass 之后的 IR，-O0 且不校验时不经过 PassManager
+    开启 --stats 时记录每个阶段的耗时、分配内存与产出数量（token / AST 结点 / 符号 / 四元式 / 指令）
+    不输出 lexer.txt 且不统计时，Lexer 以 TokenStream 的方式由 Parser 按需驱动，不保存完整的 token 序列
+ */
+public class Pipeline {
+
+    public static void compile(SourceText sourceText, CompileOptions options, Path outDir) throws IOException {
+        CompileResult result = compile(sourceText, options);
+        if (!outDir.toString().isEmpty()) {
+            Files.createDirectories(outDir);
+        }
+        for (var output : result.getOutputs().entrySet()) {
+            FileHandler.writeLines(outDir, output.getKey(), output.getValue());
+        }
+        StageStats stats = result.getStats();
+        if (stats != null) {
+            System.err.println(options.isStatsJson() ? stats.toJson() : String.join(System.lineSeparator(), stats.toTable()));
+        }
+    }
+
+    public static CompileResult compile(String sourceCode, CompileOptions options) {
+        return compile(SourceText.of(sourceCode), options);
+    }
+
+    public static CompileResult compile(SourceText sourceText, CompileOptions options) {
+        CompileResult result = new CompileResult();
+        Stage stop = options.getStopStage();
+        Compilation compilation = new Compilation();
+        ErrorList errorList = compilation.getErrorList();
+        errorList.setMaxErrors(options.getMaxErrors());
+        StageStats stats = options.isStats() ? new StageStats() : null;
+        result.setStats(stats);
+
+        Lexer lexer = new Lexer(errorList, compilation.getNames());
+        Parser parser;
+        SyntaxTree ast;
+        boolean trace = options.emits(Stage.PARSER);
+        // parser.txt 需要保留全部 token，此时也一次分析完
+        if (options.emits(Stage.LEXER) || stop == Stage.LEXER || trace || stats != null) {
+            if (stats != null) stats.begin();
+            lexer.analyze(sourceText);
+            if (stats != null) stats.end(Stage.LEXER, "tokens", lexer.getTokens().size());
+
+            if(options.emits(Stage.LEXER) && errorList.isEmpty()){
+                result.addOutput(Stage.LEXER.getFileName(), FileHandler.lexerLines(lexer.getTokens()));
+            }
+            if(stop == Stage.LEXER){
+                return finish(result, errorList);
+            }
+
+            if (stats != null) stats.begin();
+            parser = new Parser(lexer.getTokens(), errorList, trace);
+            ast = parser.analyze();
+            if (stats != null) stats.end(Stage.PARSER, "nodes", parser.getNodeCount());
+        } else {
+            // 不需要 lexer.txt 时边分析边产生 token，MainFuncDef 之后剩余的部分也要分析完以报告词法错误
+            // 同一行上词法错误排在语法错误之前，与先分析完全部 token 时的顺序一致
+            TokenStream tokens = lexer.stream(sourceText);
+            ErrorList parseErrors = new ErrorList();
+            parser = new Parser(tokens, parseErrors, false);
+            ast = parser.analyze();
+            tokens.drain();
+            errorList.addAll(parseErrors);
+        }
+
+        if(options.emits(Stage.PARSER) && errorList.isEmpty()){
+            result.addOutput(Stage.PARSER.getFileName(), parser.getOutputs());
+        }
+        if(stop == Stage.PARSER){
+            return finish(result, errorList);
+        }
+
+        // --function-jobs 大于 1 时各函数的语义分析与 IR 生成在线程池中并行，见 FunctionParallel
+        ThreadFactory functionThreads = CompileThreads.factory("function", options.getStackSize());
+        if (stats != null) {
+            // 线程池中的分配也算进各阶段
+            functionThreads = stats.track(functionThreads);
+        }
+        ExecutorService pool = options.getFunctionJobs() > 1 && FunctionParallel.applicable(ast)
+                ? Executors.newFixedThreadPool(options.getFunctionJobs(), functionThreads)
+                : null;
+        try {
+            if (stats != null) stats.begin();
+            Visitor visitor = new Visitor(ast, compilation.getSymbolManager(), errorList);
+            if (pool != null) {
+                FunctionParallel.analyze(ast, visitor, errorList, pool);
+            } else {
+                visitor.analyze();
+            }
+            if (stats != null) stats.end(Stage.SEMANTIC, "symbols", visitor.getAllSymbols().size());
+
+            if(options.emits(Stage.SEMANTIC) && errorList.isEmpty()){
+                result.addOutput(Stage.SEMANTIC.getFileName(), FileHandler.symbolLines(visitor.getAllSymbols()));
+            }
+            if(stop == Stage.SEMANTIC || !errorList.isEmpty()){
+                return finish(result, errorList);
+            }
+
+            SymbolManager symbolManager = compilation.getSymbolManager();
+            IRBuilder irBuilder = compilation.getIrBuilder();
+            if (stats != null) stats.begin();
+            IRGenerator irGenerator = new IRGenerator(ast,symbolManager,irBuilder);
+            if (pool != null) {
+                FunctionParallel.generate(ast, irGenerator, irBuilder, pool);
+            } else {
+                irGenerator.generate();
+            }
+            List<Quad> quads = irBuilder.getIr();
+            if (stats != null) stats.end(Stage.IR, "quads", quads.size());
+
+            List<String> passes = options.getPasses();
+            if (!passes.isEmpty() || options.isVerifyIr()) {
+                PassManager passManager = PassManager.of(passes)
+                        .setVerify(options.isVerifyIr())
+                        .setDumpAfter(options.getDumpIrAfter());
+                quads = passManager.run(quads, irBuilder);
+                for (var dump : passManager.getDumps().entrySet()) {
+                    result.addOutput(dump.getKey(), FileHandler.irLines(dump.getValue()));
+                }
+                if (stats != null) {
+                    for (PassManager.Entry entry : passManager.getEntries()) {
+                        stats.addPass(entry.pass, entry.nanos, entry.quadsBefore, entry.quadsAfter);
+                    }
+                }
+            }
+
+            if(options.emits(Stage.IR)){
+                result.addOutput(Stage.IR.getFileName(), FileHandler.irLines(quads));
+            }
+            if(stop == Stage.IR){
+                return result;
+            }
+
+            if (stats != null) stats.begin();
+            MipsGenerator mipsGenerator = new MipsGenerator(quads);
+            List<String> mipsCode = mipsGenerator.generate();
+            if (stats != null) stats.end(Stage.MIPS, "instrs", mipsGenerator.getInstrCount());
+
+            if(options.emits(Stage.MIPS)){
+                result.addOutput(Stage.MIPS.getFileName(), mipsCode);
+            }
+            return result;
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
+        }
+    }
+
+    private static CompileResult finish(CompileResult result, ErrorList errorList){
+        if(!errorList.isEmpty()){
+            result.addErrors(errorList.getErrors());
+        }
+        return result;
+    }
+}
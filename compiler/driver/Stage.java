@@ -0,0 +1,23 @@
+package driver;
+
+public enum Stage {
+    LEXER("lexer.txt"),
+    PARSER("parser.txt"),
+    SEMANTIC("symbol.txt"),
+    IR("ir.txt"),
+    MIPS("mips.txt");
+
+    private final String fileName;
+
+    Stage(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public static Stage parse(String name) {
+        return valueOf(name.trim().toUpperCase());
+    }
+}
@@ -0,0 +1,170 @@
+package driver;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadFactory;
+
+/*
+    每个阶段的耗时、分配内存与产出数量
+    begin() 记下当前时间与各线程已分配字节数，end() 记录一个阶段
+    分配字节数为编译线程与 track 过的线程（--function-jobs 的线程池）之和，线程池中的线程在 begin 之后才建出时从 0 算起
+    分配字节数来自 com.sun.management.ThreadMXBean，JVM 不支持时记为 -1
+    IR 优化 pass 另外记录耗时与前后的四元式数（addPass），表格中列在各阶段之后，JSON 中为 "passes"
+    输出为表格（toTable）或 JSON（toJson）
+ */
+public class StageStats {
+    private static final com.sun.management.ThreadMXBean THREAD_BEAN = threadBean();
+
+    private final List<Entry> entries = new ArrayList<>();
+    private final List<PassEntry> passes = new ArrayList<>();
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+    private final Map<Long, Long> startBytes = new HashMap<>();
+    private long startNanos;
+
+    public static class Entry {
+        public final Stage stage;
+        public final long nanos;
+        public final long allocatedBytes;
+        public final String itemName;
+        public final long items;
+
+        Entry(Stage stage, long nanos, long allocatedBytes, String itemName, long items) {
+            this.stage = stage;
+            this.nanos = nanos;
+            this.allocatedBytes = allocatedBytes;
+            this.itemName = itemName;
+            this.items = items;
+        }
+    }
+
+    public static class PassEntry {
+        public final String pass;
+        public final long nanos;
+        public final int quadsBefore;
+        public final int quadsAfter;
+
+        PassEntry(String pass, long nanos, int quadsBefore, int quadsAfter) {
+            this.pass = pass;
+            this.nanos = nanos;
+            this.quadsBefore = quadsBefore;
+            this.quadsAfter = quadsAfter;
+        }
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean
+                && bean.isThreadAllocatedMemorySupported()) {
+            bean.setThreadAllocatedMemoryEnabled(true);
+            return bean;
+        }
+        return null;
+    }
+
+    // 记下 factory 建出的线程，之后各阶段的分配字节数把它们也算进去
+    public ThreadFactory track(ThreadFactory factory) {
+        return task -> {
+            Thread thread = factory.newThread(task);
+            workers.add(thread);
+            return thread;
+        };
+    }
+
+    // 编译线程与各个被记下的线程已分配的字节数，按线程编号；已结束的线程不在其中
+    private Map<Long, Long> allocatedBytes() {
+        Map<Long, Long> bytes = new HashMap<>();
+        Thread current = Thread.currentThread();
+        bytes.put(current.getId(), THREAD_BEAN.getThreadAllocatedBytes(current.getId()));
+        for (Thread worker : workers) {
+            long allocated = THREAD_BEAN.getThreadAllocatedBytes(worker.getId());
+            if (allocated >= 0) {
+                bytes.put(worker.getId(), allocated);
+            }
+        }
+        return bytes;
+    }
+
+    public void begin() {
+        startBytes.clear();
+        if (THREAD_BEAN != null) {
+            startBytes.putAll(allocatedBytes());
+        }
+        startNanos = System.nanoTime();
+    }
+
+    public void end(Stage stage, String itemName, long items) {
+        long nanos = System.nanoTime() - startNanos;
+        long bytes = -1;
+        if (THREAD_BEAN != null) {
+            bytes = 0;
+            for (Map.Entry<Long, Long> entry : allocatedBytes().entrySet()) {
+                bytes += entry.getValue() - startBytes.getOrDefault(entry.getKey(), 0L);
+            }
+        }
+        entries.add(new Entry(stage, nanos, bytes, itemName, items));
+    }
+
+    public void addPass(String pass, long nanos, int quadsBefore, int quadsAfter) {
+        passes.add(new PassEntry(pass, nanos, quadsBefore, quadsAfter));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    public List<PassEntry> getPasses() {
+        return passes;
+    }
+
+    public List<String> toTable() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("%-9s %10s %12s %10s %s", "stage", "time_us", "alloc_kb", "items", "unit"));
+        long totalNanos = 0, totalBytes = 0;
+        for (Entry entry : entries) {
+            lines.add(String.format("%-9s %10d %12d %10d %s", entry.stage, entry.nanos / 1000,
+                    entry.allocatedBytes < 0 ? -1 : entry.allocatedBytes / 1024, entry.items, entry.itemName));
+            totalNanos += entry.nanos;
+            totalBytes = entry.allocatedBytes < 0 || totalBytes < 0 ? -1 : totalBytes + entry.allocatedBytes;
+        }
+        lines.add(String.format("%-9s %10d %12d", "total", totalNanos / 1000, totalBytes < 0 ? -1 : totalBytes / 1024));
+        if (!passes.isEmpty()) {
+            lines.add(String.format("%-9s %10s %12s %10s", "pass", "time_us", "quads", "delta"));
+            for (PassEntry entry : passes) {
+                lines.add(String.format("%-9s %10d %12d %+10d", entry.pass, entry.nanos / 1000,
+                        entry.quadsAfter, entry.quadsAfter - entry.quadsBefore));
+            }
+        }
+        return lines;
+    }
+
+    public String toJson() {
+        StringBuilder sb = new StringBuilder("{\"stages\":[");
+        for (int i = 0; i < entries.size(); i++) {
+            Entry entry = entries.get(i);
+            if (i > 0) sb.append(',');
+            sb.append("{\"stage\":\"").append(entry.stage)
+                    .append("\",\"time_ns\":").append(entry.nanos)
+                    .append(",\"allocated_bytes\":").append(entry.allocatedBytes)
+                    .append(",\"").append(entry.itemName).append("\":").append(entry.items)
+                    .append('}');
+        }
+        sb.append(']');
+        if (!passes.isEmpty()) {
+            sb.append(",\"passes\":[");
+            for (int i = 0; i < passes.size(); i++) {
+                PassEntry entry = passes.get(i);
+                if (i > 0) sb.append(',');
+                sb.append("{\"pass\":\"").append(entry.pass)
+                        .append("\",\"time_ns\":").append(entry.nanos)
+                        .append(",\"quads_before\":").append(entry.quadsBefore)
+                        .append(",\"quads_after\":").append(entry.quadsAfter)
+                        .append('}');
+            }
+            sb.append(']');
+        }
+        return sb.append('}').toString();
+    }
+}
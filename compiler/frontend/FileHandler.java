@@ -1,7 +1,8 @@
 package frontend;
 
 import frontend.symbol.Symbol;
-import frontend.token.Token;
+import frontend.token.SourceText;
+import frontend.token.TokenBuffer;
 import frontend.token.TokenType;
 import midend.ir.Quad;
 
@@ -9,77 +10,115 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 public class FileHandler {
     public static String readTestFile() throws IOException {
-        return Files.readString(Paths.get("testfile.txt"), StandardCharsets.UTF_8);
+        return readSourceFile(Paths.get("testfile.txt"));
 
     }
 
-    public static void writeLexerFile(List<Token> tokens) throws IOException {
-        new File("lexer.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("lexer.txt"))) {
-            for (Token token : tokens) {
-                if(token.getTokenType()== TokenType.EOF) continue;
-                bw.write(token.getTokenType().toString() + " " + token.getLexeme());
-                bw.newLine();
-            }
-        }
+    public static String readSourceFile(Path path) throws IOException {
+        return Files.readString(path, StandardCharsets.UTF_8);
+    }
 
+    /*
+        内存映射源文件，Lexer 直接扫描其中的字节；非 UTF-8/ASCII/ISO-8859-1 的字符集先解码再转成 UTF-8
+     */
+    public static SourceText mapSourceFile(Path path, Charset charset) throws IOException {
+        return SourceText.map(path, charset);
     }
 
-    public static void writeErrorFile(List<String> errors) throws IOException {
-        new File("error.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("error.txt"))) {
-            for(String error : errors){
-                bw.write(error);
-                bw.newLine();
+    /*
+        批量编译的输入：目录则递归收集其中名字以 testfile 开头的文件，普通文件则视为清单，每行一个源文件路径
+        目录中跳过 .zip 压缩包（记入 skipped）与批量编译的输出目录 *.out
+     */
+    public static List<Path> collectSources(Path input) throws IOException {
+        return collectSources(input, new ArrayList<>());
+    }
+
+    public static List<Path> collectSources(Path input, List<Path> skipped) throws IOException {
+        List<Path> sources = new ArrayList<>();
+        if (Files.isDirectory(input)) {
+            Files.walkFileTree(input, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    if (!dir.equals(input) && dir.getFileName().toString().endsWith(".out")) {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    String name = file.getFileName().toString();
+                    if (!attrs.isRegularFile() || !name.startsWith("testfile")) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    if (name.endsWith(".zip")) {
+                        skipped.add(file);
+                    } else {
+                        sources.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            Collections.sort(sources);
+        } else {
+            Path base = input.toAbsolutePath().getParent();
+            for (String line : Files.readAllLines(input, StandardCharsets.UTF_8)) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                sources.add(base.resolve(line));
             }
         }
+        return sources;
     }
 
-    public static void writeParserFile(List<String> strings) throws IOException {
-        new File("parser.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("parser.txt"))) {
-            for (String string : strings) {
-                bw.write(string);
+    public static void writeLines(Path dir, String name, List<String> lines) throws IOException {
+        File file = dir.resolve(name).toFile();
+        file.delete();
+        try (BufferedWriter bw = new BufferedWriter(new FileWriter(file))) {
+            for (String line : lines) {
+                bw.write(line);
                 bw.newLine();
             }
         }
     }
 
-    public static void writeSymbolFile(List<Symbol> symbols) throws  IOException {
-        new File("symbol.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("symbol.txt"))) {
-            for (Symbol symbol : symbols){
-                if(symbol.getName().equals("getint")) continue;
-                bw.write(symbol.getScopeId() + " " + symbol.getName() + " " + symbol.getType().name());
-                bw.newLine();
-            }
+    public static List<String> lexerLines(TokenBuffer tokens) {
+        List<String> lines = new ArrayList<>(tokens.size());
+        for (int i = 0; i < tokens.size(); i++) {
+            if(tokens.getType(i)== TokenType.EOF) continue;
+            lines.add(tokens.getType(i).toString() + " " + tokens.getLexeme(i));
         }
+        return lines;
     }
 
-    public static void writeIRFile(List<Quad> quads) throws IOException{
-        new File("ir.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("ir.txt"))) {
-            for (Quad quad:quads){
-                bw.write(quad.toString());
-                bw.newLine();
-            }
+    public static List<String> symbolLines(List<Symbol> symbols) {
+        List<String> lines = new ArrayList<>(symbols.size());
+        for (Symbol symbol : symbols){
+            if(symbol.getName().equals("getint")) continue;
+            lines.add(symbol.getScopeId() + " " + symbol.getName() + " " + symbol.getType().name());
         }
+        return lines;
     }
 
-    public static void writeMipsFile(List<String> mipsCode) throws IOException{
-        new File("mips.txt").delete();
-        try (BufferedWriter bw = new BufferedWriter(new FileWriter("mips.txt"))) {
-            for (String mips: mipsCode){
-                bw.write(mips);
-                bw.newLine();
-            }
+    public static List<String> irLines(List<Quad> quads) {
+        List<String> lines = new ArrayList<>(quads.size());
+        for (Quad quad:quads){
+            lines.add(quad.toString());
         }
+        return lines;
     }
 }
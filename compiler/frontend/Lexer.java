@@ -2,242 +2,378 @@ package frontend;
 
 import frontend.error.Error;
 import frontend.error.ErrorList;
-import frontend.token.Token;
+import frontend.token.NameTable;
+import frontend.token.SourceText;
+import frontend.token.TokenBuffer;
+import frontend.token.TokenSink;
+import frontend.token.TokenStream;
 import frontend.token.TokenType;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-
+/*
+    表驱动的词法分析器：直接在源码字节（SourceText）上按字符类别（ASCII 查表）转移
+    关键字用完美哈希识别；token 写入 TokenBuffer（种类、起始字节、字节长度、行号），不建 String
+    标识符在 NameTable 中登记，同一个名字只解码一次，token 上记录它的编号
+    非 ASCII 字符解码成 char 后仍按 Character.isLetter / isDigit / isWhitespace 判断，与原先逐字符扫描的结果一致
+    analyze 一次分析出全部 token；stream 返回按需分析的 TokenStream，由 Parser 的向前看驱动
+ */
 public class Lexer {
-    private String source;
+    // 字符类别
+    private static final byte OTHER = 0;
+    private static final byte SPACE = 1;
+    private static final byte NEWLINE = 2;
+    private static final byte LETTER = 3;
+    private static final byte DIGIT = 4;
+    private static final byte QUOTE = 5;
+    private static final byte SINGLE = 6;
+    private static final byte COMPARE = 7;
+    private static final byte AMP = 8;
+    private static final byte BAR = 9;
+    private static final byte SLASH = 10;
+
+    private static final byte[] CHAR_CLASS = new byte[128];
+    private static final TokenType[] SINGLE_TYPE = new TokenType[128];
+
+    // 关键字完美哈希：(2*首字符 + 尾字符 + 13*长度) & 31
+    private static final char[][] KEYWORD_TEXT = new char[32][];
+    private static final TokenType[] KEYWORD_TYPE = new TokenType[32];
+
+    static {
+        for (char c = 0; c < 128; c++) {
+            if (Character.isWhitespace(c)) CHAR_CLASS[c] = SPACE;
+            else if (Character.isLetter(c) || c == '_') CHAR_CLASS[c] = LETTER;
+            else if (Character.isDigit(c)) CHAR_CLASS[c] = DIGIT;
+        }
+        CHAR_CLASS['\n'] = NEWLINE;
+        CHAR_CLASS['"'] = QUOTE;
+        CHAR_CLASS['<'] = COMPARE;
+        CHAR_CLASS['>'] = COMPARE;
+        CHAR_CLASS['!'] = COMPARE;
+        CHAR_CLASS['='] = COMPARE;
+        CHAR_CLASS['&'] = AMP;
+        CHAR_CLASS['|'] = BAR;
+        CHAR_CLASS['/'] = SLASH;
+
+        single('+', TokenType.PLUS);
+        single('-', TokenType.MINU);
+        single('*', TokenType.MULT);
+        single('%', TokenType.MOD);
+        single(';', TokenType.SEMICN);
+        single(',', TokenType.COMMA);
+        single('(', TokenType.LPARENT);
+        single(')', TokenType.RPARENT);
+        single('[', TokenType.LBRACK);
+        single(']', TokenType.RBRACK);
+        single('{', TokenType.LBRACE);
+        single('}', TokenType.RBRACE);
+
+        keyword(TokenType.CONSTTK);
+        keyword(TokenType.INTTK);
+        keyword(TokenType.STATICTK);
+        keyword(TokenType.BREAKTK);
+        keyword(TokenType.CONTINUETK);
+        keyword(TokenType.IFTK);
+        keyword(TokenType.MAINTK);
+        keyword(TokenType.ELSETK);
+        keyword(TokenType.FORTK);
+        keyword(TokenType.RETURNTK);
+        keyword(TokenType.VOIDTK);
+        keyword(TokenType.PRINTFTK);
+    }
+
+    private static void single(char c, TokenType type) {
+        CHAR_CLASS[c] = SINGLE;
+        SINGLE_TYPE[c] = type;
+    }
+
+    private static void keyword(TokenType type) {
+        String word = type.getFixedLexeme();
+        int slot = keywordSlot(word.charAt(0), word.charAt(word.length() - 1), word.length());
+        if (KEYWORD_TEXT[slot] != null) {
+            throw new IllegalStateException("keyword hash collision: " + word);
+        }
+        KEYWORD_TEXT[slot] = word.toCharArray();
+        KEYWORD_TYPE[slot] = type;
+    }
+
+    private static int keywordSlot(int first, int last, int length) {
+        return (2 * first + last + 13 * length) & 31;
+    }
+
+    private SourceText text;
+    // 源码字节数；扫描可以越过 length 读到末尾的两个 '\0'
+    private int length;
+    private boolean latin1;
     private int curPos=0;
-    private String token;
-    private TokenType tokenType;
-    private final Map<String, TokenType> reserveWords = new HashMap<>();
-    private final Map<Character, TokenType> singleCharSymbols = new HashMap<>();
-    private final List<Token> tokens = new ArrayList<>();
+    // decodeChar 解出的字符所占字节数
+    private int charLen;
+    private TokenBuffer tokens;
+    private TokenSink sink;
+    private int produced = 0;
+    private int lastLine = 1;
     private int lineNum=1;
+    // 当前行首的字节位置，用于计算词法错误的列号
+    private int lineStart=0;
     private static final boolean REPAIR_LOGIC_OP = true;
+    private final ErrorList errorList;
+    private final NameTable names;
+
+    public Lexer(ErrorList errorList) {
+        this(errorList, new NameTable());
+    }
 
-    public List<Token> getTokens() {
+    public Lexer(ErrorList errorList, NameTable names) {
+        this.errorList = errorList;
+        this.names = names;
+    }
+
+    public TokenBuffer getTokens() {
         return tokens;
     }
-    
+
     public void analyze(String sourceCode) {
-        initLexer(sourceCode);
+        analyze(SourceText.of(sourceCode));
+    }
+
+    public void analyze(SourceText sourceText) {
+        initLexer(sourceText);
         lexerAnalyze();
     }
 
-    public void initReserveWords(){
-        reserveWords.put("const", TokenType.CONSTTK);
-        reserveWords.put("int",TokenType.INTTK);
-        reserveWords.put("static", TokenType.STATICTK);
-        reserveWords.put("break", TokenType.BREAKTK);
-        reserveWords.put("continue", TokenType.CONTINUETK);
-        reserveWords.put("if", TokenType.IFTK);
-        reserveWords.put("main", TokenType.MAINTK);
-        reserveWords.put("else", TokenType.ELSETK);
-        reserveWords.put("for",TokenType.FORTK);
-        reserveWords.put("return", TokenType.RETURNTK);
-        reserveWords.put("void",TokenType.VOIDTK);
-        reserveWords.put("printf", TokenType.PRINTFTK);
-    }
-
-    public void initSingleCharSymbols(){
-        singleCharSymbols.put('!', TokenType.NOT);
-        singleCharSymbols.put('+', TokenType.PLUS);
-        singleCharSymbols.put('-', TokenType.MINU);
-        singleCharSymbols.put('*', TokenType.MULT);
-        singleCharSymbols.put('%', TokenType.MOD);
-        singleCharSymbols.put('<', TokenType.LSS);
-        singleCharSymbols.put('>', TokenType.GRE);
-        singleCharSymbols.put('=', TokenType.ASSIGN);
-        singleCharSymbols.put(';', TokenType.SEMICN);
-        singleCharSymbols.put(',', TokenType.COMMA);
-        singleCharSymbols.put('(', TokenType.LPARENT);
-        singleCharSymbols.put(')', TokenType.RPARENT);
-        singleCharSymbols.put('[', TokenType.LBRACK);
-        singleCharSymbols.put(']', TokenType.RBRACK);
-        singleCharSymbols.put('{', TokenType.LBRACE);
-        singleCharSymbols.put('}', TokenType.RBRACE);
-    }
-
-    public void initLexer(String sourceCode) {
-        this.source = sourceCode + "\0\0";
-        initReserveWords();
-        initSingleCharSymbols();
+    public TokenStream stream(String sourceCode) {
+        return stream(SourceText.of(sourceCode));
+    }
+
+    public TokenStream stream(SourceText sourceText) {
+        loadSource(sourceText);
+        TokenStream stream = new TokenStream(sourceText, names, 64);
+        stream.setProducer(this::lexStep);
+        sink = stream;
+        return stream;
+    }
+
+    public void initLexer(SourceText sourceText) {
+        loadSource(sourceText);
+        tokens = new TokenBuffer(sourceText, names, length / 4);
+        sink = tokens;
+    }
+
+    private void loadSource(SourceText sourceText) {
+        text = sourceText;
+        length = sourceText.length();
+        latin1 = sourceText.isLatin1();
     }
 
     public void lexerAnalyze(){
-        while (curPos < source.length()-2) {
+        while (lexStep()) {
+        }
+    }
+
+    // 分析到产生至少一个 token 为止；到达末尾时产生 EOF 并返回 false
+    private boolean lexStep() {
+        int before = produced;
+        while (curPos < length && produced == before) {
             next();
-            if(tokenType!=null && !token.isEmpty()){
-                tokens.add(new Token(token, tokenType, lineNum));
-            }
         }
-        int lastLine = tokens.isEmpty() ? 1 : tokens.get(tokens.size()-1).getLineNum();
-        tokens.add(new Token("", TokenType.EOF, lastLine));
+        if (produced == before) {
+            sink.add(TokenType.EOF, length, 0, lastLine, -1);
+            return false;
+        }
+        return true;
+    }
+
+    /*
+        解出 pos 处的非 ASCII 字符，字节数记在 charLen
+        非法的 UTF-8 序列与增补平面字符（原先是两个代理项）都当作无法识别的字符
+     */
+    private char decodeChar(int pos) {
+        int b0 = text.byteAt(pos);
+        charLen = 1;
+        if (latin1) return (char) b0;
+        int n;
+        int cp;
+        if ((b0 & 0xE0) == 0xC0) {
+            n = 2;
+            cp = b0 & 0x1F;
+        } else if ((b0 & 0xF0) == 0xE0) {
+            n = 3;
+            cp = b0 & 0x0F;
+        } else if ((b0 & 0xF8) == 0xF0) {
+            n = 4;
+            cp = b0 & 0x07;
+        } else {
+            return '\uFFFD';
+        }
+        for (int i = 1; i < n; i++) {
+            int b = text.byteAt(pos + i);
+            if ((b & 0xC0) != 0x80) return '\uFFFD';
+            cp = (cp << 6) | (b & 0x3F);
+        }
+        charLen = n;
+        return cp > 0xFFFF ? '\uFFFD' : (char) cp;
+    }
+
+    private void add(TokenType type, int start) {
+        add(type, start, -1);
+    }
+
+    private void add(TokenType type, int start, int value) {
+        sink.add(type, start, curPos - start, lineNum, value);
+        produced++;
+        lastLine = lineNum;
     }
 
     private void next() {
-        token = "";
-        tokenType = null;
-        skipSpace();
-        if (curPos >= source.length()-2) return;
-        char c = source.charAt(curPos++);
-        StringBuilder stringBuilder = new StringBuilder();
-        //标识符
-        if (Character.isLetter(c) || c == '_') {
-            stringBuilder.append(c);
-            while (curPos < source.length() && (Character.isLetterOrDigit(source.charAt(curPos)) || source.charAt(curPos) == '_')) {
-                stringBuilder.append(source.charAt(curPos++));
-            }
-            token = stringBuilder.toString();
-            tokenType = reserveWords.getOrDefault(token, TokenType.IDENFR);
+        final SourceText src = text;
+        final int end = length + 2;
+        int start = curPos;
+        int c = src.byteAt(curPos);
+        byte cls;
+        if (c < 128) {
+            cls = CHAR_CLASS[c];
+            curPos++;
+        } else {
+            char ch = decodeChar(curPos);
+            curPos += charLen;
+            if (Character.isWhitespace(ch)) cls = SPACE;
+            else if (Character.isLetter(ch)) cls = LETTER;
+            else if (Character.isDigit(ch)) cls = DIGIT;
+            else cls = OTHER;
         }
-        //数字
-        else if (Character.isDigit(c)) {
-            stringBuilder.append(c);
-            while (curPos < source.length() && Character.isDigit(source.charAt(curPos))) {
-                stringBuilder.append(source.charAt(curPos++));
+
+        switch (cls) {
+            case NEWLINE -> {
+                lineNum++;
+                lineStart = curPos;
             }
-            token = stringBuilder.toString();
-            tokenType = TokenType.INTCON;
-        }
-        //字符串
-        else if (c == '"') {
-            stringBuilder.append(c);
-            while (curPos < source.length() && source.charAt(curPos) != '"') {
-                if(source.charAt(curPos) == '\n'){
-                    lineNum++;
+            case SPACE -> {}
+            //标识符
+            case LETTER -> {
+                while (curPos < end) {
+                    int b = src.byteAt(curPos);
+                    if (b < 128) {
+                        byte bc = CHAR_CLASS[b];
+                        if (bc != LETTER && bc != DIGIT) break;
+                        curPos++;
+                    } else {
+                        if (!Character.isLetterOrDigit(decodeChar(curPos))) break;
+                        curPos += charLen;
+                    }
                 }
-                stringBuilder.append(source.charAt(curPos++));
-            }
-            if (curPos < source.length() && source.charAt(curPos) == '"') {
-                stringBuilder.append(source.charAt(curPos++));
-            }
-            token = stringBuilder.toString();
-            tokenType = TokenType.STRCON;
-        }
-        //比较运算符
-        else if (c=='<' || c=='>' || c=='!' || c=='=') {
-            stringBuilder.append(c);
-            if (curPos < source.length() && source.charAt(curPos)=='=') {
-                stringBuilder.append(source.charAt(curPos++));
-                token = stringBuilder.toString();
-                switch (token) {
-                    case "<=":
-                        tokenType = TokenType.LEQ;
-                        break;
-                    case ">=":
-                        tokenType = TokenType.GEQ;
-                        break;
-                    case "!=":
-                        tokenType = TokenType.NEQ;
-                        break;
-                    case "==":
-                        tokenType = TokenType.EQL;
-                        break;
+                TokenType type = keyword(start, curPos - start);
+                if (type != null) {
+                    add(type, start);
+                } else {
+                    add(TokenType.IDENFR, start, names.intern(src, start, curPos - start));
                 }
-            } else {
-                token = stringBuilder.toString();
-                switch (token){
-                    case "<": tokenType = TokenType.LSS; break;
-                    case ">": tokenType = TokenType.GRE; break;
-                    case "!": tokenType = TokenType.NOT; break;
-                    case "=": tokenType = TokenType.ASSIGN; break;
+            }
+            //数字
+            case DIGIT -> {
+                while (curPos < end) {
+                    int b = src.byteAt(curPos);
+                    if (b < 128) {
+                        if (CHAR_CLASS[b] != DIGIT) break;
+                        curPos++;
+                    } else {
+                        if (!Character.isDigit(decodeChar(curPos))) break;
+                        curPos += charLen;
+                    }
                 }
+                add(TokenType.INTCON, start);
             }
-        }
-        //单字符符号
-        else if (singleCharSymbols.containsKey(c)){
-            token = String.valueOf(c);
-            tokenType = singleCharSymbols.get(c);
-        }
-        // "&&", "||"
-        else if (c == '&') {
-            if(curPos<source.length() && source.charAt(curPos)=='&'){
-                curPos++;
-                token="&&";
-                tokenType=TokenType.AND;
-            } else {
-                Error error = new Error("a", lineNum);
-                ErrorList.addErrors(error);
-                if (REPAIR_LOGIC_OP) {
-                    token="&";
-                    tokenType=TokenType.AND;
-                } else {
-                    token=null;
+            //字符串：多字节字符的字节都不是 '"' 或 '\n'，逐字节扫描即可
+            case QUOTE -> {
+                while (curPos < end) {
+                    int b = src.byteAt(curPos);
+                    if (b == '"') break;
+                    if (b == '\n') {
+                        lineNum++;
+                        lineStart = curPos + 1;
+                    }
+                    curPos++;
+                }
+                if (curPos < end) {
+                    curPos++;
                 }
+                add(TokenType.STRCON, start);
             }
-        } else if (c == '|') {
-            if(curPos<source.length() && source.charAt(curPos)=='|'){
-                curPos++;
-                token="||";
-                tokenType=TokenType.OR;
-            } else {
-                Error error = new Error("a", lineNum);
-                ErrorList.addErrors(error);
-                if (REPAIR_LOGIC_OP) {
-                    token="|";
-                    tokenType=TokenType.OR;
-                } else {
-                    token=null;
+            //比较运算符
+            case COMPARE -> {
+                boolean withEq = curPos < end && src.byteAt(curPos) == '=';
+                if (withEq) curPos++;
+                switch (c) {
+                    case '<' -> add(withEq ? TokenType.LEQ : TokenType.LSS, start);
+                    case '>' -> add(withEq ? TokenType.GEQ : TokenType.GRE, start);
+                    case '!' -> add(withEq ? TokenType.NEQ : TokenType.NOT, start);
+                    default -> add(withEq ? TokenType.EQL : TokenType.ASSIGN, start);
                 }
             }
-        }
-        // '/'
-        else if (c == '/') {
-            if (curPos < source.length()) {
+            //单字符符号
+            case SINGLE -> add(SINGLE_TYPE[c], start);
+            // "&&", "||"
+            case AMP -> logicOp('&', TokenType.AND, start);
+            case BAR -> logicOp('|', TokenType.OR, start);
+            // '/'
+            case SLASH -> {
+                int b = src.byteAt(curPos);
                 //单行注释
-                if (source.charAt(curPos) == '/') {
-                    while (curPos < source.length() && source.charAt(curPos) != '\n') {
+                if (b == '/') {
+                    while (curPos < end && src.byteAt(curPos) != '\n') {
                         curPos++;
                     }
-                    if (curPos < source.length() && source.charAt(curPos) == '\n') {
+                    if (curPos < end) {
                         curPos++;
                         lineNum++;
+                        lineStart = curPos;
                     }
                 }
                 //多行注释
-                else if (source.charAt(curPos) == '*') {
+                else if (b == '*') {
                     curPos++;
-                    while (curPos < source.length()) {
-                        char nextC= source.charAt(curPos++);
-                        if (curPos<source.length() && nextC== '*' && source.charAt(curPos)== '/') {
+                    while (curPos < end) {
+                        int nextC = src.byteAt(curPos++);
+                        if (curPos < end && nextC == '*' && src.byteAt(curPos) == '/') {
                             curPos++;
                             break;
                         }
                         if (nextC == '\n') {
                             lineNum++;
+                            lineStart = curPos;
                         }
                     }
                 }
                 //除号
                 else {
-                    token = "/";
-                    tokenType = TokenType.DIV;
+                    add(TokenType.DIV, start);
                 }
             }
+            //其余未知字符
+            default -> {}
         }
-        //其余未知字符
-        else {
-            tokenType=null;
-        }
-
     }
 
-    private void skipSpace(){
-        while (curPos<source.length() && Character.isWhitespace(source.charAt(curPos))) {
-            if (source.charAt(curPos)=='\n') {
-                lineNum++;
-            }
+    // 缺了一半的 '&' / '|' 报 a 类错误，按 && / || 修复，词素仍为单个字符
+    private void logicOp(char c, TokenType type, int start) {
+        if (curPos < length + 2 && text.byteAt(curPos) == c) {
             curPos++;
+            add(type, start);
+        } else {
+            Error error = new Error("a", lineNum, start - lineStart + 1);
+            errorList.addErrors(error);
+            if (REPAIR_LOGIC_OP) {
+                add(type, start);
+            }
         }
     }
 
-       
+    private TokenType keyword(int start, int len) {
+        if (len < 2 || len > 8) return null;
+        SourceText src = text;
+        int slot = keywordSlot(src.byteAt(start), src.byteAt(start + len - 1), len);
+        char[] word = KEYWORD_TEXT[slot];
+        if (word == null || word.length != len) return null;
+        for (int i = 0; i < len; i++) {
+            if (src.byteAt(start + i) != word[i]) return null;
+        }
+        return KEYWORD_TYPE[slot];
+    }
 }
-
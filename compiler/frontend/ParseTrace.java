@@ -0,0 +1,61 @@
+package frontend;
+
+import frontend.token.TokenSource;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    语法分析输出（parser.txt）的记录：分析时只按顺序记下事件编号，需要输出时才生成字符串
+        事件 >= 0      读入的 token 下标，输出 "种类 词素"
+        事件 < 0       非终结符，-(编号+1) 对应 names 中的名字
+    token 的种类与词素在输出时再从 TokenSource 取，因此记录期间 token 不能被释放
+ */
+class ParseTrace {
+    private final TokenSource tokens;
+    private int[] events = new int[256];
+    private int size = 0;
+    private final List<String> names = new ArrayList<>();
+    private final Map<String, Integer> nameIds = new HashMap<>();
+
+    ParseTrace(TokenSource tokens) {
+        this.tokens = tokens;
+    }
+
+    void token(int index) {
+        add(index);
+    }
+
+    void nonTerminal(String name) {
+        Integer id = nameIds.get(name);
+        if (id == null) {
+            id = names.size();
+            names.add(name);
+            nameIds.put(name, id);
+        }
+        add(-id - 1);
+    }
+
+    private void add(int event) {
+        if (size == events.length) {
+            events = Arrays.copyOf(events, size * 2);
+        }
+        events[size++] = event;
+    }
+
+    List<String> render() {
+        List<String> lines = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            int event = events[i];
+            if (event >= 0) {
+                lines.add(tokens.getType(event) + " " + tokens.getLexeme(event));
+            } else {
+                lines.add(names.get(-event - 1));
+            }
+        }
+        return lines;
+    }
+}
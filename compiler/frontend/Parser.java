@@ -2,57 +2,71 @@ package frontend;
 
 import frontend.error.Error;
 import frontend.error.ErrorList;
-import frontend.token.Token;
+import frontend.token.TokenSource;
 import frontend.token.TokenType;
-import frontend.ast.CompUnit;
-import frontend.ast.decl.*;
-import frontend.ast.func.*;
-import frontend.ast.stmt.*;
-import frontend.ast.exp.*;
-import frontend.ast.exp.Number;
-import frontend.ast.block.*;
-
-import java.io.IOException;
-import java.util.ArrayList;
+import frontend.ast.NodeKind;
+import frontend.ast.SyntaxTree;
+
+import java.util.Arrays;
 import java.util.List;
 
+import static frontend.ast.SyntaxTree.NULL;
+
 public class Parser {
-    private final List<Token> tokens;
+    private final TokenSource tokens;
     private int pos = 0;
-    private final List<String> outputs = new ArrayList<>();
-    private final boolean debug = true;
+    // 只有需要 parser.txt 时才记录，否则为 null，分析过程中不产生任何输出字符串
+    private final ParseTrace trace;
+    private final ErrorList errorList;
+    // 结点直接建在 SyntaxTree 中：先把子结点压栈，分析完一个结点时一起归入
+    private final SyntaxTree tree = new SyntaxTree();
+    // 尚未建结点的单目运算符，成对存放 种类、行号
+    private int[] unaryOps = new int[16];
+    private int unaryTop = 0;
+
+    public Parser(TokenSource tokens, ErrorList errorList) {
+        this(tokens, errorList, false);
+    }
 
-    public Parser(List<Token> tokens) {
+    public Parser(TokenSource tokens, ErrorList errorList, boolean trace) {
         this.tokens = tokens;
+        this.errorList = errorList;
+        this.trace = trace ? new ParseTrace(tokens) : null;
     }
 
+    // 语法分析输出，每次调用时按记录重新生成；未开启记录时为空
     public List<String> getOutputs() {
-        return outputs;
+        return trace == null ? List.of() : trace.render();
+    }
+
+    public int getNodeCount() {
+        return tree.size();
     }
 
     // =================== 入口 ===================
-    public CompUnit analyze() throws IOException {
-        return parseCompUnit();
+    public SyntaxTree analyze() {
+        tree.setRoot(parseCompUnit());
+        return tree;
     }
 
     // ================== 工具函数 ==================
-    private Token peek(Integer offset){
+    // 越界时停在 EOF 上
+    private TokenType peek(int offset){
         int index = pos + offset;
         if(index<0) index=0;
-        if(index >= tokens.size()){
-            index=tokens.size()-1;
-        }
-        return  tokens.get(index);
+        return tokens.getType(tokens.ensure(index));
     }
 
 
-    private Token peek(){
+    private TokenType peek(){
         return peek(0);
     }
 
-    private Token next(){
-        Token cur = tokens.get(pos);
-        if(cur.getTokenType() != TokenType.EOF) pos++;
+    // 前进一个 token，返回其下标；errorLine 还要用到前一个 token，更早的可以释放（记录输出时要全部保留）
+    private int next(){
+        int cur = tokens.ensure(pos);
+        if(tokens.getType(cur) != TokenType.EOF) pos++;
+        if(trace == null) tokens.release(pos - 1);
         return cur;
     }
 
@@ -66,19 +80,19 @@ public class Parser {
         }
         if(errorType!=null){
             frontend.error.Error error = new Error(errorType, errorLine());
-            ErrorList.addErrors(error);
+            errorList.addErrors(error);
         }
 
-        Token t = peek();
-        while (t != null && !isSyncPoint(t.getTokenType(), expected)) {
+        TokenType t = peek();
+        while (!isSyncPoint(t, expected)) {
             next();  // 跳过非同步点
             t = peek();
         }
     }
 
-    private void addOutput(Token token){
-        if(debug){
-            outputs.add(token.getTokenType() + " " + token.getLexeme());
+    private void addOutput(int index){
+        if(trace != null){
+            trace.token(index);
         }
     }
 
@@ -105,21 +119,49 @@ public class Parser {
     }
 
 
-    private Token consume(TokenType expected) {
-        Token token = peek();
-        if (token!=null && token.getTokenType()==expected) {
-            next();
-            addOutput(token);
-            return token;
+    private boolean consume(TokenType expected) {
+        if (peek()==expected) {
+            addOutput(next());
+            return true;
+        }
+        return false;
+    }
+
+    // 标识符：返回名字编号，缺少时为 -1
+    private int consumeIdent() {
+        if (peek()==TokenType.IDENFR) {
+            int index = next();
+            addOutput(index);
+            return tokens.getValue(index);
+        }
+        return -1;
+    }
+
+    // 整数、字符串常量：词素存入语法树，返回其编号，缺少时为 -1
+    private int consumeLiteral(TokenType expected) {
+        if (peek()==expected) {
+            int index = next();
+            addOutput(index);
+            return tree.addLiteral(tokens.getLexeme(index));
         }
-        return null;
+        return -1;
+    }
+
+    // 运算符：输出并返回其下标
+    private int nextOperator(){
+        int index = next();
+        addOutput(index);
+        return index;
+    }
+
+    private boolean match (TokenType type){
+        return peek()==type;
     }
 
     private boolean match (TokenType... types){
-        Token token=peek();
-        if (token==null) return false;
+        TokenType tokenType=peek();
         for (TokenType type : types){
-            if (token.getTokenType()==type){
+            if (tokenType==type){
                 return true;
             }
         }
@@ -127,21 +169,18 @@ public class Parser {
     }
 
     private void printNT(String name){
-        if(!debug) return;
+        if(trace == null) return;
         if(name.equals("<BlockItem>") || name.equals("<Decl>") || name.equals("<BType>")) return;
-        outputs.add(name);
+        trace.nonTerminal(name);
     }
 
     private int lineNum() {
-        if (pos < tokens.size()) {
-            return tokens.get(pos).getLineNum();
-        }
-        return tokens.isEmpty() ? 1 : tokens.get(tokens.size()-1).getLineNum();
+        return tokens.getLine(tokens.ensure(pos));
     }
 
     private int errorLine(){
         if (pos <= 0) return 1;
-        return tokens.get(pos - 1).getLineNum();
+        return tokens.getLine(pos - 1);
     }
 
     // ================== 编译单元 CompUnit ==================
@@ -149,34 +188,33 @@ public class Parser {
         CompUnit → {Decl} {FuncDef} MainFuncDef
         1.是否存在Decl 2.是否存在FuncDef
      */
-    private CompUnit parseCompUnit(){
-        CompUnit compUnit = new CompUnit(lineNum());
+    private int parseCompUnit(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         while (isDeclStart()) {
-            compUnit.addDecl(parseDecl());
+            tree.push(parseDecl());
         }
         while (isFuncDefStart()){
-            compUnit.addFuncDef(parseFuncDef());
+            tree.push(parseFuncDef());
         }
 
-        compUnit.setMainFuncDef(parseMainFuncDef());
+        tree.push(parseMainFuncDef());
         printNT("<CompUnit>");
-        return compUnit;
+        return tree.add(NodeKind.COMP_UNIT, lineNum, 0, 0, mark);
     }
 
     private boolean isDeclStart(){
-        Token t0 = peek(0);
-        Token t1 = peek(1);
-        Token t2 = peek(2);
-        if(t0==null) return false;
-        if(t0.getTokenType()==TokenType.CONSTTK || t0.getTokenType()==TokenType.STATICTK){
+        TokenType t0 = peek(0);
+        TokenType t1 = peek(1);
+        TokenType t2 = peek(2);
+        if(t0==TokenType.CONSTTK || t0==TokenType.STATICTK){
             return true;
         }
-        if (t0.getTokenType() == TokenType.INTTK) {
-            if (t1 == null) return false;
-            if (t1.getTokenType() == TokenType.MAINTK) return false; //MainDef
+        if (t0 == TokenType.INTTK) {
+            if (t1 == TokenType.MAINTK) return false; //MainDef
 
-            if (t1.getTokenType() == TokenType.IDENFR) {
-                if (t2 == null || t2.getTokenType() != TokenType.LPARENT) {
+            if (t1 == TokenType.IDENFR) {
+                if (t2 != TokenType.LPARENT) {
                     return true;       // VarDecl（含数组/非数组）
                 }
                 return false;  // FuncDef
@@ -186,12 +224,11 @@ public class Parser {
     }
 
     private boolean isFuncDefStart() {
-        Token t0 = peek(0);
-        Token t1 = peek(1);
-        Token t2 = peek(2);
-        if (t0==null || t1==null || t2==null) return false;
-        return (t0.getTokenType() == TokenType.VOIDTK || t0.getTokenType() == TokenType.INTTK) &&
-                t1.getTokenType() == TokenType.IDENFR && t2.getTokenType() == TokenType.LPARENT;
+        TokenType t0 = peek(0);
+        TokenType t1 = peek(1);
+        TokenType t2 = peek(2);
+        return (t0 == TokenType.VOIDTK || t0 == TokenType.INTTK) &&
+                t1 == TokenType.IDENFR && t2 == TokenType.LPARENT;
     }
 
     // ==================== 声明 Decl ===================
@@ -199,7 +236,7 @@ public class Parser {
         Decl → ConstDecl | VarDecl
         覆盖两种声明
      */
-    private Decl parseDecl(){
+    private int parseDecl(){
         if(match(TokenType.CONSTTK)){
             return parseConstDecl();
         } else {
@@ -212,19 +249,19 @@ public class Parser {
         1.花括号内重复0次
         2.花括号内重复多次
      */
-    private ConstDecl parseConstDecl(){
-        ConstDecl constDecl = new ConstDecl(lineNum());
+    private int parseConstDecl(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
 
         consume(TokenType.CONSTTK);
 
-        BType bType = parseBtype();
-        constDecl.setBType(bType);
+        parseBtype();
 
-        constDecl.addConstDef(parseConstDef());
+        tree.push(parseConstDef());
 
         while (match(TokenType.COMMA)) {
             consume(TokenType.COMMA);
-            constDecl.addConstDef(parseConstDef());
+            tree.push(parseConstDef());
         }
 
         if(!match(TokenType.SEMICN)){
@@ -234,29 +271,30 @@ public class Parser {
         }
 
         printNT("<ConstDecl>");
-        return constDecl;
+        return tree.add(NodeKind.CONST_DECL, lineNum, 0, 0, mark);
     }
 
     /*
         基本类型 BType → 'int'
+        只有一种类型，不建结点
      */
-    private BType parseBtype(){
+    private void parseBtype(){
         consume(TokenType.INTTK);
-        return new BType(lineNum());
     }
 
     /*
         常量定义 ConstDef → Ident [ '[' ConstExp ']' ] '=' ConstInitVal
         包含普通变量、一维数组两种情况
      */
-    private ConstDef parseConstDef(){
-        ConstDef constDef = new ConstDef(lineNum());
-        Token ident = consume(TokenType.IDENFR);
-        constDef.setIdent(ident);
+    private int parseConstDef(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
+        int nameId = consumeIdent();
 
+        int array = NULL;
         if(match(TokenType.LBRACK)){
             consume(TokenType.LBRACK);
-            constDef.setArray(parseConstExp());
+            array = parseConstExp();
 
             if(!match(TokenType.RBRACK)){
                 error(TokenType.RBRACK);
@@ -265,12 +303,13 @@ public class Parser {
             }
 
         }
+        tree.push(array);
 
         consume(TokenType.ASSIGN);
-        constDef.setConstInitVal(parseConstInitVal());
+        tree.push(parseConstInitVal());
 
         printNT("<ConstDef>");
-        return constDef;
+        return tree.add(NodeKind.CONST_DEF, lineNum, nameId, 0, mark);
     }
 
     /*
@@ -278,23 +317,24 @@ public class Parser {
         1.常表达式初值
         2.一维数组初值
      */
-    private ConstInitVal parseConstInitVal(){
-        ConstInitVal constInitVal = new ConstInitVal(lineNum());
+    private int parseConstInitVal(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         if(match(TokenType.LBRACE)){
             consume(TokenType.LBRACE);
             if(!match(TokenType.RBRACE)){
-                constInitVal.addConstExp(parseConstExp());
+                tree.push(parseConstExp());
                 while (match(TokenType.COMMA)){
                     consume(TokenType.COMMA);
-                    constInitVal.addConstExp(parseConstExp());
+                    tree.push(parseConstExp());
                 }
             }
             consume(TokenType.RBRACE);
         } else {
-            constInitVal.addConstExp(parseConstExp());
+            tree.push(parseConstExp());
         }
         printNT("<ConstInitVal>");
-        return constInitVal;
+        return tree.add(NodeKind.CONST_INIT_VAL, lineNum, 0, 0, mark);
     }
 
     /*
@@ -302,34 +342,33 @@ public class Parser {
         1.花括号内重复0次
         2.花括号内重复多次
      */
-    private VarDecl parseVarDecl(){
-        VarDecl varDecl = new VarDecl(lineNum());
-        boolean isStatic = false;
+    private int parseVarDecl(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
+        int flags = 0;
         if (match(TokenType.STATICTK)){
-            isStatic=true;
+            flags = SyntaxTree.STATIC;
             consume(TokenType.STATICTK);
         }
-        varDecl.setStatic(isStatic);
 
-        BType bType=parseBtype();
-        varDecl.setbType(bType);
+        parseBtype();
 
-        varDecl.addVarDef(parseVarDef());
+        tree.push(parseVarDef());
 
         while (match(TokenType.COMMA)){
             consume(TokenType.COMMA);
-            varDecl.addVarDef(parseVarDef());
+            tree.push(parseVarDef());
         }
 
         if(!match(TokenType.SEMICN)){
             error(TokenType.SEMICN);
-            return varDecl;
+            return tree.add(NodeKind.VAR_DECL, lineNum, 0, flags, mark);
         } else {
             consume(TokenType.SEMICN);
         }
 
         printNT("<VarDecl>");
-        return varDecl;
+        return tree.add(NodeKind.VAR_DECL, lineNum, 0, flags, mark);
     }
 
     /*
@@ -337,83 +376,79 @@ public class Parser {
                        | Ident [ '[' ConstExp ']' ] '=' InitVal
         包含普通常量、一维数组定义
      */
-    private VarDef parseVarDef(){
-        VarDef varDef = new VarDef(lineNum());
-        Token ident = consume(TokenType.IDENFR);
-        if (ident == null) {
-            printNT("<VarDef>");
-            return varDef;
-        }
-        varDef.setIdent(ident);
-
-        if (match(TokenType.LBRACK)) {
-            if (consume(TokenType.LBRACK) == null) {
-                printNT("<VarDef>");
-                return varDef;
-            }
-            varDef.setArray(parseConstExp());
-            if(!match(TokenType.RBRACK)){
-                error(TokenType.RBRACK);
-            } else {
-                consume(TokenType.RBRACK);
+    private int parseVarDef(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
+        int nameId = consumeIdent();
+        int array = NULL;
+        int initVal = NULL;
+
+        if (nameId >= 0) {
+            if (match(TokenType.LBRACK)) {
+                consume(TokenType.LBRACK);
+                array = parseConstExp();
+                if(!match(TokenType.RBRACK)){
+                    error(TokenType.RBRACK);
+                } else {
+                    consume(TokenType.RBRACK);
+                }
             }
-        }
 
-        if (match(TokenType.ASSIGN)) {
-            if (consume(TokenType.ASSIGN) == null) {
-                printNT("<VarDef>");
-                return varDef;
+            if (match(TokenType.ASSIGN)) {
+                consume(TokenType.ASSIGN);
+                initVal = parseInitVal();
             }
-            varDef.setInitVal(parseInitVal());
         }
 
         printNT("<VarDef>");
-        return varDef;
+        tree.push(array);
+        tree.push(initVal);
+        return tree.add(NodeKind.VAR_DEF, lineNum, nameId, 0, mark);
     }
 
-    /* 
-        变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}' 
-        1.表达式初值 
-        2.一维数组初值 
+    /*
+        变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
+        1.表达式初值
+        2.一维数组初值
     */
-    private InitVal parseInitVal(){
-        InitVal initVal = new InitVal(lineNum());
+    private int parseInitVal(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         if(match(TokenType.LBRACE)){
             consume(TokenType.LBRACE);
             if(!match(TokenType.RBRACE)){
-                initVal.addExp(parseExp());
+                tree.push(parseExp());
                 while (match(TokenType.COMMA)){
                     consume(TokenType.COMMA);
-                    initVal.addExp(parseExp());
+                    tree.push(parseExp());
                 }
             }
             consume(TokenType.RBRACE);
         } else {
-            initVal.addExp(parseExp());
+            tree.push(parseExp());
         }
         printNT("<InitVal>");
-        return initVal;
+        return tree.add(NodeKind.INIT_VAL, lineNum, 0, 0, mark);
     }
 
     // ==================== 函数 Func ===================
 
     /*
-        函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block 
+        函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block
         1.无形参 2.有形参
      */
-    private FuncDef parseFuncDef(){
-        FuncDef funcDef = new FuncDef(lineNum());
+    private int parseFuncDef(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
 
-        FuncType funcType = parseFuncType();
-        funcDef.setFuncType(funcType);
+        int flags = parseFuncType();
 
-        Token ident = consume(TokenType.IDENFR);
-        funcDef.setIdent(ident);
+        int nameId = consumeIdent();
 
         consume(TokenType.LPARENT);
         //有形参
         if (!match(TokenType.RPARENT)) {
-            funcDef.setParams(parseFuncFParams());
+            parseFuncFParams();
         }
 
         if(!match(TokenType.RPARENT)){
@@ -422,85 +457,86 @@ public class Parser {
             consume(TokenType.RPARENT);
         }
 
-        funcDef.setBody(parseBlock());
+        tree.push(parseBlock());
 
         printNT("<FuncDef>");
-        return funcDef;
+        return tree.add(NodeKind.FUNC_DEF, lineNum, nameId, flags, mark);
     }
 
     /*
-        主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block 
+        主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block
         存在main函数
      */
-    private MainFuncDef parseMainFuncDef(){
-        MainFuncDef mainFuncDef = new MainFuncDef(lineNum());
+    private int parseMainFuncDef(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
 
         consume(TokenType.INTTK);
         consume(TokenType.MAINTK);
-        if(consume(TokenType.LPARENT)==null) return mainFuncDef;
+        if(!consume(TokenType.LPARENT)) {
+            tree.push(NULL);
+            return tree.add(NodeKind.MAIN_FUNC_DEF, lineNum, 0, 0, mark);
+        }
         if(!match(TokenType.RPARENT)){
             error(TokenType.RPARENT);
         } else {
             consume(TokenType.RPARENT);
         }
 
-        mainFuncDef.setBody(parseBlock());
+        tree.push(parseBlock());
         printNT("<MainFuncDef>");
-        return mainFuncDef;
+        return tree.add(NodeKind.MAIN_FUNC_DEF, lineNum, 0, 0, mark);
     }
 
     /*
-        函数类型 FuncType → 'void' | 'int' 
-        覆盖两种类型的函数
+        函数类型 FuncType → 'void' | 'int'
+        覆盖两种类型的函数，结果记在 FuncDef 的 INT 标志上
      */
-    private FuncType parseFuncType(){
-        String type;
+    private int parseFuncType(){
+        int flags;
         if(match(TokenType.VOIDTK)){
             consume(TokenType.VOIDTK);
-            type = "void";
+            flags = 0;
         } else {
             consume(TokenType.INTTK);
-            type = "int";
+            flags = SyntaxTree.INT;
         }
-        FuncType funcType = new FuncType(lineNum(), type);
         printNT("<FuncType>");
-        return funcType;
+        return flags;
     }
 
     /*
-        函数形参表 FuncFParams → FuncFParam { ',' FuncFParam } 
-        1.花括号内重复0次 
+        函数形参表 FuncFParams → FuncFParam { ',' FuncFParam }
+        1.花括号内重复0次
         2.花括号内重复多次
+        各形参直接作为 FuncDef 的子结点
      */
-    private FuncFParams parseFuncFParams(){
-        FuncFParams funcFParams = new FuncFParams(lineNum());
-        funcFParams.addParam(parseFuncFParam());
+    private void parseFuncFParams(){
+        tree.push(parseFuncFParam());
 
         while (match(TokenType.COMMA)){
             consume(TokenType.COMMA);
-            funcFParams.addParam(parseFuncFParam());
+            tree.push(parseFuncFParam());
         }
 
         printNT("<FuncFParams>");
-        return funcFParams;
     }
 
     /*
-        函数形参 FuncFParam → BType Ident ['[' ']'] 
+        函数形参 FuncFParam → BType Ident ['[' ']']
         1.普通变量 2.一维数组变量
      */
-    private FuncFParam parseFuncFParam(){
-        FuncFParam funcFParam = new FuncFParam(lineNum());
+    private int parseFuncFParam(){
+        int lineNum = lineNum();
 
-        BType bType = parseBtype();
-        funcFParam.setBtype(bType);
+        parseBtype();
 
-        Token ident = consume(TokenType.IDENFR);
-        funcFParam.setIdent(ident);
+        int nameId = consumeIdent();
 
+        int flags = 0;
         if(match(TokenType.LBRACK)){
-            if (consume(TokenType.LBRACK) != null) {
-                funcFParam.setArray(true);
+            if (consume(TokenType.LBRACK)) {
+                flags = SyntaxTree.ARRAY;
                 if(!match(TokenType.RBRACK)){
                     error(TokenType.RBRACK);
                 } else {
@@ -511,7 +547,7 @@ public class Parser {
         }
 
         printNT("<FuncFParam>");
-        return funcFParam;
+        return tree.leaf(NodeKind.FUNC_F_PARAM, lineNum, nameId, flags);
     }
 
     /*
@@ -519,46 +555,46 @@ public class Parser {
         1.花括号内重复0次
         2.花括号内重复多次
         3.Exp需要覆盖数组传参和部分数组传参
+        各实参直接作为调用结点的子结点
     */
-    private FuncRParams parseFuncRParams(){
-        FuncRParams funcRParams = new FuncRParams(lineNum());
-        funcRParams.addExp(parseExp());
+    private void parseFuncRParams(){
+        tree.push(parseExp());
 
         while (match(TokenType.COMMA)){
             consume(TokenType.COMMA);
-            funcRParams.addExp(parseExp());
+            tree.push(parseExp());
         }
 
         printNT("<FuncRParams>");
-        return funcRParams;
     }
 
     // ==================== 语句块 Block ===================
     /*
-        语句块 Block → '{' { BlockItem } '}' 
+        语句块 Block → '{' { BlockItem } '}'
         1.花括号内重复0次 2.花括号内重复多次
      */
-    private Block parseBlock(){
-        Block block = new Block(lineNum());
+    private int parseBlock(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         consume(TokenType.LBRACE);
-        while (!match(TokenType.RBRACE) && peek()!=null){
-            block.addBlockItem(parseBlockItem());
+        while (!match(TokenType.RBRACE)){
+            tree.push(parseBlockItem());
         }
-        block.setEndLine(lineNum());
+        int endLine = lineNum();
         consume(TokenType.RBRACE);
         printNT("<Block>");
-        return block;
+        return tree.add(NodeKind.BLOCK, lineNum, endLine, 0, mark);
     }
 
     /*
         语句块项 BlockItem → Decl | Stmt
-        覆盖两种语句块项
+        覆盖两种语句块项，不单独建结点
      */
-    private BlockItem parseBlockItem(){
+    private int parseBlockItem(){
         if(match(TokenType.CONSTTK, TokenType.INTTK, TokenType.STATICTK)){
-            return new BlockItem(parseDecl());
+            return parseDecl();
         } else {
-            return new BlockItem(parseStmt());
+            return parseStmt();
         }
     }
 
@@ -574,34 +610,37 @@ public class Parser {
                     | 'return' [Exp] ';'
                     | 'printf''('StringConst {','Exp}')'';'
      */
-    private Stmt parseStmt(){
+    private int parseStmt(){
+        int mark = tree.mark();
         if(isAssignStmt()){
-            LVal lVal = parseLVal();
+            int lVal = parseLVal();
             consume(TokenType.ASSIGN);
-            Exp exp = parseExp();
+            int exp = parseExp();
             if(!match(TokenType.SEMICN)){
                 error(TokenType.SEMICN);
             } else {
                 consume(TokenType.SEMICN);
             }
             printNT("<Stmt>");
-            return new AssignStmt(lineNum(), lVal, exp);
+            tree.push(lVal);
+            tree.push(exp);
+            return tree.add(NodeKind.ASSIGN_STMT, lineNum(), 0, 0, mark);
         }
 
         if (match(TokenType.LBRACE)){
-            Block block = parseBlock();
+            int block = parseBlock();
             printNT("<Stmt>");
-            return new BlockStmt(block.getLineNum(), block);
+            return block;
         }
 
         if(match(TokenType.IFTK)){
-            IfStmt ifStmt = parseIfStmt();
+            int ifStmt = parseIfStmt();
             printNT("<Stmt>");
             return ifStmt;
         }
 
         if(match(TokenType.FORTK)){
-            ForStmt forStmt = parseForStmt();
+            int forStmt = parseForStmt();
             printNT("<Stmt>");
             return forStmt;
         }
@@ -615,7 +654,7 @@ public class Parser {
                 consume(TokenType.SEMICN);
             }
             printNT("<Stmt>");
-            return new BreakStmt(lineNum);
+            return tree.leaf(NodeKind.BREAK_STMT, lineNum, 0, 0);
         }
 
         if(match(TokenType.CONTINUETK)){
@@ -627,13 +666,13 @@ public class Parser {
                 consume(TokenType.SEMICN);
             }
             printNT("<Stmt>");
-            return new ContinueStmt(lineNum);
+            return tree.leaf(NodeKind.CONTINUE_STMT, lineNum, 0, 0);
         }
 
         if(match(TokenType.RETURNTK)){
             int lineNum=lineNum();
             consume(TokenType.RETURNTK);
-            Exp exp = null;
+            int exp = NULL;
             if(!match(TokenType.SEMICN)){
                 exp = parseExp();
             }
@@ -643,7 +682,8 @@ public class Parser {
                 consume(TokenType.SEMICN);
             }
             printNT("<Stmt>");
-            return new ReturnStmt(lineNum, exp);
+            tree.push(exp);
+            return tree.add(NodeKind.RETURN_STMT, lineNum, 0, 0, mark);
         }
 
         if(match(TokenType.PRINTFTK)){
@@ -656,42 +696,42 @@ public class Parser {
         if(match(TokenType.SEMICN)){
             consume(TokenType.SEMICN);
             printNT("<Stmt>");
-            return new ExpStmt(lineNum(),null);
+            tree.push(NULL);
+            return tree.add(NodeKind.EXP_STMT, lineNum(), 0, 0, mark);
         }
 
-        Exp exp = parseExp();
+        int exp = parseExp();
         if(!match(TokenType.SEMICN)){
-            if(match(TokenType.RPARENT)){
-                return new ExpStmt(lineNum(),exp);
+            if(!match(TokenType.RPARENT)){
+                error(TokenType.SEMICN);
             }
-            error(TokenType.SEMICN);
-            return new ExpStmt(lineNum(),exp);
+            tree.push(exp);
+            return tree.add(NodeKind.EXP_STMT, lineNum(), 0, 0, mark);
         }
 
         consume(TokenType.SEMICN);
         printNT("<Stmt>");
-        return new ExpStmt(lineNum(),exp);
+        tree.push(exp);
+        return tree.add(NodeKind.EXP_STMT, lineNum(), 0, 0, mark);
     }
 
     //Stmt → LVal '=' Exp ';'
     private boolean isAssignStmt() {
-        Token t0 = peek(0);
-        if (t0 == null || t0.getTokenType() != TokenType.IDENFR) return false;
+        if (peek(0) != TokenType.IDENFR) return false;
 
         int i = 1;
-        Token t = peek(i);
-        if (t == null) return false;
+        TokenType t = peek(i);
 
         // 跳过可能的数组索引 [ Exp ]
-        if (t.getTokenType() == TokenType.LBRACK) {
+        if (t == TokenType.LBRACK) {
             i++;
             int depth = 1;
             while (true) {
                 t = peek(i);
-                if (t == null) return false;
-                if (t.getTokenType() == TokenType.LBRACK) depth++;
-                else if (t.getTokenType() == TokenType.RBRACK) depth--;
-                else if (t.getTokenType() == TokenType.ASSIGN) {
+                if (t == TokenType.EOF) return false;
+                if (t == TokenType.LBRACK) depth++;
+                else if (t == TokenType.RBRACK) depth--;
+                else if (t == TokenType.ASSIGN) {
                     // 提前遇到 =，说明 ] 缺失，但仍可能是赋值
                     return true;
                 }
@@ -702,38 +742,40 @@ public class Parser {
                 i++;
             }
             t = peek(i);
-            if (t == null) return false;
         }
 
         // 现在 t 是 ] 后的 token
-        return t.getTokenType() == TokenType.ASSIGN;
+        return t == TokenType.ASSIGN;
     }
 
     /*
-        Stmt → 'if' '(' Cond ')' Stmt [ 'else' Stmt ] 
+        Stmt → 'if' '(' Cond ')' Stmt [ 'else' Stmt ]
         1.有else 2.无else
      */
-    private IfStmt parseIfStmt(){
-        IfStmt ifStmt = new IfStmt(lineNum());
+    private int parseIfStmt(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         consume(TokenType.IFTK);
         consume(TokenType.LPARENT);
 
-        ifStmt.setCond(parseCond());
+        int cond = parseCond();
         if(!match(TokenType.RPARENT)){
             error(TokenType.RPARENT);
         }else {
             consume(TokenType.RPARENT);
         }
 
-        Stmt thenStmt = parseStmt();
-        ifStmt.setThenStmt(thenStmt);
+        int thenStmt = parseStmt();
 
+        int elseStmt = NULL;
         if(match(TokenType.ELSETK)){
             consume(TokenType.ELSETK);
-            Stmt elseStmt = parseStmt();
-            ifStmt.setElseStmt(elseStmt);
+            elseStmt = parseStmt();
         }
-        return ifStmt;
+        tree.push(cond);
+        tree.push(thenStmt);
+        tree.push(elseStmt);
+        return tree.add(NodeKind.IF_STMT, lineNum, 0, 0, mark);
     }
 
     /*
@@ -742,21 +784,24 @@ public class Parser {
         2. ForStmt与Cond中缺省一个，3种情况
         3. ForStmt与Cond中缺省两个，3种情况
         4. ForStmt与Cond全部缺省，1种情况
+        初始化与更新的各项按顺序直接压入，Cond 与循环体放在最后
     */
-    private ForStmt parseForStmt(){
-        ForStmt forStmt = new ForStmt(lineNum());
+    private int parseForStmt(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
         consume(TokenType.FORTK);
         consume(TokenType.LPARENT);
 
         // [ForStmt]
         if(!match(TokenType.SEMICN)){
-            forStmt.addInit(parseForStmtItem());
+            tree.push(parseForStmtItem());
             while (match(TokenType.COMMA)){
                 consume(TokenType.COMMA);
-                forStmt.addInit(parseForStmtItem());
+                tree.push(parseForStmtItem());
             }
             printNT("<ForStmt>");
         }
+        int initCount = tree.mark() - mark;
         if(!match(TokenType.SEMICN)){
             error(TokenType.SEMICN);
         } else {
@@ -764,9 +809,9 @@ public class Parser {
         }
 
         // [Cond]
+        int cond = NULL;
         if(!match(TokenType.SEMICN)){
-            Cond cond = parseCond();
-            forStmt.setCond(cond);
+            cond = parseCond();
         }
         if(!match(TokenType.SEMICN)){
             error(TokenType.SEMICN);
@@ -776,10 +821,10 @@ public class Parser {
 
         // [ForStmt]
         if(!match(TokenType.RPARENT)){
-            forStmt.addUpdate(parseForStmtItem());
+            tree.push(parseForStmtItem());
             while (match(TokenType.COMMA)){
                 consume(TokenType.COMMA);
-                forStmt.addUpdate(parseForStmtItem());
+                tree.push(parseForStmtItem());
             }
             printNT("<ForStmt>");
         }
@@ -790,31 +835,36 @@ public class Parser {
             consume(TokenType.RPARENT);
         }
 
-        Stmt body = parseStmt();
-        forStmt.setBody(body);
-        return forStmt;
+        int body = parseStmt();
+        tree.push(cond);
+        tree.push(body);
+        return tree.add(NodeKind.FOR_STMT, lineNum, initCount, 0, mark);
     }
 
-    private ForStmtItem parseForStmtItem(){
-        LVal lVal = parseLVal();
+    private int parseForStmtItem(){
+        int mark = tree.mark();
+        int lVal = parseLVal();
         consume(TokenType.ASSIGN);
-        Exp exp = parseExp();
-        return new ForStmtItem(lineNum(), lVal, exp);
+        int exp = parseExp();
+        tree.push(lVal);
+        tree.push(exp);
+        return tree.add(NodeKind.FOR_ITEM, lineNum(), 0, 0, mark);
     }
 
     /*
         语句 Stmt → 'printf' '('StringConst {','Exp}')' ';'
         1.有Exp 2.无Exp
     */
-    private PrintfStmt parsePrintfStmt(){
+    private int parsePrintfStmt(){
+        int mark = tree.mark();
         consume(TokenType.PRINTFTK);
         consume(TokenType.LPARENT);
-        Token stringConst = consume(TokenType.STRCON);
-        PrintfStmt printfStmt = new PrintfStmt(lineNum(), stringConst);
+        int stringConst = consumeLiteral(TokenType.STRCON);
+        int lineNum = lineNum();
 
         while (match(TokenType.COMMA)){
             consume(TokenType.COMMA);
-            printfStmt.addExp(parseExp());
+            tree.push(parseExp());
         }
 
         if(!match(TokenType.RPARENT)){
@@ -830,27 +880,108 @@ public class Parser {
         }
 
         printNT("<Stmt>");
-        return printfStmt;
+        return tree.add(NodeKind.PRINTF_STMT, lineNum, stringConst, 0, mark);
     }
 
     // =================== 表达式 Exp ===================
+    /*
+        MulExp … LOrExp 用优先级爬升一次分析完，直接建出 BINARY_EXP 二叉树，不再逐层建结点
+        优先级（数字小的结合更紧）：0 MulExp  1 AddExp  2 RelExp  3 EqExp  4 LAndExp  5 LOrExp
+        parser.txt 仍按文法逐层输出，只取决于 token 序列：
+            每读完一个一元表达式       输出 <MulExp>
+            读入第 k 层的运算符之前    输出第 1..k 层
+            整个表达式结束时           输出第 1..top 层（Exp、ConstExp 为 AddExp，Cond 为 LOrExp）
+     */
+    private static final int ADD_LEVEL = 1;
+    private static final int LOR_LEVEL = 5;
+    private static final String[] LEVEL_NAMES = {
+            "<MulExp>", "<AddExp>", "<RelExp>", "<EqExp>", "<LAndExp>", "<LOrExp>"
+    };
+
+    private static int binaryLevel(TokenType type){
+        return switch (type){
+            case MULT, DIV, MOD -> 0;
+            case PLUS, MINU -> 1;
+            case LSS, GRE, LEQ, GEQ -> 2;
+            case EQL, NEQ -> 3;
+            case AND -> 4;
+            case OR -> 5;
+            default -> -1;
+        };
+    }
+
+    // 第 1..level 层各自的一项结束
+    private void closeLevels(int level){
+        for (int i = 1; i <= level; i++){
+            printNT(LEVEL_NAMES[i]);
+        }
+    }
+
     /*
         表达式 Exp → AddExp // 存在即可
      */
-    private Exp parseExp(){
-        Exp exp = parseAddExp();
+    private int parseExp(){
+        int exp = parseBinaryExp(ADD_LEVEL);
         printNT("<Exp>");
         return exp;
     }
 
     /*
         条件表达式 Cond → LOrExp  //存在即可
+        不单独建结点，返回其中的表达式
     */
-    private Cond parseCond(){
-        Cond cond = new Cond(lineNum());
-        cond.setlOrExp(parseLOrExp());
+    private int parseCond(){
+        int exp = parseBinaryExp(LOR_LEVEL);
         printNT("<Cond>");
-        return cond;
+        return exp;
+    }
+
+    /*
+        常量表达式 ConstExp → AddExp
+        注：使用的 Ident 必须是常量 // 存在即可
+        不单独建结点，返回其中的表达式
+    */
+    private int parseConstExp(){
+        int exp = parseBinaryExp(ADD_LEVEL);
+        printNT("<ConstExp>");
+        return exp;
+    }
+
+    // 分析优先级不低于 top 层的运算链
+    private int parseBinaryExp(int top){
+        int exp = climb(parseOperand(), top);
+        closeLevels(top);
+        return exp;
+    }
+
+    // 一元表达式作为运算数，同时是只有一项的 MulExp
+    private int parseOperand(){
+        int exp = parseUnaryExp();
+        printNT(LEVEL_NAMES[0]);
+        return exp;
+    }
+
+    /*
+        以 left 为左运算数，吸收层数不超过 maxLevel 的运算符
+        右运算数后面若是结合更紧的运算符，先递归把它们归入右运算数；递归深度不超过层数
+     */
+    private int climb(int left, int maxLevel){
+        int level = binaryLevel(peek());
+        while (level >= 0 && level <= maxLevel){
+            closeLevels(level);
+            TokenType operator = tokens.getType(nextOperator());
+            int right = parseOperand();
+            int nextLevel = binaryLevel(peek());
+            if (nextLevel >= 0 && nextLevel < level){
+                right = climb(right, level - 1);
+            }
+            int mark = tree.mark();
+            tree.push(left);
+            tree.push(right);
+            left = tree.add(NodeKind.BINARY_EXP, tree.line(left), operator.ordinal(), 0, mark);
+            level = binaryLevel(peek());
+        }
+        return left;
     }
 
     /*
@@ -858,14 +989,15 @@ public class Parser {
         1.普通变量、常量
         2.一维数组
     */
-    private LVal parseLVal(){
-        LVal lVal = new LVal(lineNum());
-        Token ident = consume(TokenType.IDENFR);
-        lVal.setIdent(ident);
+    private int parseLVal(){
+        int lineNum = lineNum();
+        int mark = tree.mark();
+        int nameId = consumeIdent();
 
+        int index = NULL;
         if(match(TokenType.LBRACK)){
             consume(TokenType.LBRACK);
-            lVal.setIndex(parseExp());
+            index = parseExp();
             if(!match(TokenType.RBRACK)){
                 error(TokenType.RBRACK);
             } else {
@@ -873,42 +1005,44 @@ public class Parser {
             }
         }
         printNT("<LVal>");
-        return lVal;
+        tree.push(index);
+        return tree.add(NodeKind.LVAL, lineNum, nameId, 0, mark);
     }
 
     /*
         基本表达式 PrimaryExp → '(' Exp ')' | LVal | Number
+        不单独建结点：返回括号内的表达式（标记 PARENTHESIZED）、LVal 或 Number
     */
-    private PrimaryExp parsePrimaryExp(){
-        PrimaryExp primaryExp = new PrimaryExp(lineNum());
+    private int parsePrimaryExp(){
+        int exp;
         if(match(TokenType.LPARENT)){
             consume(TokenType.LPARENT);
-            primaryExp.setExp(parseExp());
+            exp = parseExp();
+            tree.setFlag(exp, SyntaxTree.PARENTHESIZED);
             if(!match(TokenType.RPARENT)){
                 error(TokenType.RPARENT);
             } else {
                 consume(TokenType.RPARENT);
             }
         } else if (match(TokenType.IDENFR)){
-            primaryExp.setLVal(parseLVal());
+            exp = parseLVal();
         } else if(match(TokenType.INTCON)){
-            primaryExp.setNumber(parseNumber());
+            exp = parseNumber();
+        } else {
+            exp = tree.leaf(NodeKind.MISSING_EXP, lineNum(), 0, 0);
         }
         printNT("<PrimaryExp>");
-        return primaryExp;
+        return exp;
     }
 
     /*
         数值 Number → IntConst // 存在即可
     */
-    private Number parseNumber(){
-        Token number = consume(TokenType.INTCON);
-        Number num = null;
-        if (number != null) {
-            num = new Number(number);
-        }
+    private int parseNumber(){
+        int lineNum = lineNum();
+        int number = consumeLiteral(TokenType.INTCON);
         printNT("<Number>");
-        return num;
+        return tree.leaf(NodeKind.NUMBER, lineNum, number, 0);
     }
 
     /*
@@ -920,184 +1054,66 @@ public class Parser {
                 tokenType==TokenType.PLUS || tokenType==TokenType.MINU || tokenType==TokenType.NOT;
     }
 
-    private UnaryExp parseUnaryExp(){
-       UnaryExp unaryExp = new UnaryExp(lineNum());
-
-       // Ident '(' [FuncRParams] ')'
-       if(peek(0)!=null && peek(0).getTokenType()==TokenType.IDENFR &&
-          peek(1)!=null && peek(1).getTokenType()==TokenType.LPARENT){
-           Token ident = consume(TokenType.IDENFR);
-           consume(TokenType.LPARENT);
-           FuncRParams funcRParams = null;
-           // func()
-           if(match(TokenType.RPARENT)){
-               consume(TokenType.RPARENT);
-           }
-           // func(exp, exp, ...)
-           else if (peek()!=null && startsExp(peek().getTokenType())){
-               funcRParams = parseFuncRParams();
-               if(!match(TokenType.RPARENT)){
-                   error(TokenType.RPARENT);
-               } else {
-                   consume(TokenType.RPARENT);
-               }
-           }
-           //func(
-           else {
-               ErrorList.addErrors(new Error("j", errorLine()));
-           }
-           unaryExp.setCall(ident, funcRParams);
-           printNT("<UnaryExp>");
-           return unaryExp;
-       }
-       
-       // UnaryOp UnaryExp
-       if(match(TokenType.PLUS, TokenType.MINU, TokenType.NOT)){
-           Token operator = next();
-           outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-           printNT("<UnaryOp>");
-           UnaryExp operand = parseUnaryExp();       // 递归
-           unaryExp.setUnary(operator, operand);
-           printNT("<UnaryExp>");
-           return unaryExp;
-        }
-           
-        // PrimaryExp
-        unaryExp.setPrimaryExp(parsePrimaryExp());
-        printNT("<UnaryExp>");
-        return unaryExp;
-    }
-
-    /*
-        乘除模表达式 MulExp → UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
-        1.UnaryExp  2.*  3./  4.%   均需覆盖
-    */
-    private MulExp parseMulExp(){
-        MulExp mulExp = new MulExp(lineNum());
-        mulExp.addUnaryExp(parseUnaryExp());
-        printNT("<MulExp>");
-
-        while (match(TokenType.MULT, TokenType.DIV, TokenType.MOD)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            mulExp.addOperator(operator);
-            mulExp.addUnaryExp(parseUnaryExp());
-            printNT("<MulExp>");
-        }
-
-        return mulExp;
-    }
-
-    /*
-        加减表达式 AddExp → MulExp | AddExp ('+' | '−') MulExp
-        1.MulExp  2.+ 需覆盖  3.- 需覆盖
-    */
-    private AddExp parseAddExp(){
-        AddExp addExp = new AddExp(lineNum());
-        addExp.addMulExp(parseMulExp());
-        printNT("<AddExp>");
-
-        while (match(TokenType.PLUS, TokenType.MINU)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            addExp.addOperator(operator);
-            addExp.addMulExp(parseMulExp());
-            printNT("<AddExp>");
-        }
-        return addExp;
-    }
-
-    /*
-        关系表达式 RelExp → AddExp | RelExp ('<' | '>' | '<=' | '>=') AddExp
-        1.AddExp  2.<  3.>  4.<=  5.>=    均需覆盖
-    */
-    private RelExp parseRelExp(){
-        RelExp relExp = new RelExp(lineNum());
-        relExp.addAddExp(parseAddExp());
-        printNT("<RelExp>");
-
-        while (match(TokenType.LSS, TokenType.GRE, TokenType.LEQ, TokenType.GEQ)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            relExp.addOperator(operator);
-            relExp.addAddExp(parseAddExp());
-            printNT("<RelExp>");
-        }
-
-        return relExp;
-    }
-
-    /*
-        相等性表达式 EqExp → RelExp | EqExp ('==' | '!=') RelExp
-        1.RelExp 2.== 3.!= 均需覆盖
-    */
-    private EqExp parseEqExp(){
-        EqExp eqExp = new EqExp(lineNum());
-        eqExp.addRelExp(parseRelExp());
-        printNT("<EqExp>");
-
-        while (match(TokenType.EQL, TokenType.NEQ)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            eqExp.addOperator(operator);
-            eqExp.addRelExp(parseRelExp());
-            printNT("<EqExp>");
-        }
-
-        return eqExp;
-    }
-
-    /*
-        逻辑与表达式 LAndExp → EqExp | LAndExp '&&' EqExp
-        1.EqExp 2.&&  均需覆盖
-    */
-    private LAndExp parseLAndExp(){
-        LAndExp lAndExp = new LAndExp(lineNum());
-        lAndExp.addEqExp(parseEqExp());
-        printNT("<LAndExp>");
-
-        while (match(TokenType.AND)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            lAndExp.addOperator(operator);
-            lAndExp.addEqExp(parseEqExp());
-            printNT("<LAndExp>");
+    private int parseUnaryExp(){
+        // UnaryOp UnaryExp：连续的单目运算符循环读入，分析完内层后由内向外建结点
+        if(match(TokenType.PLUS, TokenType.MINU, TokenType.NOT)){
+            int base = unaryTop;
+            while (match(TokenType.PLUS, TokenType.MINU, TokenType.NOT)){
+                int index = nextOperator();
+                if (unaryTop + 2 > unaryOps.length){
+                    unaryOps = Arrays.copyOf(unaryOps, unaryOps.length * 2);
+                }
+                unaryOps[unaryTop++] = tokens.getType(index).ordinal();
+                unaryOps[unaryTop++] = tokens.getLine(index);
+                printNT("<UnaryOp>");
+            }
+            int exp = parseUnaryBase();
+            while (unaryTop > base){
+                int lineNum = unaryOps[--unaryTop];
+                int operator = unaryOps[--unaryTop];
+                int mark = tree.mark();
+                tree.push(exp);
+                exp = tree.add(NodeKind.UNARY_EXP, lineNum, operator, 0, mark);
+                printNT("<UnaryExp>");
+            }
+            return exp;
         }
-        return lAndExp;
+        return parseUnaryBase();
     }
 
-    /*
-        逻辑或表达式 LOrExp → LAndExp | LOrExp '||' LAndExp
-        1.LAndExp
-        2.|| 均需覆盖
-        LOrExp  → LAndExp LOrExp'
-        LOrExp' → '||' LAndExp LOrExp' | ε
-    */
-    private LOrExp parseLOrExp(){
-        LOrExp lOrExp = new LOrExp(lineNum());
-        lOrExp.addLAndExp(parseLAndExp());
-        printNT("<LOrExp>");
-
-        while (match(TokenType.OR)){
-            Token operator = next();
-            outputs.add(operator.getTokenType() + " " + operator.getLexeme());
-            lOrExp.addOperator(operator);
-            lOrExp.addLAndExp(parseLAndExp());
-            printNT("<LOrExp>");
+    // 不以单目运算符开头的 UnaryExp：函数调用或 PrimaryExp
+    private int parseUnaryBase(){
+        // Ident '(' [FuncRParams] ')'
+        if(peek(0)==TokenType.IDENFR && peek(1)==TokenType.LPARENT){
+            int lineNum = lineNum();
+            int mark = tree.mark();
+            int nameId = consumeIdent();
+            consume(TokenType.LPARENT);
+            // func()
+            if(match(TokenType.RPARENT)){
+                consume(TokenType.RPARENT);
+            }
+            // func(exp, exp, ...)
+            else if (startsExp(peek())){
+                parseFuncRParams();
+                if(!match(TokenType.RPARENT)){
+                    error(TokenType.RPARENT);
+                } else {
+                    consume(TokenType.RPARENT);
+                }
+            }
+            //func(
+            else {
+                errorList.addErrors(new Error("j", errorLine()));
+            }
+            printNT("<UnaryExp>");
+            return tree.add(NodeKind.CALL_EXP, lineNum, nameId, 0, mark);
         }
 
-        return lOrExp;
-    }
-
-    /*
-        常量表达式 ConstExp → AddExp
-        注：使用的 Ident 必须是常量 // 存在即可
-    */
-    private ConstExp parseConstExp(){
-        ConstExp constExp = new ConstExp(lineNum());
-        constExp.setAddExp(parseAddExp());
-        printNT("<ConstExp>");
-        return constExp;
+        // PrimaryExp
+        int exp = parsePrimaryExp();
+        printNT("<UnaryExp>");
+        return exp;
     }
 
-}
\ No newline at end of file
+}
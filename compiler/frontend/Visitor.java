@@ -1,54 +1,161 @@
 package frontend;
 
-import frontend.ast.CompUnit;
-import frontend.ast.block.*;
-import frontend.ast.decl.*;
-import frontend.ast.exp.*;
-import frontend.ast.exp.Number;
-import frontend.ast.func.*;
-import frontend.ast.stmt.*;
+import frontend.ast.ExpVisitor;
+import frontend.ast.NodeKind;
+import frontend.ast.StmtVisitor;
+import frontend.ast.SyntaxTree;
 import frontend.error.Error;
 import frontend.error.ErrorList;
 import frontend.symbol.*;
-import frontend.token.Token;
+import frontend.token.NameTable;
+import midend.ir.Operand;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
-public class Visitor {
-    private final CompUnit compUnit;
+import static frontend.ast.SyntaxTree.NULL;
+
+/*
+    语义分析：遍历 SyntaxTree，建立符号表并检查语义错误
+    结点用句柄表示，语句与表达式经 SyntaxTree.acceptStmt / acceptExp 按种类分派到本类的 visitXxx
+    解析到的符号记在定义、LVal 与函数调用结点上，变量的 IR 操作数在定义时创建，IRGenerator 不再查符号表
+ */
+public class Visitor implements StmtVisitor, ExpVisitor<Void> {
+    private final SyntaxTree tree;
     private final SymbolManager symbolManager;
+    private final NameTable names;
+    private final ErrorList errorList;
     private SymbolType currentReturnType = null;
     private boolean returnWithValue = false;
     private boolean inMainFunc = false;
     private int loopDepth=0;
+    // 并行分析时下一个函数的第一个作用域编号：每个函数的作用域个数等于其中 Block 的个数
+    // 在 forFunction 返回的 Visitor 上则是分析完这个函数后应有的下一个编号，合并时核对
+    private int nextScopeBase;
+    // 正在分析初值（或数组长度）的定义：IR 中这个名字在定义结束后才可见，初值里引用的是外层的同名符号
+    private Symbol defining;
+    private int[] chain = new int[16];
+    private int chainTop = 0;
 
     // =================== 入口 ===================
-    public Visitor(CompUnit compUnit) {
-        this.compUnit = compUnit;
-        this.symbolManager = new SymbolManager();
+    public Visitor(SyntaxTree tree, SymbolManager symbolManager, ErrorList errorList) {
+        this.tree = tree;
+        this.symbolManager = symbolManager;
+        this.names = symbolManager.getNames();
+        this.errorList = errorList;
     }
 
     public void analyze(){
         symbolManager.reset();
+        tree.resetSymbols();
         insertBuiltinFunc();
         visitCompUnit();
     }
 
+    /*
+        按函数并行分析（见 driver.FunctionParallel）：
+            analyzeGlobals 分析全局声明
+            forFunction 按源程序顺序对每个函数调用：定义函数符号，返回分析函数体用的 Visitor
+            各函数的 Visitor 可以并发地 analyzeFunction，完成后按顺序 merge
+        前提是编译单元中全部声明都在函数之前；产生的符号、作用域编号、语法树上的标注与顺序分析相同
+     */
+    public void analyzeGlobals(){
+        symbolManager.reset();
+        tree.resetSymbols();
+        insertBuiltinFunc();
+        int compUnit = tree.getRoot();
+        for (int i = 0; i < tree.childCount(compUnit); i++){
+            int node = tree.child(compUnit, i);
+            if (tree.kind(node).isDecl()){
+                visitDecl(node, true);
+            }
+        }
+        nextScopeBase = symbolManager.getNextScopeId();
+    }
+
+    // errors 收集这个函数的错误（包括函数名重定义），由调用者按顺序合并
+    public Visitor forFunction(int node, ErrorList errors){
+        if (tree.kind(node) == NodeKind.FUNC_DEF){
+            defineFunc(node, errors);
+        }
+        int scopeBase = nextScopeBase;
+        nextScopeBase += tree.count(node, NodeKind.BLOCK);
+        Visitor function = new Visitor(tree, symbolManager.fork(scopeBase), errors);
+        function.nextScopeBase = nextScopeBase;
+        return function;
+    }
+
+    public void analyzeFunction(int node){
+        if (tree.kind(node) == NodeKind.FUNC_DEF){
+            visitFuncBody(node);
+        } else {
+            visitMainFuncDef(node);
+        }
+    }
+
+    public void merge(Visitor function){
+        if (function.symbolManager.getNextScopeId() != function.nextScopeBase){
+            throw new IllegalStateException("scope count mismatch: expected " + function.nextScopeBase
+                    + ", got " + function.symbolManager.getNextScopeId());
+        }
+        symbolManager.absorb(function.symbolManager);
+    }
+
     // ================== 工具函数 ==================
     private void insertBuiltinFunc(){
         String name = "getint";
+        int nameId = symbolManager.getNames().intern(name);
         SymbolType type = SymbolType.IntFunc;
         int id = symbolManager.getGlobalScope().getId();
-        Symbol symbol = new Symbol(name,type,id,0,List.of());
+        Symbol symbol = new Symbol(name,nameId,type,id,0,List.of());
         symbolManager.define(symbol);
     }
 
     private void addSymbol(Symbol symbol, int lineNum){
+        addSymbol(symbol, lineNum, errorList);
+    }
+
+    private void addSymbol(Symbol symbol, int lineNum, ErrorList errors){
         if(!symbolManager.define(symbol)){
             Error error = new Error("b",lineNum);
-            ErrorList.addErrors(error);
+            errors.addErrors(error);
+        } else if (!symbol.isFunc()){
+            symbol.setIrOperand(irOperandOf(symbol));
+        }
+    }
+
+    // IR 中的操作数：全局 g_x，形参 pN_x，static 局部 sN_x，普通局部 vN_x，N 为作用域编号
+    private Operand irOperandOf(Symbol symbol){
+        String base = symbol.getName();
+        int scopeId= symbol.getScopeId();
+        int globalId = symbolManager.getGlobalScope().getId();
+
+        //全局变量
+        if(scopeId==globalId){
+            return Operand.global(base);
+        }
+
+        //形参
+        if(symbol.isParam()){
+            return Operand.param(scopeId, base);
+        }
+
+        //static局部
+        if(symbol.isStatic()){
+            return Operand.staticLocal(scopeId, base);
+        }
+
+        //普通局部
+        return Operand.local(scopeId, base);
+    }
+
+    // 表达式中的名字在 IR 里对应的符号：跳过正在定义的符号与函数
+    private Symbol irSymbolOf(Symbol symbol){
+        while (symbol!=null && (symbol==defining || symbol.isFunc())){
+            symbol = symbol.getShadowed();
         }
+        return symbol;
     }
 
     public List<Symbol> getAllSymbols() {
@@ -62,117 +169,132 @@ public class Visitor {
     // ================== visit 函数 ==================
     // 编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
     private void visitCompUnit(){
-        for(Decl decl: compUnit.getDecls()){
-            visitDecl(decl,true);
-        }
-        for (FuncDef funcDef : compUnit.getFuncDefs()){
-            visitFuncDef(funcDef);
+        int compUnit = tree.getRoot();
+        for (int i = 0; i < tree.childCount(compUnit); i++){
+            int node = tree.child(compUnit, i);
+            switch (tree.kind(node)) {
+                case CONST_DECL, VAR_DECL -> visitDecl(node, true);
+                case FUNC_DEF -> visitFuncDef(node);
+                case MAIN_FUNC_DEF -> visitMainFuncDef(node);
+                default -> {}
+            }
         }
-        MainFuncDef mainFuncDef = compUnit.getMainFuncDef();
-        visitMainFuncDef(mainFuncDef);
     }
 
     // 声明 Decl → ConstDecl | VarDecl
-    private void visitDecl(Decl decl,boolean isGlobal){
-        if(decl instanceof ConstDecl constDecl){
-            visitConstDecl(constDecl);
-        } else if (decl instanceof VarDecl varDecl){
-            visitVarDecl(varDecl,isGlobal);
+    private void visitDecl(int decl,boolean isGlobal){
+        if(tree.kind(decl) == NodeKind.CONST_DECL){
+            visitConstDecl(decl);
+        } else {
+            visitVarDecl(decl,isGlobal);
         }
     }
 
     // 常量声明 ConstDecl → 'const' BType ConstDef { ',' ConstDef } ';'
-    private void visitConstDecl(ConstDecl constDecl){
-        for (ConstDef constDef: constDecl.getConstDefs()){
-            visitConstDef(constDef);
+    private void visitConstDecl(int constDecl){
+        for (int i = 0; i < tree.childCount(constDecl); i++){
+            visitConstDef(tree.child(constDecl, i));
         }
     }
 
     // 常量定义 ConstDef → Ident [ '[' ConstExp ']' ] '=' ConstInitVal
-    private void visitConstDef(ConstDef constDef){
-        String name = constDef.getIdent().getLexeme();
-        int lineNum = constDef.getLineNum();
-        boolean isArray = constDef.isArray();
+    private void visitConstDef(int constDef){
+        int nameId = tree.nameId(constDef);
+        String name = names.getName(nameId);
+        int lineNum = tree.line(constDef);
+        boolean isArray = tree.isArray(constDef);
 
         boolean isConst = true;
         boolean isStatic = false;
         SymbolType type = SymbolType.VarType(isConst,isArray,isStatic);
         int scopeId = symbolManager.getCurrentScope().getId();
 
-        Symbol symbol = new Symbol(name,type,scopeId,lineNum);
+        Symbol symbol = new Symbol(name,nameId,type,scopeId,lineNum);
         addSymbol(symbol,lineNum);
+        tree.setSymbol(constDef, symbol);
 
-        
+        defining = symbol;
         if(isArray){
-            visitConstExp(constDef.getArray());
+            visitExp(tree.child(constDef, 0));
         }
 
-        visitConstInitVal(constDef.getConstInitVal());
-    }
-
-    // 常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
-    private void visitConstInitVal(ConstInitVal constInitVal){
-        if (constInitVal==null) return;
-        for(ConstExp constExp: constInitVal.getConstExps()){
-            visitConstExp(constExp);
-        }
+        visitInitVal(tree.child(constDef, 1));
+        defining = null;
     }
 
     // 变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';'
-    private void visitVarDecl(VarDecl varDecl,boolean isGlobal){
-        boolean isStatic = varDecl.isStatic();
+    private void visitVarDecl(int varDecl,boolean isGlobal){
+        boolean isStatic = tree.has(varDecl, SyntaxTree.STATIC);
 
-        for (VarDef varDef: varDecl.getVarDefs()) {
-            visitVarDef(varDef,isGlobal,isStatic);
+        for (int i = 0; i < tree.childCount(varDecl); i++) {
+            visitVarDef(tree.child(varDecl, i),isGlobal,isStatic);
         }
     }
 
     // 变量定义 VarDef → Ident [ '[' ConstExp ']' ] | Ident [ '[' ConstExp ']' ] '=' InitVal
-    public void visitVarDef(VarDef varDef,boolean isGlobal, boolean hasStatic){
-        String name = varDef.getIdent().getLexeme();
+    public void visitVarDef(int varDef,boolean isGlobal, boolean hasStatic){
+        int nameId = tree.nameId(varDef);
+        String name = names.getName(nameId);
         boolean isConst = false;
-        boolean isArray = varDef.isArray();
+        boolean isArray = tree.isArray(varDef);
         boolean isStatic = (!isGlobal) && hasStatic;
         SymbolType type = SymbolType.VarType(isConst, isArray, isStatic);
         int scopeId = symbolManager.getCurrentScope().getId();
-        int lineNum = varDef.getLineNum();
+        int lineNum = tree.line(varDef);
 
-        Symbol symbol = new Symbol(name,type,scopeId,lineNum);
+        Symbol symbol = new Symbol(name,nameId,type,scopeId,lineNum);
         addSymbol(symbol,lineNum);
+        tree.setSymbol(varDef, symbol);
 
+        defining = symbol;
         if(isArray){
-            visitConstExp(varDef.getArray());
+            visitExp(tree.child(varDef, 0));
         }
-        visitInitVal(varDef.getInitVal());
+        visitInitVal(tree.child(varDef, 1));
+        defining = null;
     }
 
+    // 常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
     // 变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
-    private void visitInitVal(InitVal initVal){
-        if (initVal==null) return;
-        for(Exp exp: initVal.getExps()){
-            visitExp(exp);
+    private void visitInitVal(int initVal){
+        if (initVal==NULL) return;
+        for (int i = 0; i < tree.childCount(initVal); i++){
+            visitExp(tree.child(initVal, i));
         }
     }
 
     // 函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block
-    private void visitFuncDef(FuncDef funcDef){
-        String name = funcDef.getIdent().getLexeme();
-        int lineNum = funcDef.getBody().getEndLine();
-        boolean typeIsInt = funcDef.getFuncType().isInt();
+    private void visitFuncDef(int funcDef){
+        defineFunc(funcDef, errorList);
+        visitFuncBody(funcDef);
+    }
+
+    private void defineFunc(int funcDef, ErrorList errors){
+        int nameId = tree.nameId(funcDef);
+        String name = names.getName(nameId);
+        int paramCount = tree.childCount(funcDef) - 1;
+        int body = tree.child(funcDef, paramCount);
+        int lineNum = tree.value(body);
+        boolean typeIsInt = tree.has(funcDef, SyntaxTree.INT);
         SymbolType funcType = SymbolType.FuncType(typeIsInt);
         int scopeId = symbolManager.getGlobalScope().getId();
 
         List<SymbolType> paramTypes = new ArrayList<>();
-        if(funcDef.getParams()!=null) {
-            for(FuncFParam funcFParam : funcDef.getParams().getFuncFParams()) {
-                boolean isArray = funcFParam.isArray();
-                SymbolType type = SymbolType.VarType(false,isArray,false);
-                paramTypes.add(type);
-            }
+        for (int i = 0; i < paramCount; i++) {
+            boolean isArray = tree.isArray(tree.child(funcDef, i));
+            SymbolType type = SymbolType.VarType(false,isArray,false);
+            paramTypes.add(type);
         }
 
-        Symbol symbol = new Symbol(name,funcType,scopeId,lineNum,paramTypes);
-        addSymbol(symbol,lineNum);
+        Symbol symbol = new Symbol(name,nameId,funcType,scopeId,lineNum,paramTypes);
+        addSymbol(symbol,lineNum,errors);
+    }
+
+    private void visitFuncBody(int funcDef){
+        int paramCount = tree.childCount(funcDef) - 1;
+        int body = tree.child(funcDef, paramCount);
+        int lineNum = tree.value(body);
+        SymbolType funcType = SymbolType.FuncType(tree.has(funcDef, SyntaxTree.INT));
 
         SymbolType savedReturnType = currentReturnType;
         boolean saveInMain = inMainFunc;
@@ -183,13 +305,13 @@ public class Visitor {
         returnWithValue = false;
 
         symbolManager.pushScope();
-        if (funcDef.getParams()!=null){
-            visitFuncFParams(funcDef.getParams());
+        for (int i = 0; i < paramCount; i++) {
+            visitFuncFParam(tree.child(funcDef, i));
         }
-        visitBlock(funcDef.getBody(),false);
+        visitBlock(body,false);
         symbolManager.popScope();
-        if (currentReturnType == SymbolType.IntFunc && !blockAlwaysReturn(funcDef.getBody())){
-            ErrorList.addErrors(new Error("g",lineNum));
+        if (currentReturnType == SymbolType.IntFunc && !blockAlwaysReturn(body)){
+            errorList.addErrors(new Error("g",lineNum));
         }
 
         currentReturnType = savedReturnType;
@@ -197,40 +319,40 @@ public class Visitor {
         returnWithValue = saveReturnWithValue;
     }
 
-    private boolean blockAlwaysReturn(Block block) {
-        if(block==null) return false;
-        List<BlockItem> blockItems = block.getBlockItems();
-        for (int i=blockItems.size()-1; i>=0; i--){
-            BlockItem blockItem = blockItems.get(i);
-            if (!blockItem.isDecl()){
-                Stmt stmt = blockItem.getStmt();
-                if (stmt!=null){
-                    return stmtAlwaysReturn(stmt);
-                }
+    // 最后一条语句（跳过其后的声明）一定返回
+    private boolean blockAlwaysReturn(int block) {
+        if(block==NULL) return false;
+        for (int i=tree.childCount(block)-1; i>=0; i--){
+            int blockItem = tree.child(block, i);
+            if (!tree.kind(blockItem).isDecl()){
+                return stmtAlwaysReturn(blockItem);
             }
         }
         return false;
     }
 
-    private boolean stmtAlwaysReturn(Stmt stmt){
-        if (stmt instanceof ReturnStmt) return true;
-        if (stmt instanceof BlockStmt blockStmt) return blockAlwaysReturn(blockStmt.getBlock());
-
-        if (stmt instanceof IfStmt ifStmt){
-            Stmt thenStmt = ifStmt.getThenStmt();
-            Stmt elseStmt = ifStmt.getElseStmt();
-            if (elseStmt==null) return false;
-            return stmtAlwaysReturn(thenStmt) && stmtAlwaysReturn(elseStmt);
+    private boolean stmtAlwaysReturn(int stmt){
+        switch (tree.kind(stmt)) {
+            case RETURN_STMT:
+                return true;
+            case BLOCK:
+                return blockAlwaysReturn(stmt);
+            case IF_STMT: {
+                int thenStmt = tree.child(stmt, 1);
+                int elseStmt = tree.child(stmt, 2);
+                if (elseStmt==NULL) return false;
+                return stmtAlwaysReturn(thenStmt) && stmtAlwaysReturn(elseStmt);
+            }
+            default:
+                return false;
         }
-
-        return false;
     }
 
     // 主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block
-    private void visitMainFuncDef(MainFuncDef mainFuncDef){
-        if (mainFuncDef==null) return;
-        Block block = mainFuncDef.getBody();
-        int lineNum=mainFuncDef.getBody().getEndLine();
+    private void visitMainFuncDef(int mainFuncDef){
+        int block = tree.child(mainFuncDef, 0);
+        if (block==NULL) return;
+        int lineNum=tree.value(block);
 
         SymbolType savedReturnType = currentReturnType;
         boolean savedInMain = inMainFunc;
@@ -245,51 +367,40 @@ public class Visitor {
         symbolManager.popScope();
 
         if(!blockAlwaysReturn(block)){
-            ErrorList.addErrors(new Error("g", lineNum));
+            errorList.addErrors(new Error("g", lineNum));
         }
         currentReturnType = savedReturnType;
         inMainFunc = savedInMain;
         returnWithValue = saveReturnWithValue;
     }
 
-    // 函数形参表 FuncFParams → FuncFParam { ',' FuncFParam }
-    private void visitFuncFParams(FuncFParams funcFParams) {
-        if (funcFParams == null) return;
-        for (FuncFParam funcFParam : funcFParams.getFuncFParams()) {
-            visitFuncFParam(funcFParam);
-        }
-    }
-
     // 函数形参 FuncFParam → BType Ident ['[' ']']
-    private void visitFuncFParam(FuncFParam funcFParam) {
-        if (funcFParam==null) return;
-        Token ident = funcFParam.getIdent();
-
-        String name=null;
-        if(ident!= null){
-            name = ident.getLexeme();
-        }
-        int lineNum = funcFParam.getLineNum();
-        boolean isArray = funcFParam.isArray();
+    private void visitFuncFParam(int funcFParam) {
+        int nameId = tree.nameId(funcFParam);
+        String name = names.getName(nameId);
+        int lineNum = tree.line(funcFParam);
+        boolean isArray = tree.isArray(funcFParam);
         boolean isConst = false;
         boolean isStatic = false;
         SymbolType type = SymbolType.VarType(isConst,isArray,isStatic);
         int scopeId = symbolManager.getCurrentScope().getId();
-        Symbol symbol = new Symbol(name,type,scopeId,lineNum,true);
+        Symbol symbol = new Symbol(name,nameId,type,scopeId,lineNum,true);
         addSymbol(symbol,lineNum);
+        tree.setSymbol(funcFParam, symbol);
     }
 
     // 语句块 Block → '{' { BlockItem } '}'
     // 语句块项 BlockItem → Decl | Stmt
-    private void visitBlock(Block block, boolean newScope) {
-        if (block ==null) return;
+    private void visitBlock(int block, boolean newScope) {
+        if (block==NULL) return;
         if(newScope) symbolManager.pushScope();
 
-        for(BlockItem blockItem : block.getBlockItems()) {
-            if (blockItem.isDecl()) {
-                visitDecl(blockItem.getDecl(),false);
+        for (int i = 0; i < tree.childCount(block); i++) {
+            int blockItem = tree.child(block, i);
+            if (tree.kind(blockItem).isDecl()) {
+                visitDecl(blockItem,false);
             } else {
-                visitStmt(blockItem.getStmt());
+                visitStmt(blockItem);
             }
         }
 
@@ -307,291 +418,250 @@ public class Visitor {
                     | 'return' [Exp] ';'
                     | 'printf''('StringConst {','Exp}')'';'
      */
-    private void visitStmt(Stmt stmt) {
-        if (stmt==null) return;
-        if(stmt instanceof AssignStmt assignStmt){
-            visitAssignStmt(assignStmt);
-        } else if(stmt instanceof  ExpStmt expStmt){
-            visitExpStmt(expStmt);
-        } else if(stmt instanceof BlockStmt blockStmt) {
-            visitBlockStmt(blockStmt);
-        } else if(stmt instanceof IfStmt ifStmt) {
-            visitIfStmt(ifStmt);
-        } else if(stmt instanceof ForStmt forStmt){
-            visitForStmt(forStmt);
-        } else if(stmt instanceof BreakStmt breakStmt){
-            visitBreakStmt(breakStmt);
-        } else if(stmt instanceof ContinueStmt continueStmt){
-            visitContinueStmt(continueStmt);
-        } else if(stmt instanceof ReturnStmt returnStmt){
-            visitReturnStmt(returnStmt);
-        } else if(stmt instanceof  PrintfStmt printfStmt) {
-            visitPrintfStmt(printfStmt);
-        }
+    private void visitStmt(int stmt) {
+        tree.acceptStmt(stmt, this);
+    }
+
+    @Override
+    public void visitBlock(int block) {
+        visitBlock(block, true);
     }
 
     // 语句 Stmt → LVal '=' Exp ';'
-    private void  visitAssignStmt(AssignStmt assignStmt){
-        LVal lval = assignStmt.getLVal();
-        Exp exp = assignStmt.getExp();
-        visitLVal(lval,true);
-        visitExp(exp);
+    // 语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp } 中的一项
+    @Override
+    public void visitAssignStmt(int assignStmt){
+        visitLVal(tree.child(assignStmt, 0),true);
+        visitExp(tree.child(assignStmt, 1));
     }
 
     // 语句 Stmt → [Exp] ';'
-    private void visitExpStmt(ExpStmt expStmt){
-        Exp exp = expStmt.getExp();
-        if(exp!=null){
+    @Override
+    public void visitExpStmt(int expStmt){
+        int exp = tree.child(expStmt, 0);
+        if(exp!=NULL){
             visitExp(exp);
         }
     }
 
-    // 语句 Stmt → Block
-    private void visitBlockStmt(BlockStmt blockStmt){
-        visitBlock(blockStmt.getBlock(),true);
-    }
-
     // 语句 Stmt → 'if' '(' Cond ')' Stmt [ 'else' Stmt ]
-    private void visitIfStmt(IfStmt ifStmt){
-        Cond cond = ifStmt.getCond();
-        Stmt thenStmt = ifStmt.getThenStmt();
-        Stmt elseStmt = ifStmt.getElseStmt();
-        visitCond(cond);
+    @Override
+    public void visitIfStmt(int ifStmt){
+        int cond = tree.child(ifStmt, 0);
+        int thenStmt = tree.child(ifStmt, 1);
+        int elseStmt = tree.child(ifStmt, 2);
+        visitExp(cond);
         visitStmt(thenStmt);
-        if(elseStmt!=null) {
+        if(elseStmt!=NULL) {
             visitStmt(elseStmt);
         }
     }
 
     // 语句 Stmt → 'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
-    private void visitForStmt(ForStmt forStmt){
-        for(ForStmtItem init: forStmt.getInit()){
-            visitForStmtItem(init);
+    @Override
+    public void visitForStmt(int forStmt){
+        int initCount = tree.value(forStmt);
+        int itemCount = tree.childCount(forStmt) - 2;
+        for (int i = 0; i < initCount; i++){
+            visitAssignStmt(tree.child(forStmt, i));
         }
-        Cond cond = forStmt.getCond();
-        if (cond!=null) {
-            visitCond(cond);
+        int cond = tree.child(forStmt, itemCount);
+        if (cond!=NULL) {
+            visitExp(cond);
         }
 
         loopDepth++;
-        Stmt body = forStmt.getBody();
-        if ((body!=null)){
-            visitStmt(body);
-        }
+        visitStmt(tree.child(forStmt, itemCount + 1));
         loopDepth--;
 
-        for (ForStmtItem update: forStmt.getUpdate()){
-            visitForStmtItem(update);
+        for (int i = initCount; i < itemCount; i++){
+            visitAssignStmt(tree.child(forStmt, i));
         }
     }
 
-    // 语句 Stmt → 'break' ';'
-    private void visitBreakStmt(BreakStmt breakStmt){
+    // 语句 Stmt → 'break' ';' | 'continue' ';'
+    @Override
+    public void visitBreakStmt(int stmt){
         if (loopDepth==0){
-            Error error = new Error("m",breakStmt.getLineNum());
-            ErrorList.addErrors(error);
+            Error error = new Error("m",tree.line(stmt));
+            errorList.addErrors(error);
         }
     }
 
-    // 语句 Stmt → 'continue' ';'
-    private void visitContinueStmt(ContinueStmt continueStmt){
-        if (loopDepth==0){
-            Error error = new Error("m", continueStmt.getLineNum());
-            ErrorList.addErrors(error);
-        }
+    @Override
+    public void visitContinueStmt(int stmt){
+        visitBreakStmt(stmt);
     }
 
     // 语句 Stmt → 'return' [Exp] ';'
-    private void visitReturnStmt(ReturnStmt returnStmt){
-        Exp exp=returnStmt.getExp();
-        int lineNum = returnStmt.getLineNum();
-        if(exp != null) visitExp(exp);
+    @Override
+    public void visitReturnStmt(int returnStmt){
+        int exp=tree.child(returnStmt, 0);
+        int lineNum = tree.line(returnStmt);
+        if(exp != NULL) visitExp(exp);
         if(currentReturnType == null) return;
 
         if(currentReturnType==SymbolType.VoidFunc){
-            if(exp!=null){
-                ErrorList.addErrors(new Error("f", lineNum));
+            if(exp!=NULL){
+                errorList.addErrors(new Error("f", lineNum));
             }
         } else if(currentReturnType==SymbolType.IntFunc){
-            if (exp!=null){
+            if (exp!=NULL){
                 returnWithValue=true;
             }
         }
     }
 
     // 语句 Stmt → 'printf''('StringConst {','Exp}')'';'
-    private void visitPrintfStmt(PrintfStmt printfStmt){
-        int lineNum = printfStmt.getLineNum();
-        String string = printfStmt.getString().getLexeme();
-        List<Exp> exps = printfStmt.getExps();
+    @Override
+    public void visitPrintfStmt(int printfStmt){
+        int lineNum = tree.line(printfStmt);
+        String string = tree.literal(printfStmt);
+        int expCount = tree.childCount(printfStmt);
 
         int n=0;
-        for(int i=0; i<string.length()-1; i++){
-            if (string.charAt(i)=='%' && string.charAt(i+1)=='d'){
-                n++;
+        if (string!=null) {
+            for(int i=0; i<string.length()-1; i++){
+                if (string.charAt(i)=='%' && string.charAt(i+1)=='d'){
+                    n++;
+                }
             }
         }
 
-        for (Exp exp: exps){
-            visitExp(exp);
+        for (int i = 0; i < expCount; i++){
+            visitExp(tree.child(printfStmt, i));
         }
 
-        if(n!=exps.size()){
-            ErrorList.addErrors(new Error("l",lineNum));
+        if(n!=expCount){
+            errorList.addErrors(new Error("l",lineNum));
         }
     }
 
-    // 语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp }
-    private void visitForStmtItem(ForStmtItem forStmtItem) {
-        LVal lVal=forStmtItem.getLVal();
-        Exp exp= forStmtItem.getExp();
-        visitLVal(lVal,true);
-        visitExp(exp);
+    /*
+        表达式 Exp → AddExp，结点为 BINARY_EXP / UNARY_EXP / CALL_EXP / LVAL / NUMBER
+        运算链是左结合的二叉树，沿左侧展开后从左到右访问各运算数，不按链长递归
+        展开的结点暂存在 chain 中，访问右运算数时嵌套的运算链接着往上放
+     */
+    private void visitExp(int exp){
+        tree.acceptExp(exp, this);
     }
 
-    // 表达式 Exp → AddExp
-    private void visitExp(Exp exp){
-        if (exp instanceof AddExp addExp){
-            visitAddExp(addExp);
+    @Override
+    public Void visitBinaryExp(int exp){
+        int base = chainTop;
+        int leftmost = exp;
+        while (tree.kind(leftmost) == NodeKind.BINARY_EXP){
+            if (chainTop == chain.length){
+                chain = Arrays.copyOf(chain, chainTop * 2);
+            }
+            chain[chainTop++] = leftmost;
+            leftmost = tree.child(leftmost, 0);
+        }
+        int top = chainTop;
+        visitExp(leftmost);
+        for (int i = top - 1; i >= base; i--){
+            visitExp(tree.child(chain[i], 1));
         }
+        chainTop = base;
+        return null;
     }
 
-    // 条件表达式 Cond → LOrExp
-    private void visitCond(Cond cond){
-        if(cond==null) return;
-        LOrExp lOrExp = cond.getlOrExp();
-        visitLOrEXP(lOrExp);
+    @Override
+    public Void visitUnaryExp(int exp){
+        int operand = exp;
+        while (tree.kind(operand) == NodeKind.UNARY_EXP){
+            operand = tree.child(operand, 0);
+        }
+        visitExp(operand);
+        return null;
+    }
+
+    @Override
+    public Void visitLVal(int lVal){
+        visitLVal(lVal, false);
+        return null;
+    }
+
+    @Override
+    public Void visitNumber(int number){
+        return null;
+    }
+
+    @Override
+    public Void visitMissingExp(int exp){
+        return null;
     }
 
     // 左值表达式 LVal → Ident ['[' Exp ']']
-    private void visitLVal(LVal lVal,boolean asLeft){
-        String name = lVal.getIdent().getLexeme();
-        int lineNum = lVal.getLineNum();
-        Symbol symbol = symbolManager.lookup(name);
+    private void visitLVal(int lVal,boolean asLeft){
+        int lineNum = tree.line(lVal);
+        Symbol symbol = symbolManager.lookup(tree.nameId(lVal));
+        tree.setSymbol(lVal, irSymbolOf(symbol));
         if (symbol==null) {
-            ErrorList.addErrors(new Error("c",lineNum));
+            errorList.addErrors(new Error("c",lineNum));
         } else {
             if (asLeft && symbol.isConst()){
-                ErrorList.addErrors(new Error("h",lineNum));
+                errorList.addErrors(new Error("h",lineNum));
             }
         }
 
-        if (lVal.getIndex() !=null){
-            visitExp(lVal.getIndex());
-        }
-    }
-
-    // 基本表达式 PrimaryExp → '(' Exp ')' | LVal | Number
-    private void visitPrimaryExp(PrimaryExp primaryExp){
-        Exp exp = primaryExp.getExp();
-        LVal lVal = primaryExp.getLVal();
-        Number number = primaryExp.getNumber();
-        if(exp!=null){
-            visitExp(exp);
-        } else if(lVal!=null){
-            visitLVal(lVal,false);
-        } else if(number!=null){
-            visitNumber(number);
+        int index = tree.child(lVal, 0);
+        if (index !=NULL){
+            visitExp(index);
         }
-
     }
 
-    // 数值 Number → IntConst
-    private void visitNumber(Number number) {
-
-    }
-
-    // 一元表达式 UnaryExp → PrimaryExp | Ident '(' [FuncRParams] ')' | UnaryOp UnaryExp
-    private void visitUnaryExp(UnaryExp unaryExp) {
-        PrimaryExp primaryExp = unaryExp.getPrimaryExp();
-        Token ident = unaryExp.getIdent();
+    // 函数调用 UnaryExp → Ident '(' [FuncRParams] ')'
+    // 函数实参表达式 FuncRParams → Exp { ',' Exp }
+    @Override
+    public Void visitCallExp(int callExp) {
+        int lineNum = tree.line(callExp);
+        int argCount = tree.childCount(callExp);
 
-        //PrimaryExp
-        if(primaryExp!=null) {
-            visitPrimaryExp(primaryExp);
-            return;
+        for (int i = 0; i < argCount; i++){
+            visitExp(tree.child(callExp, i));
         }
 
-        //Ident '(' [FuncRParams] ')'
-        if(ident!=null){
-            String name = ident.getLexeme();
-            int lineNum = ident.getLineNum();
-
-            FuncRParams funcRParams = unaryExp.getFuncRParams();
-            List<Exp> exps = new ArrayList<>();
-            if(funcRParams!=null){
-                exps = funcRParams.getExps();
-                visitFuncRParams(funcRParams);
-            }
-
-            Symbol symbol = symbolManager.lookup(name);
-            if(symbol==null || !symbol.isFunc()){
-                ErrorList.addErrors(new Error("c",lineNum));
-                return;
-            }
+        Symbol symbol = symbolManager.lookup(tree.nameId(callExp));
+        tree.setSymbol(callExp, symbol);
+        if(symbol==null || !symbol.isFunc()){
+            errorList.addErrors(new Error("c",lineNum));
+            return null;
+        }
 
-            List<SymbolType> paramTypes=symbol.getParamTypes();
-            if(paramTypes.size()!=exps.size()){
-                ErrorList.addErrors(new Error("d",lineNum));
-                return;
-            }
+        List<SymbolType> paramTypes=symbol.getParamTypes();
+        if(paramTypes.size()!=argCount){
+            errorList.addErrors(new Error("d",lineNum));
+            return null;
+        }
 
-            boolean mismatch=false;
-            for (int i=0; i<exps.size(); i++){
-                SymbolType expected = paramTypes.get(i);
-                Exp exp = exps.get(i);
-                if(typeMismatch(expected,exp)) {
-                    mismatch=true;
-                    break;
-                }
+        boolean mismatch=false;
+        for (int i=0; i<argCount; i++){
+            SymbolType expected = paramTypes.get(i);
+            if(typeMismatch(expected,tree.child(callExp, i))) {
+                mismatch=true;
+                break;
             }
-            if (mismatch){
-                ErrorList.addErrors(new Error("e",lineNum));
-            }
-
-            return;
         }
-
-        //UnaryOp UnaryExp
-        if(unaryExp.getUnaryExp()!=null){
-            visitUnaryExp(unaryExp.getUnaryExp());
+        if (mismatch){
+            errorList.addErrors(new Error("e",lineNum));
         }
+        return null;
     }
 
-    private boolean typeMismatch(SymbolType expected, Exp exp){
+    // 只有不带括号的 LVal 实参才算传数组，(a) 按普通表达式处理
+    private boolean typeMismatch(SymbolType expected, int exp){
         boolean expectedArr= (expected == SymbolType.IntArray);
-        LVal lVal = null;
-        if (exp instanceof LVal lv){
-            lVal = lv;
-        } else if(exp instanceof AddExp addExp){
-            if (addExp.getMulExps().size()==1 && addExp.getOperators().isEmpty()){
-                Exp exp1 = addExp.getMulExps().get(0);
-                if (exp1 instanceof MulExp mulExp){
-                    if(mulExp.getUnaryExps().size()==1 && mulExp.getOperators().isEmpty()){
-                        Exp e2 = mulExp.getUnaryExps().get(0);
-                        if (e2 instanceof UnaryExp unaryExp){
-                            if (unaryExp.getPrimaryExp()!=null && unaryExp.getIdent()==null && unaryExp.getUnaryExp()==null){
-                                PrimaryExp primaryExp = unaryExp.getPrimaryExp();
-                                if (primaryExp.getLVal()!=null && primaryExp.getExp()==null && primaryExp.getNumber()==null){
-                                    lVal=primaryExp.getLVal();
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
 
         boolean wholeArray = false;
         boolean constArray = false;
 
-        if(lVal!=null){
-            String name = lVal.getIdent().getLexeme();
-            Symbol symbol=symbolManager.lookup(name);
+        if(tree.kind(exp) == NodeKind.LVAL && !tree.has(exp, SyntaxTree.PARENTHESIZED)){
+            Symbol symbol=symbolManager.lookup(tree.nameId(exp));
 
             if (symbol==null)  return false;
 
-            if(symbol.isArray() && lVal.getIndex()==null) {
+            if(symbol.isArray() && tree.child(exp, 0)==NULL) {
                 wholeArray =true;
                 constArray = symbol.isConstArray();
             }
@@ -604,79 +674,4 @@ public class Visitor {
         }
     }
 
-    // 函数实参表达式 FuncRParams → Exp { ',' Exp }
-    private void visitFuncRParams(FuncRParams funcRParams){
-        if(funcRParams==null) return;
-        for(Exp exp: funcRParams.getExps()){
-            visitExp(exp);
-        }
-    }
-
-    // 乘除模表达式 MulExp → UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
-    private void visitMulExp(MulExp mulExp){
-        if(mulExp==null) return;
-        for(Exp unary:mulExp.getUnaryExps()){
-            if (unary instanceof UnaryExp unaryExp){
-                visitUnaryExp(unaryExp);
-            }
-        }
-    }
-
-    // 加减表达式 AddExp → MulExp | AddExp ('+' | '−') MulExp
-    private void visitAddExp(AddExp addExp){
-        if (addExp==null) return;
-        for (Exp mul : addExp.getMulExps()){
-            if(mul instanceof MulExp mulExp){
-                visitMulExp(mulExp);
-            }
-        }
-
-    }
-
-    //关系表达式 RelExp → AddExp | RelExp ('<' | '>' | '<=' | '>=') AddExp
-    private void visitRelExp(RelExp relExp){
-        if(relExp==null) return;
-        for(Exp add:relExp.getAddExps()){
-            if (add instanceof AddExp addExp){
-                visitAddExp(addExp);
-            }
-        }
-    }
-
-    //相等性表达式 EqExp → RelExp | EqExp ('==' | '!=') RelExp
-    private void visitEqExp(EqExp eqExp){
-        if (eqExp==null) return;
-        for (Exp rel: eqExp.getRelExps()){
-            if (rel instanceof  RelExp relExp){
-                visitRelExp(relExp);
-            }
-        }
-    }
-
-    //逻辑与表达式 LAndExp → EqExp | LAndExp '&&' EqExp
-    private void visitLAndExp(LAndExp lAndExp){
-        if (lAndExp==null) return;
-        for(Exp exp : lAndExp.getEqExps()){
-            if(exp instanceof EqExp eqExp){
-                visitEqExp(eqExp);
-            }
-        }
-    }
-
-    // 逻辑或表达式 LOrExp → LAndExp | LOrExp '||' LAndExp
-    private void visitLOrEXP(LOrExp lOrExp) {
-        if (lOrExp==null) return;
-        for(Exp exp : lOrExp.getLAndExps()){
-            if(exp instanceof LAndExp lAndExp){
-                visitLAndExp(lAndExp);
-            }
-        }
-    }
-
-    // 常量表达式 ConstExp → AddExp
-    private void visitConstExp(ConstExp constExp){
-        if (constExp==null) return;
-        visitAddExp(constExp.getAddExp());
-    }
-
 }
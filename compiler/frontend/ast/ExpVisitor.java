@@ -0,0 +1,20 @@
+package frontend.ast;
+
+/*
+    按表达式种类访问结点，由 SyntaxTree.acceptExp 分派并返回结果（IR 生成时为结果操作数）
+    参数为结点句柄；子结点由实现自己访问
+ */
+public interface ExpVisitor<R> {
+    R visitBinaryExp(int node);
+
+    R visitUnaryExp(int node);
+
+    R visitCallExp(int node);
+
+    R visitLVal(int node);
+
+    R visitNumber(int node);
+
+    // 错误恢复时缺少的表达式
+    R visitMissingExp(int node);
+}
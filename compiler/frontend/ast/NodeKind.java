@@ -0,0 +1,43 @@
+package frontend.ast;
+
+/*
+    语法树结点的种类，各种结点的 value 与子结点见 SyntaxTree
+ */
+public enum NodeKind {
+    COMP_UNIT,
+    CONST_DECL,
+    VAR_DECL,
+    CONST_DEF,
+    VAR_DEF,
+    CONST_INIT_VAL,
+    INIT_VAL,
+    FUNC_DEF,
+    MAIN_FUNC_DEF,
+    FUNC_F_PARAM,
+    BLOCK,
+    ASSIGN_STMT,
+    EXP_STMT,
+    IF_STMT,
+    FOR_STMT,
+    FOR_ITEM,
+    BREAK_STMT,
+    CONTINUE_STMT,
+    RETURN_STMT,
+    PRINTF_STMT,
+    BINARY_EXP,
+    UNARY_EXP,
+    CALL_EXP,
+    LVAL,
+    NUMBER,
+    MISSING_EXP;
+
+    private static final NodeKind[] KINDS = values();
+
+    static NodeKind of(int ordinal) {
+        return KINDS[ordinal];
+    }
+
+    public boolean isDecl() {
+        return this == CONST_DECL || this == VAR_DECL;
+    }
+}
@@ -0,0 +1,26 @@
+package frontend.ast;
+
+/*
+    按语句种类访问结点，由 SyntaxTree.acceptStmt 分派，NodeKind 上的 switch 只写在那里
+    参数为结点句柄；子结点按什么顺序、在什么作用域中访问由实现自己决定
+ */
+public interface StmtVisitor {
+    // ASSIGN_STMT，以及 for 中的 FOR_ITEM
+    void visitAssignStmt(int node);
+
+    void visitExpStmt(int node);
+
+    void visitBlock(int node);
+
+    void visitIfStmt(int node);
+
+    void visitForStmt(int node);
+
+    void visitBreakStmt(int node);
+
+    void visitContinueStmt(int node);
+
+    void visitReturnStmt(int node);
+
+    void visitPrintfStmt(int node);
+}
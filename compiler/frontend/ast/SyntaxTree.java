@@ -0,0 +1,269 @@
+package frontend.ast;
+
+import frontend.symbol.Symbol;
+import frontend.token.TokenType;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+    语法树：全部结点存放在几个基本类型数组中，结点用下标（句柄）表示，不为每个结点建对象
+        kind    结点种类 NodeKind
+        line    行号
+        value   随种类而定，见下表
+        flags   STATIC / ARRAY / INT / PARENTHESIZED
+        子结点  在 children 中连续存放，记录起始位置与个数
+    结点在分析完成时才分配（后序），子结点的句柄总是小于父结点；可省略的子结点占一个位置，值为 NULL
+
+        种类             value                 子结点
+        COMP_UNIT        -                     {CONST_DECL | VAR_DECL} {FUNC_DEF} MAIN_FUNC_DEF
+        CONST_DECL       -                     {CONST_DEF}
+        VAR_DECL         -                     {VAR_DEF}                        flags: STATIC
+        CONST_DEF        标识符编号            数组长度, CONST_INIT_VAL          数组长度可为 NULL
+        VAR_DEF          标识符编号            数组长度, INIT_VAL                均可为 NULL
+        CONST_INIT_VAL   -                     {Exp}
+        INIT_VAL         -                     {Exp}
+        FUNC_DEF         标识符编号            {FUNC_F_PARAM} BLOCK              flags: INT
+        MAIN_FUNC_DEF    -                     BLOCK                             缺少 '(' 时为 NULL
+        FUNC_F_PARAM     标识符编号            -                                 flags: ARRAY
+        BLOCK            '}' 所在行            {Decl | Stmt}
+        ASSIGN_STMT      -                     LVAL, Exp
+        EXP_STMT         -                     Exp                               可为 NULL
+        IF_STMT          -                     Cond, Stmt, Stmt                  else 可为 NULL
+        FOR_STMT         初始化 FOR_ITEM 个数  {FOR_ITEM} {FOR_ITEM} Cond, Stmt  先初始化后更新；Cond 可为 NULL
+        FOR_ITEM         -                     LVAL, Exp
+        BREAK_STMT       -                     -
+        CONTINUE_STMT    -                     -
+        RETURN_STMT      -                     Exp                               可为 NULL
+        PRINTF_STMT      字符串常量编号        {Exp}                             缺少字符串时 value 为 -1
+        BINARY_EXP       运算符 TokenType      左运算数, 右运算数
+        UNARY_EXP        运算符 TokenType      运算数
+        CALL_EXP         标识符编号            {Exp}
+        LVAL             标识符编号            下标                              可为 NULL
+        NUMBER           字面量编号            -
+        MISSING_EXP      -                     -                                 错误恢复时缺少的表达式
+    Block 作为语句直接出现在语句的位置；Cond 与 ConstExp 就是其中的表达式结点
+    标识符编号为 NameTable 中的编号，缺少标识符时为 -1；字面量（整数与字符串常量的词素）存放在 literals 中
+    语义分析把标识符解析到的 Symbol 记在结点上（定义、形参、LVAL、CALL_EXP），IR 生成直接读取，不再查符号表
+    语句与表达式按种类分派见 acceptStmt / acceptExp，访问方实现 StmtVisitor / ExpVisitor
+ */
+public class SyntaxTree {
+    public static final int NULL = -1;
+
+    public static final int STATIC = 1;
+    public static final int ARRAY = 2;
+    public static final int INT = 4;
+    public static final int PARENTHESIZED = 8;
+
+    private static final TokenType[] TOKEN_TYPES = TokenType.values();
+
+    private byte[] kinds = new byte[256];
+    private byte[] flags = new byte[256];
+    private int[] lines = new int[256];
+    private int[] values = new int[256];
+    private int[] firsts = new int[256];
+    private int[] counts = new int[256];
+    private int size = 0;
+
+    private int[] children = new int[256];
+    private int childSize = 0;
+
+    // 分析过程中尚未归入父结点的子结点
+    private int[] stack = new int[64];
+    private int top = 0;
+
+    private final List<String> literals = new ArrayList<>();
+    // 语义分析写入，按结点句柄下标；每次语义分析开始时由 resetSymbols 分配
+    private Symbol[] symbols;
+    private int root = NULL;
+
+    // ================== 建树 ==================
+    // 之后压入的子结点属于下一个以此为起点建成的结点
+    public int mark() {
+        return top;
+    }
+
+    public void push(int node) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+        }
+        stack[top++] = node;
+    }
+
+    // 以 mark 之后压入的结点为子结点建成一个结点，返回其句柄
+    public int add(NodeKind kind, int line, int value, int flag, int mark) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            values = Arrays.copyOf(values, capacity);
+            firsts = Arrays.copyOf(firsts, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+        int count = top - mark;
+        if (childSize + count > children.length) {
+            children = Arrays.copyOf(children, Math.max(children.length * 2, childSize + count));
+        }
+        System.arraycopy(stack, mark, children, childSize, count);
+        top = mark;
+
+        int node = size++;
+        kinds[node] = (byte) kind.ordinal();
+        flags[node] = (byte) flag;
+        lines[node] = line;
+        values[node] = value;
+        firsts[node] = childSize;
+        counts[node] = count;
+        childSize += count;
+        return node;
+    }
+
+    public int leaf(NodeKind kind, int line, int value, int flag) {
+        return add(kind, line, value, flag, top);
+    }
+
+    public void setFlag(int node, int flag) {
+        flags[node] |= (byte) flag;
+    }
+
+    public int addLiteral(String text) {
+        literals.add(text);
+        return literals.size() - 1;
+    }
+
+    public void setRoot(int root) {
+        this.root = root;
+    }
+
+    // ================== 访问 ==================
+    public int getRoot() {
+        return root;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public NodeKind kind(int node) {
+        return NodeKind.of(kinds[node]);
+    }
+
+    public int line(int node) {
+        return lines[node];
+    }
+
+    public int value(int node) {
+        return values[node];
+    }
+
+    public boolean has(int node, int flag) {
+        return (flags[node] & flag) != 0;
+    }
+
+    public int childCount(int node) {
+        return counts[node];
+    }
+
+    public int child(int node, int index) {
+        return children[firsts[node] + index];
+    }
+
+    // 标识符编号（CONST_DEF / VAR_DEF / FUNC_DEF / FUNC_F_PARAM / CALL_EXP / LVAL）
+    public int nameId(int node) {
+        return values[node];
+    }
+
+    // 运算符（BINARY_EXP / UNARY_EXP）
+    public TokenType operator(int node) {
+        return TOKEN_TYPES[values[node]];
+    }
+
+    // 整数或字符串常量的词素（NUMBER / PRINTF_STMT），缺少时为 null
+    public String literal(int node) {
+        int index = values[node];
+        return index < 0 ? null : literals.get(index);
+    }
+
+    // 整数常量的值，与原先一样在使用时才解析
+    public int number(int node) {
+        return Integer.parseInt(literals.get(values[node]));
+    }
+
+    // 并行分析各函数时各线程写入不同的结点，数组须在分出线程之前分配好
+    public void resetSymbols() {
+        symbols = new Symbol[size];
+    }
+
+    public void setSymbol(int node, Symbol symbol) {
+        if (symbols == null) {
+            resetSymbols();
+        }
+        symbols[node] = symbol;
+    }
+
+    // 解析到的符号，未解析（未定义、出错）时为 null
+    public Symbol symbol(int node) {
+        return symbols == null ? null : symbols[node];
+    }
+
+    // 按语句种类调用 visitor 中对应的方法；NULL 与不是语句的结点（如 Block 中的声明）不访问
+    public void acceptStmt(int node, StmtVisitor visitor) {
+        if (node == NULL) return;
+        switch (kind(node)) {
+            case ASSIGN_STMT, FOR_ITEM -> visitor.visitAssignStmt(node);
+            case EXP_STMT -> visitor.visitExpStmt(node);
+            case BLOCK -> visitor.visitBlock(node);
+            case IF_STMT -> visitor.visitIfStmt(node);
+            case FOR_STMT -> visitor.visitForStmt(node);
+            case BREAK_STMT -> visitor.visitBreakStmt(node);
+            case CONTINUE_STMT -> visitor.visitContinueStmt(node);
+            case RETURN_STMT -> visitor.visitReturnStmt(node);
+            case PRINTF_STMT -> visitor.visitPrintfStmt(node);
+            default -> {}
+        }
+    }
+
+    // 按表达式种类调用 visitor 中对应的方法并返回其结果；NULL 返回 null
+    public <R> R acceptExp(int node, ExpVisitor<R> visitor) {
+        if (node == NULL) return null;
+        return switch (kind(node)) {
+            case BINARY_EXP -> visitor.visitBinaryExp(node);
+            case UNARY_EXP -> visitor.visitUnaryExp(node);
+            case CALL_EXP -> visitor.visitCallExp(node);
+            case LVAL -> visitor.visitLVal(node);
+            case NUMBER -> visitor.visitNumber(node);
+            case MISSING_EXP -> visitor.visitMissingExp(node);
+            default -> throw new IllegalStateException("Bad Exp: " + kind(node));
+        };
+    }
+
+    // 以 node 为根的子树中 kind 结点的个数，用显式栈遍历
+    public int count(int node, NodeKind kind) {
+        int[] pending = new int[16];
+        int n = 0;
+        int result = 0;
+        pending[n++] = node;
+        while (n > 0) {
+            int cur = pending[--n];
+            if (cur == NULL) continue;
+            if (kinds[cur] == kind.ordinal()) result++;
+            int count = counts[cur];
+            if (n + count > pending.length) {
+                pending = Arrays.copyOf(pending, Math.max(pending.length * 2, n + count));
+            }
+            System.arraycopy(children, firsts[cur], pending, n, count);
+            n += count;
+        }
+        return result;
+    }
+
+    public boolean isArray(int node) {
+        NodeKind kind = kind(node);
+        if (kind == NodeKind.CONST_DEF || kind == NodeKind.VAR_DEF) {
+            return child(node, 0) != NULL;
+        }
+        return has(node, ARRAY);
+    }
+}
@@ -1,9 +0,0 @@
-package frontend.ast.exp;
-
-import frontend.ast.ASTNode;
-
-public class Exp extends ASTNode {
-    protected Exp(int lineNum){
-        super(lineNum);
-    }
-}
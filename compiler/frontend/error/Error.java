@@ -1,30 +1,84 @@
 package frontend.error;
 
+/*
+    一条诊断：行号、列号、错误类别码与说明
+    类别码即 error.txt 中的字母 a ~ m，由它决定所属阶段（词法/语法/语义）与缺省说明
+    列号从 1 开始按字节计，0 表示未知（语法与语义错误只记录行号）
+ */
 public class Error {
-    String errorType;
-    Integer lineNum;
+    public static final int LEXICAL = 0;
+    public static final int SYNTAX = 1;
+    public static final int SEMANTIC = 2;
 
-    public Error(String errorType, Integer lineNum) {
+    private final String errorType;
+    private final int lineNum;
+    private final int column;
+    private final String message;
+
+    public Error(String errorType, int lineNum) {
+        this(errorType, lineNum, 0);
+    }
+
+    public Error(String errorType, int lineNum, int column) {
+        this(errorType, lineNum, column, describe(errorType));
+    }
+
+    public Error(String errorType, int lineNum, int column, String message) {
         this.errorType = errorType;
         this.lineNum = lineNum;
+        this.column = column;
+        this.message = message;
     }
 
     public String getErrorType() {
         return errorType;
     }
 
-    public void setErrorType(String errorType) {
-        this.errorType = errorType;
+    public int getLineNum() {
+        return lineNum;
     }
 
-    public Integer getLineNum() {
-        return lineNum;
+    public int getColumn() {
+        return column;
     }
 
-    public void setLineNum(Integer lineNum) {
-        this.lineNum = lineNum;
+    public String getMessage() {
+        return message;
+    }
+
+    // 同一行上的错误按阶段排列：词法、语法、语义
+    public int getPhase() {
+        return phaseOf(errorType);
+    }
+
+    public static int phaseOf(String errorType) {
+        return switch (errorType) {
+            case "a" -> LEXICAL;
+            case "i", "j", "k" -> SYNTAX;
+            default -> SEMANTIC;
+        };
+    }
+
+    public static String describe(String errorType) {
+        return switch (errorType) {
+            case "a" -> "非法符号";
+            case "b" -> "名字重定义";
+            case "c" -> "未定义的名字";
+            case "d" -> "函数参数个数不匹配";
+            case "e" -> "函数参数类型不匹配";
+            case "f" -> "无返回值的函数存在不匹配的 return 语句";
+            case "g" -> "有返回值的函数缺少 return 语句";
+            case "h" -> "不能改变常量的值";
+            case "i" -> "缺少分号";
+            case "j" -> "缺少右小括号 ')'";
+            case "k" -> "缺少右中括号 ']'";
+            case "l" -> "printf 中格式字符与表达式个数不匹配";
+            case "m" -> "在非循环块中使用 break 或 continue";
+            default -> "";
+        };
     }
 
+    // error.txt 中的一行
     @Override
     public String toString() {
         return lineNum + " " + errorType;
@@ -1,27 +1,77 @@
 package frontend.error;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/*
+    每次编译各自持有一个 ErrorList，多个编译可以在同一进程中并发进行
+    诊断按加入顺序保存，输出时按 (行号, 阶段, 加入顺序) 排序：三者拼成一个 long 键，直接对 long 数组排序
+    同一行只保留排在最前的一条，最多输出 maxErrors 条
+ */
 public class ErrorList {
-    private static final List<String> errors = new ArrayList<>();
+    private Error[] errors = new Error[16];
+    private int size = 0;
+    private int maxErrors = Integer.MAX_VALUE;
 
-    public static void addErrors(Error error){
-        String sError = error.toString();
-        errors.add(sError);
+    public void addErrors(Error error){
+        if (size == errors.length) {
+            errors = Arrays.copyOf(errors, size * 2);
+        }
+        errors[size++] = error;
     }
 
-    public static List<String> getErrors() {
-        errors.sort((a,b) -> {
-            int la = Integer.parseInt(a.split("\\s+")[0]);
-            int lb = Integer.parseInt(b.split("\\s+")[0]);
-            return Integer.compare(la, lb);
-        });
-        return errors;
+    // 追加另一个 ErrorList 中的错误，保持其原有顺序
+    public void addAll(ErrorList other){
+        for (int i = 0; i < other.size; i++) {
+            addErrors(other.errors[i]);
+        }
     }
 
-    public static void clear(){
-        errors.clear();
+    public void setMaxErrors(int maxErrors) {
+        this.maxErrors = maxErrors;
+    }
+
+    // 排序、按行去重并截断后的诊断
+    public List<Error> getDiagnostics() {
+        long[] keys = new long[size];
+        for (int i = 0; i < size; i++) {
+            Error error = errors[i];
+            keys[i] = (long) error.getLineNum() << 34 | (long) error.getPhase() << 32 | i;
+        }
+        Arrays.sort(keys);
+        List<Error> result = new ArrayList<>();
+        long lastLine = Long.MIN_VALUE;
+        for (int i = 0; i < size && result.size() < maxErrors; i++) {
+            long line = keys[i] >> 34;
+            if (line == lastLine) continue;
+            lastLine = line;
+            result.add(errors[(int) keys[i]]);
+        }
+        return result;
+    }
+
+    // error.txt 的各行
+    public List<String> getErrors() {
+        List<Error> diagnostics = getDiagnostics();
+        List<String> lines = new ArrayList<>(diagnostics.size());
+        for (Error error : diagnostics) {
+            lines.add(error.toString());
+        }
+        return lines;
+    }
+
+    public int size(){
+        return size;
+    }
+
+    public boolean isEmpty(){
+        return size == 0;
+    }
+
+    public void clear(){
+        Arrays.fill(errors, 0, size, null);
+        size = 0;
     }
 
 }
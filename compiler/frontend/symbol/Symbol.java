@@ -1,18 +1,29 @@
 package frontend.symbol;
 
+import midend.ir.Operand;
+
 import java.util.List;
 
 public class Symbol {
     private final String name;
+    // 名字在 NameTable 中的编号，符号表按编号查找
+    private final int nameId;
     private final SymbolType type;
     private final int scopeId;
     private final int lineNum;
     private final boolean isParam;
     private final Integer array;
     private final List<SymbolType> paramTypes;
-
-    private Symbol(String name, SymbolType type, int scopeId, int lineNum, boolean isParam, Integer arrayLen, List<SymbolType> paramTypes) {
+    // IR 中的操作数（g_x / pN_x / sN_x / vN_x），由 Visitor 在定义时设置；函数没有
+    private Operand irOperand;
+    // 同名的外层定义，本定义所在的作用域退出时由 SymbolManager 恢复为可见
+    private Symbol shadowed;
+    // 在所属 SymbolManager 中的定义序号，并行分析时用来判断全局符号是否已经定义
+    private int order;
+
+    private Symbol(String name, int nameId, SymbolType type, int scopeId, int lineNum, boolean isParam, Integer arrayLen, List<SymbolType> paramTypes) {
         this.name = name;
+        this.nameId = nameId;
         this.type = type;
         this.scopeId = scopeId;
         this.lineNum = lineNum;
@@ -26,24 +37,52 @@ public class Symbol {
     }
 
     // 变量
-    public Symbol(String name, SymbolType type, int scopeId, int lineNum) {
-        this(name, type, scopeId, lineNum, false, null,List.of());
+    public Symbol(String name, int nameId, SymbolType type, int scopeId, int lineNum) {
+        this(name, nameId, type, scopeId, lineNum, false, null,List.of());
     }
 
     // 形参
-    public Symbol(String name, SymbolType type, int scopeId, int lineNum, boolean isParam) {
-        this(name, type, scopeId, lineNum, isParam, null,List.of());
+    public Symbol(String name, int nameId, SymbolType type, int scopeId, int lineNum, boolean isParam) {
+        this(name, nameId, type, scopeId, lineNum, isParam, null,List.of());
     }
 
     // 函数
-    public Symbol(String name, SymbolType type, int scopeId, int lineNum, List<SymbolType> paramTypes) {
-        this(name, type, scopeId, lineNum, false, null,paramTypes);
+    public Symbol(String name, int nameId, SymbolType type, int scopeId, int lineNum, List<SymbolType> paramTypes) {
+        this(name, nameId, type, scopeId, lineNum, false, null,paramTypes);
     }
 
     public String getName() {
         return name;
     }
 
+    public int getNameId() {
+        return nameId;
+    }
+
+    public Operand getIrOperand() {
+        return irOperand;
+    }
+
+    public void setIrOperand(Operand irOperand) {
+        this.irOperand = irOperand;
+    }
+
+    public Symbol getShadowed() {
+        return shadowed;
+    }
+
+    void setShadowed(Symbol shadowed) {
+        this.shadowed = shadowed;
+    }
+
+    int getOrder() {
+        return order;
+    }
+
+    void setOrder(int order) {
+        this.order = order;
+    }
+
     public SymbolType getType() {
         return type;
     }
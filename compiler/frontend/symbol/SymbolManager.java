@@ -1,24 +1,104 @@
 package frontend.symbol;
 
+import frontend.token.NameTable;
+
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
+/*
+    作用域栈式符号表（scoped hash table）：
+        visible[名字编号] 是当前可见的最内层定义，被它遮蔽的外层定义挂在 Symbol.shadowed 上
+        每次定义记入撤销日志，退出作用域时按日志逆序把被遮蔽的定义恢复回来
+    查找只读一次数组，与嵌套深度无关；解析结果由 Visitor 记在语法树上，作用域退出之后不再需要按作用域查找
+    symbol.txt 按作用域编号、同一作用域内按定义顺序输出
+
+    并行分析各函数时，每个函数用 fork 出的 SymbolManager：
+        函数内的定义只进入自己的表，作用域编号从预先算好的 scopeBase 开始，与顺序分析时相同
+        自己的表中没有的名字到父表（全局作用域）中找，只认 fork 之前定义的符号，即只能看到此前的函数
+        全部函数分析完后按源程序顺序 absorb，合并符号与作用域
+ */
 public class SymbolManager {
-    private final List<SymbolTable> allSymbolTables = new ArrayList<>();
+    private final NameTable names;
+    // fork 出的表：parent 为全局表，只看 parent 中定义序号小于 limit 的符号；第一层作用域在合并时才挂到全局作用域上
+    private final SymbolManager parent;
+    private final int limit;
+    private final List<SymbolTable> roots = new ArrayList<>();
     private SymbolTable global;
     private SymbolTable current;
     private int nextId = 1;
 
+    private Symbol[] visible = new Symbol[64];
+    private Symbol[] undoLog = new Symbol[64];
+    private int undoSize = 0;
+    private int[] scopeMarks = new int[16];
+    private int depth = 0;
+
+    // 全部符号，按定义顺序
+    private final List<Symbol> symbols = new ArrayList<>();
+
     public SymbolManager(){
+        this(new NameTable());
+    }
+
+    // names 与 Lexer 使用同一张表，token 上的标识符编号才能直接用于查找
+    public SymbolManager(NameTable names){
+        this.names = names;
+        this.parent = null;
+        this.limit = 0;
         reset();
     }
 
+    private SymbolManager(SymbolManager parent, int scopeBase){
+        this.names = parent.names;
+        this.parent = parent;
+        this.limit = parent.symbols.size();
+        this.global = parent.global;
+        this.current = parent.global;
+        this.nextId = scopeBase;
+    }
+
+    /*
+        在全局作用域之下分析一个函数用的表，作用域从 scopeBase 开始编号
+        fork 之后父表不能再定义新的符号，直到全部 fork 出的表合并完
+     */
+    public SymbolManager fork(int scopeBase){
+        return new SymbolManager(this, scopeBase);
+    }
+
+    // 合并一个 fork 出的表：按调用顺序追加其符号，把其作用域挂到全局作用域下
+    public void absorb(SymbolManager fork){
+        if (fork.parent != this || fork.current != global){
+            throw new IllegalStateException("absorb: not a finished fork of this table");
+        }
+        for (Symbol symbol : fork.symbols){
+            symbol.setOrder(symbols.size());
+            symbols.add(symbol);
+        }
+        for (SymbolTable root : fork.roots){
+            global.addSon(root);
+        }
+        nextId = Math.max(nextId, fork.nextId);
+    }
+
+    // 下一个作用域的编号
+    public int getNextScopeId() {
+        return nextId;
+    }
+
+    public NameTable getNames() {
+        return names;
+    }
+
     public void reset(){
-        allSymbolTables.clear();
+        Arrays.fill(visible, null);
+        Arrays.fill(undoLog, 0, undoSize, null);
+        undoSize = 0;
+        depth = 0;
+        symbols.clear();
         nextId=1;
         global = new SymbolTable(nextId++,null);
         current = global;
-        allSymbolTables.add(global);
     }
 
     public SymbolTable getGlobalScope() {
@@ -30,45 +110,88 @@ public class SymbolManager {
     }
 
     public void pushScope(){
+        if (depth == scopeMarks.length){
+            scopeMarks = Arrays.copyOf(scopeMarks, depth*2);
+        }
+        scopeMarks[depth++] = undoSize;
         SymbolTable child = new SymbolTable(nextId++, current);
-        allSymbolTables.add(child);
-        current.getSon().add(child);
+        if (parent != null && current == global){
+            roots.add(child);
+        } else {
+            current.addSon(child);
+        }
         current = child;
     }
 
     public void popScope(){
-        if (current.getFather() != null){
-            current = current.getFather();
+        if (current.getFather() == null){
+            return;
+        }
+        int mark = scopeMarks[--depth];
+        while (undoSize > mark){
+            Symbol symbol = undoLog[--undoSize];
+            undoLog[undoSize] = null;
+            visible[symbol.getNameId()] = symbol.getShadowed();
         }
+        current = current.getFather();
     }
 
+    /*
+        symbol 的作用域编号须为当前作用域；同一作用域中重名时返回 false
+        语法错误中缺了标识符时名字编号为 -1：只记下符号用于输出，不可见、也不进撤销日志，popScope 不会碰到它
+     */
     public boolean define(Symbol symbol){
-        return  current.define(symbol);
+        int nameId = symbol.getNameId();
+        if (nameId < 0){
+            symbol.setOrder(symbols.size());
+            symbols.add(symbol);
+            return true;
+        }
+        if (nameId >= visible.length){
+            visible = Arrays.copyOf(visible, Math.max(visible.length*2, nameId+1));
+        }
+        Symbol outer = lookup(nameId);
+        if (outer != null && outer.getScopeId() == current.getId()){
+            return false;
+        }
+        symbol.setShadowed(outer);
+        symbol.setOrder(symbols.size());
+        visible[nameId] = symbol;
+        if (current != global){
+            if (undoSize == undoLog.length){
+                undoLog = Arrays.copyOf(undoLog, undoSize*2);
+            }
+            undoLog[undoSize++] = symbol;
+        }
+        symbols.add(symbol);
+        return true;
     }
 
-    public Symbol lookup(String name){
-        SymbolTable symbolTable = current;
-        while (symbolTable!=null){
-            Symbol symbol = symbolTable.lookupLocal(name);
-            if (symbol!=null){
-                return symbol;
+    public Symbol lookup(int nameId){
+        Symbol symbol = nameId >= 0 && nameId < visible.length ? visible[nameId] : null;
+        if (symbol == null && parent != null){
+            symbol = parent.lookup(nameId);
+            while (symbol != null && symbol.getOrder() >= limit){
+                symbol = symbol.getShadowed();
             }
-            symbolTable = symbolTable.getFather();
         }
-        return null;
+        return symbol;
     }
 
+    // 按作用域编号计数排序，同一作用域内保持定义顺序
     public List<Symbol> getAllSymbols() {
-        List<Symbol> result = new ArrayList<>();
-        traverse(global,result);
-        return result;
-    }
-
-    private void traverse(SymbolTable global, List<Symbol> result){
-        result.addAll(global.getSymbols());
-        for(SymbolTable son: global.getSon()){
-            traverse(son,result);
+        int[] start = new int[nextId+1];
+        for (Symbol symbol : symbols){
+            start[symbol.getScopeId()+1]++;
+        }
+        for (int i = 1; i <= nextId; i++){
+            start[i] += start[i-1];
+        }
+        Symbol[] sorted = new Symbol[symbols.size()];
+        for (Symbol symbol : symbols){
+            sorted[start[symbol.getScopeId()]++] = symbol;
         }
+        return Arrays.asList(sorted);
     }
 
 }
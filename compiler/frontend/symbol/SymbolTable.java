@@ -1,18 +1,32 @@
 package frontend.symbol;
 
-import java.util.*;
-
+/*
+    一个作用域：编号、外层作用域与子作用域
+    子作用域按创建顺序用 firstSon / nextSibling 串成链表
+    作用域中的符号不在这里保存，由 SymbolManager 统一按名字编号管理
+ */
 public class SymbolTable {
     private final int id;
     private final SymbolTable father;
-    private final List<SymbolTable> son =new ArrayList<>();
-    private final Map<String,Symbol> symbols = new LinkedHashMap<>();
+    private SymbolTable firstSon;
+    private SymbolTable lastSon;
+    private SymbolTable nextSibling;
 
     public SymbolTable(int id, SymbolTable father) {
         this.id = id;
         this.father = father;
     }
 
+    // 由 SymbolManager 在子作用域创建（或并行分析合并）时按顺序挂上
+    void addSon(SymbolTable son) {
+        if (lastSon == null) {
+            firstSon = son;
+        } else {
+            lastSon.nextSibling = son;
+        }
+        lastSon = son;
+    }
+
     public int getId() {
         return id;
     }
@@ -21,24 +35,11 @@ public class SymbolTable {
         return father;
     }
 
-    public List<SymbolTable> getSon() {
-        return son;
-    }
-
-    public Collection<Symbol> getSymbols() {
-        return symbols.values();
-    }
-
-    public boolean define(Symbol symbol) {
-        String name = symbol.getName();
-        if(symbols.containsKey(name)){
-            return false;
-        }
-        symbols.put(name,symbol);
-        return true;
+    public SymbolTable getFirstSon() {
+        return firstSon;
     }
 
-    public Symbol lookupLocal(String name){
-        return symbols.get(name);
+    public SymbolTable getNextSibling() {
+        return nextSibling;
     }
 }
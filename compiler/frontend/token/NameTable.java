@@ -0,0 +1,106 @@
+package frontend.token;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/*
+    一次编译共用的标识符表：每个不同的标识符在词法分析时分配一个从 0 开始的连续编号
+    直接按源码字节（起始位置、长度）查找，已出现过的标识符不再解码、不再新建 String
+    符号表与 IR 命名都按编号访问；编号 -1 表示没有名字（语法错误恢复时缺少的标识符）
+    intern(String) 用于内建函数等不在源码中的名字，按 UTF-8 编码比较，只应传入 ASCII 名字
+ */
+public class NameTable {
+    // 开放定址哈希表，槽中存 编号+1，0 表示空槽
+    private int[] slots = new int[256];
+    private int[] hashes = new int[128];
+    private int[] offsets = new int[128];
+    private int[] lengths = new int[128];
+    private String[] names = new String[128];
+    // 全部标识符的字节依次存放在 pool 中
+    private byte[] pool = new byte[1024];
+    private int poolSize = 0;
+    private int size = 0;
+
+    public int intern(SourceText source, int start, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = hash * 31 + source.byteAt(start + i);
+        }
+        int mask = slots.length - 1;
+        for (int slot = mix(hash) & mask; ; slot = (slot + 1) & mask) {
+            int id = slots[slot] - 1;
+            if (id < 0) {
+                return add(slot, hash, source, start, length);
+            }
+            if (hashes[id] == hash && matches(id, source, start, length)) {
+                return id;
+            }
+        }
+    }
+
+    public int intern(String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        return intern(SourceText.of(bytes, StandardCharsets.UTF_8), 0, bytes.length);
+    }
+
+    public String getName(int id) {
+        return id < 0 ? null : names[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private static int mix(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private boolean matches(int id, SourceText source, int start, int length) {
+        if (lengths[id] != length) return false;
+        int offset = offsets[id];
+        for (int i = 0; i < length; i++) {
+            if ((pool[offset + i] & 0xff) != source.byteAt(start + i)) return false;
+        }
+        return true;
+    }
+
+    private int add(int slot, int hash, SourceText source, int start, int length) {
+        int id = size++;
+        if (id == names.length) {
+            int capacity = id * 2;
+            hashes = Arrays.copyOf(hashes, capacity);
+            offsets = Arrays.copyOf(offsets, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            names = Arrays.copyOf(names, capacity);
+        }
+        if (poolSize + length > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, poolSize + length));
+        }
+        for (int i = 0; i < length; i++) {
+            pool[poolSize + i] = (byte) source.byteAt(start + i);
+        }
+        hashes[id] = hash;
+        offsets[id] = poolSize;
+        lengths[id] = length;
+        names[id] = source.decode(start, length);
+        poolSize += length;
+        slots[slot] = id + 1;
+        // 装载因子不超过 1/2
+        if (size * 2 > slots.length) {
+            rehash();
+        }
+        return id;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        int mask = slots.length - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = mix(hashes[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+}
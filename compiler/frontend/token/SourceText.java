@@ -0,0 +1,85 @@
+package frontend.token;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+    词法分析用的源码字节：UTF-8 或 ISO-8859-1 编码，ASCII 字符各占一个字节
+    文件输入直接内存映射（FileChannel.map），不解码、不复制；只有取词素时才解码对应的字节
+    其他字符集的文件先按该字符集解码，再转成 UTF-8
+    byteAt 越过末尾时返回 0，相当于原先在源码后追加的 "\0\0"
+ */
+public final class SourceText {
+    private final ByteBuffer bytes;
+    private final int length;
+    private final boolean latin1;
+
+    private SourceText(ByteBuffer bytes, boolean latin1) {
+        this.bytes = bytes;
+        this.length = bytes.limit();
+        this.latin1 = latin1;
+    }
+
+    public static SourceText of(String source) {
+        return new SourceText(ByteBuffer.wrap(source.getBytes(StandardCharsets.UTF_8)), false);
+    }
+
+    public static SourceText of(byte[] source, Charset charset) {
+        if (isAsciiCompatible(charset)) {
+            return new SourceText(ByteBuffer.wrap(source), charset.equals(StandardCharsets.ISO_8859_1));
+        }
+        return of(new String(source, charset));
+    }
+
+    public static SourceText map(Path path, Charset charset) throws IOException {
+        if (!isAsciiCompatible(charset)) {
+            return of(Files.readString(path, charset));
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return new SourceText(mapped, charset.equals(StandardCharsets.ISO_8859_1));
+        }
+    }
+
+    // 多字节字符的每个字节都不在 ASCII 范围内，可以直接按字节扫描
+    private static boolean isAsciiCompatible(Charset charset) {
+        return charset.equals(StandardCharsets.UTF_8) || charset.equals(StandardCharsets.US_ASCII)
+                || charset.equals(StandardCharsets.ISO_8859_1);
+    }
+
+    public int length() {
+        return length;
+    }
+
+    public boolean isLatin1() {
+        return latin1;
+    }
+
+    public int byteAt(int index) {
+        return index < length ? bytes.get(index) & 0xff : 0;
+    }
+
+    public String decode(int start, int count) {
+        int end = start + count;
+        int inside = Math.min(end, length) - start;
+        String text;
+        if (inside <= 0) {
+            text = "";
+        } else if (bytes.hasArray()) {
+            text = new String(bytes.array(), bytes.arrayOffset() + start, inside,
+                    latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        } else {
+            byte[] buffer = new byte[inside];
+            bytes.get(start, buffer);
+            text = new String(buffer, latin1 ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+        }
+        // 未闭合的字符串常量会一直读到末尾的两个 '\0'
+        return end > length ? text + "\0".repeat(end - Math.max(start, length)) : text;
+    }
+}
@@ -4,11 +4,18 @@ public class Token {
     private final String lexeme;
     private final TokenType tokenType;
     private final int lineNum;
+    // 标识符在 NameTable 中的编号，其他 token 为 -1
+    private final int nameId;
 
     public Token(String lexeme, TokenType tokenType, int lineNum) {
+        this(lexeme, tokenType, lineNum, -1);
+    }
+
+    public Token(String lexeme, TokenType tokenType, int lineNum, int nameId) {
         this.lexeme = lexeme;
         this.tokenType = tokenType;
         this.lineNum = lineNum;
+        this.nameId = nameId;
     }
 
     public String getLexeme() {
@@ -22,4 +29,8 @@ public class Token {
     public int getLineNum() {
         return lineNum;
     }
+
+    public int getNameId() {
+        return nameId;
+    }
 }
@@ -0,0 +1,113 @@
+package frontend.token;
+
+import java.util.Arrays;
+
+/*
+    紧凑的 token 流：按下标存放种类、起始位置、长度、行号与标识符编号，共享词法分析用的源码（SourceText）
+    词素在需要时才从源码中取出；关键字与运算符直接使用 TokenType 中的固定写法，标识符使用 NameTable 中的 String
+    最后一个 token 总是 EOF
+ */
+public class TokenBuffer implements TokenSource, TokenSink {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final SourceText source;
+    private final NameTable names;
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] values;
+    private int size = 0;
+
+    public TokenBuffer(SourceText source, NameTable names, int capacity) {
+        this.source = source;
+        this.names = names;
+        capacity = Math.max(capacity, 16);
+        kinds = new int[capacity];
+        starts = new int[capacity];
+        lengths = new int[capacity];
+        lines = new int[capacity];
+        values = new int[capacity];
+    }
+
+    @Override
+    public void add(TokenType type, int start, int length, int line, int value) {
+        if (size == kinds.length) {
+            int capacity = size * 2;
+            kinds = Arrays.copyOf(kinds, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            lengths = Arrays.copyOf(lengths, capacity);
+            lines = Arrays.copyOf(lines, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        kinds[size] = type.ordinal();
+        starts[size] = start;
+        lengths[size] = length;
+        lines[size] = line;
+        values[size] = value;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int ensure(int index) {
+        return Math.min(index, size - 1);
+    }
+
+    @Override
+    public void release(int index) {
+    }
+
+    @Override
+    public TokenType getType(int index) {
+        return TYPES[kinds[index]];
+    }
+
+    @Override
+    public int getLine(int index) {
+        return lines[index];
+    }
+
+    public int getStart(int index) {
+        return starts[index];
+    }
+
+    public int getLength(int index) {
+        return lengths[index];
+    }
+
+    @Override
+    public int getValue(int index) {
+        return values[index];
+    }
+
+    public SourceText getSource() {
+        return source;
+    }
+
+    @Override
+    public String getLexeme(int index) {
+        return lexeme(source, names, TYPES[kinds[index]], starts[index], lengths[index], values[index]);
+    }
+
+    static String lexeme(SourceText source, NameTable names, TokenType type, int start, int length, int value) {
+        if (type == TokenType.IDENFR) {
+            return names.getName(value);
+        }
+        String fixed = type.getFixedLexeme();
+        // 缺了一半的 "&" / "|" 种类是 AND / OR，但词素按源码取
+        if (fixed != null && fixed.length() == length) {
+            return fixed;
+        }
+        return source.decode(start, length);
+    }
+
+    // 需要放进语法树的 token 才单独建对象
+    @Override
+    public Token getToken(int index) {
+        return new Token(getLexeme(index), getType(index), lines[index], values[index]);
+    }
+}
@@ -0,0 +1,10 @@
+package frontend.token;
+
+/*
+    Lexer 写出 token 的接口
+    value 是标识符在 NameTable 中的编号，其他 token 为 -1
+ */
+public interface TokenSink {
+
+    void add(TokenType type, int start, int length, int line, int value);
+}
@@ -0,0 +1,25 @@
+package frontend.token;
+
+/*
+    Parser 读取 token 的接口，按 token 下标访问
+    TokenBuffer 一次保存全部 token；TokenStream 边分析边产生，只保留 Parser 还会用到的部分
+ */
+public interface TokenSource {
+
+    // 保证下标为 index 的 token 已经产生；超出 EOF 时返回 EOF 的下标
+    int ensure(int index);
+
+    TokenType getType(int index);
+
+    int getLine(int index);
+
+    // 标识符为 NameTable 中的编号，其余为 -1
+    int getValue(int index);
+
+    String getLexeme(int index);
+
+    Token getToken(int index);
+
+    // 下标小于 index 的 token 之后不会再访问
+    void release(int index);
+}
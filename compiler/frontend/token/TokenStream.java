@@ -0,0 +1,141 @@
+package frontend.token;
+
+import java.util.function.BooleanSupplier;
+
+/*
+    按需产生的 token 流：Parser 访问到还没产生的下标时，才调用 producer 让 Lexer 继续分析
+    已产生的 token 放在环形缓冲区中，release 之前的位置可以被覆盖
+    缓冲区大小只取决于 Parser 同时需要的 token 数；isAssignStmt 的向前看没有上限，放不下时扩容
+ */
+public class TokenStream implements TokenSource, TokenSink {
+    private static final TokenType[] TYPES = TokenType.values();
+
+    private final SourceText source;
+    private final NameTable names;
+    private BooleanSupplier producer;
+    private int[] kinds;
+    private int[] starts;
+    private int[] lengths;
+    private int[] lines;
+    private int[] values;
+    private int mask;
+    // 仍保留的最小下标、已产生的 token 数、EOF 的下标（未产生时为 -1）
+    private int base = 0;
+    private int count = 0;
+    private int eofIndex = -1;
+
+    public TokenStream(SourceText source, NameTable names, int capacity) {
+        this.source = source;
+        this.names = names;
+        int size = Integer.highestOneBit(Math.max(capacity, 8) - 1) << 1;
+        kinds = new int[size];
+        starts = new int[size];
+        lengths = new int[size];
+        lines = new int[size];
+        values = new int[size];
+        mask = size - 1;
+    }
+
+    /*
+        producer 每次至少产生一个 token（经由 add），产生 EOF 之后返回 false
+     */
+    public void setProducer(BooleanSupplier producer) {
+        this.producer = producer;
+    }
+
+    @Override
+    public void add(TokenType type, int start, int length, int line, int value) {
+        if (count - base == kinds.length) {
+            grow();
+        }
+        int slot = count & mask;
+        kinds[slot] = type.ordinal();
+        starts[slot] = start;
+        lengths[slot] = length;
+        lines[slot] = line;
+        values[slot] = value;
+        if (type == TokenType.EOF) {
+            eofIndex = count;
+        }
+        count++;
+    }
+
+    private void grow() {
+        int size = kinds.length * 2;
+        int[] newKinds = new int[size];
+        int[] newStarts = new int[size];
+        int[] newLengths = new int[size];
+        int[] newLines = new int[size];
+        int[] newValues = new int[size];
+        int newMask = size - 1;
+        for (int i = base; i < count; i++) {
+            int from = i & mask;
+            int to = i & newMask;
+            newKinds[to] = kinds[from];
+            newStarts[to] = starts[from];
+            newLengths[to] = lengths[from];
+            newLines[to] = lines[from];
+            newValues[to] = values[from];
+        }
+        kinds = newKinds;
+        starts = newStarts;
+        lengths = newLengths;
+        lines = newLines;
+        values = newValues;
+        mask = newMask;
+    }
+
+    @Override
+    public int ensure(int index) {
+        while (index >= count && eofIndex < 0) {
+            producer.getAsBoolean();
+        }
+        return eofIndex >= 0 && index > eofIndex ? eofIndex : index;
+    }
+
+    // 一直分析到 EOF，途中产生的 token 直接丢弃
+    public void drain() {
+        while (eofIndex < 0) {
+            release(count);
+            producer.getAsBoolean();
+        }
+    }
+
+    @Override
+    public void release(int index) {
+        if (index > base) {
+            base = Math.min(index, count);
+        }
+    }
+
+    // 已产生的 token 数（含 EOF）
+    public int getCount() {
+        return count;
+    }
+
+    @Override
+    public TokenType getType(int index) {
+        return TYPES[kinds[index & mask]];
+    }
+
+    @Override
+    public int getLine(int index) {
+        return lines[index & mask];
+    }
+
+    @Override
+    public int getValue(int index) {
+        return values[index & mask];
+    }
+
+    @Override
+    public String getLexeme(int index) {
+        int slot = index & mask;
+        return TokenBuffer.lexeme(source, names, TYPES[kinds[slot]], starts[slot], lengths[slot], values[slot]);
+    }
+
+    @Override
+    public Token getToken(int index) {
+        return new Token(getLexeme(index), getType(index), getLine(index), values[index & mask]);
+    }
+}
@@ -2,17 +2,32 @@ package frontend.token;
 
 public enum TokenType {
     IDENFR, INTCON, STRCON,
-    CONSTTK, INTTK, STATICTK, 
-    BREAKTK, CONTINUETK, 
-    MAINTK, VOIDTK, RETURNTK,
-    IFTK, ELSETK, FORTK, NOT, AND, OR,
-    PLUS, MINU, MULT, DIV, MOD,
-    LSS, LEQ, GRE, GEQ, EQL, NEQ, ASSIGN,
-    SEMICN, COMMA, 
-    LPARENT, RPARENT, LBRACK, RBRACK, LBRACE, RBRACE,
-    PRINTFTK,
+    CONSTTK("const"), INTTK("int"), STATICTK("static"),
+    BREAKTK("break"), CONTINUETK("continue"),
+    MAINTK("main"), VOIDTK("void"), RETURNTK("return"),
+    IFTK("if"), ELSETK("else"), FORTK("for"), NOT("!"), AND("&&"), OR("||"),
+    PLUS("+"), MINU("-"), MULT("*"), DIV("/"), MOD("%"),
+    LSS("<"), LEQ("<="), GRE(">"), GEQ(">="), EQL("=="), NEQ("!="), ASSIGN("="),
+    SEMICN(";"), COMMA(","),
+    LPARENT("("), RPARENT(")"), LBRACK("["), RBRACK("]"), LBRACE("{"), RBRACE("}"),
+    PRINTFTK("printf"),
     EOF;
 
+    // 关键字与运算符的固定写法，标识符、常量与 EOF 为 null
+    private final String fixedLexeme;
+
+    TokenType() {
+        this(null);
+    }
+
+    TokenType(String fixedLexeme) {
+        this.fixedLexeme = fixedLexeme;
+    }
+
+    public String getFixedLexeme() {
+        return fixedLexeme;
+    }
+
     @Override
     public String toString() {
         return name();
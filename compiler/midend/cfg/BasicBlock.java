@@ -0,0 +1,77 @@
+package midend.cfg;
+
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    基本块：以标签或跳转之后的第一条四元式开始，以 j / bez / ret 或下一个标签之前的四元式结束
+    id 为块在函数中的排列顺序，顺序执行到块尾时落到下一个块
+    后继的顺序：bez 先是顺序落入的块，后是跳转目标；同一个块只出现一次
+ */
+public class BasicBlock {
+    private final int id;
+    private final List<Quad> quads = new ArrayList<>();
+    private final List<BasicBlock> preds = new ArrayList<>();
+    private final List<BasicBlock> succs = new ArrayList<>();
+    // 在逆后序中的位置，入口不可达的块为 -1
+    int rpoIndex = -1;
+
+    BasicBlock(int id) {
+        this.id = id;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // 块中的四元式，优化时可以直接修改，但块首的标签与块尾的跳转决定了边，改动它们之后须重建 CFG
+    public List<Quad> getQuads() {
+        return quads;
+    }
+
+    // 块首的标签，没有时为 null
+    public Operand getLabel() {
+        return !quads.isEmpty() && quads.get(0).op == Opcode.LABEL ? quads.get(0).res : null;
+    }
+
+    // 块尾的 j / bez / ret，没有时为 null
+    public Quad getTerminator() {
+        if (quads.isEmpty()) return null;
+        Quad last = quads.get(quads.size() - 1);
+        return switch (last.op) {
+            case J, BEZ, RET -> last;
+            default -> null;
+        };
+    }
+
+    public List<BasicBlock> getPreds() {
+        return preds;
+    }
+
+    public List<BasicBlock> getSuccs() {
+        return succs;
+    }
+
+    public int getRpoIndex() {
+        return rpoIndex;
+    }
+
+    public boolean isReachable() {
+        return rpoIndex >= 0;
+    }
+
+    void addSucc(BasicBlock succ) {
+        if (succs.contains(succ)) return;
+        succs.add(succ);
+        succ.preds.add(this);
+    }
+
+    @Override
+    public String toString() {
+        return "B" + id;
+    }
+}
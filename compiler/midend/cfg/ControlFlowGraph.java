@@ -0,0 +1,203 @@
+package midend.cfg;
+
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    一个函数的控制流图，建在 func 与 endfunc 之间的四元式上
+        块按原来的排列顺序编号，入口为第一个块；入口块没有前驱：函数体为空或以标签开头时，入口是一个空块
+        边：j 到目标；bez 到下一个块与目标；ret 没有后继；其余落到下一个块，最后一个块落出函数
+        不可达的块（如 return 之后的语句）保留在块列表中，它们的边也照常连上，所以可达块的前驱中可能有不可达的块
+        逆后序只含从入口可达的块，支配树在第一次用到时计算
+    toQuads 按块的排列顺序拼回四元式序列
+ */
+public class ControlFlowGraph {
+    private final String name;
+    private final List<BasicBlock> blocks = new ArrayList<>();
+    private final Map<Operand, BasicBlock> labelBlocks = new HashMap<>();
+    private final List<BasicBlock> rpo = new ArrayList<>();
+    private DominatorTree dominators;
+
+    private ControlFlowGraph(String name) {
+        this.name = name;
+    }
+
+    public static ControlFlowGraph build(String name, List<Quad> body) {
+        ControlFlowGraph cfg = new ControlFlowGraph(name);
+        BasicBlock current = null;
+        if (body.isEmpty() || body.get(0).op == Opcode.LABEL) {
+            cfg.newBlock();
+        }
+        for (Quad quad : body) {
+            if (current == null || quad.op == Opcode.LABEL) {
+                current = cfg.newBlock();
+                if (quad.op == Opcode.LABEL) {
+                    cfg.labelBlocks.put(quad.res, current);
+                }
+            }
+            current.getQuads().add(quad);
+            if (quad.op == Opcode.J || quad.op == Opcode.BEZ || quad.op == Opcode.RET) {
+                current = null;
+            }
+        }
+        cfg.link();
+        cfg.computeRpo();
+        return cfg;
+    }
+
+    // 整个 IR 中每个函数各建一个 CFG，按出现顺序
+    public static List<ControlFlowGraph> buildAll(List<Quad> ir) {
+        List<ControlFlowGraph> cfgs = new ArrayList<>();
+        int i = 0, n = ir.size();
+        while (i < n) {
+            Quad quad = ir.get(i);
+            if (quad.op != Opcode.FUNC) {
+                i++;
+                continue;
+            }
+            int j = i + 1;
+            while (j < n && ir.get(j).op != Opcode.ENDFUNC) j++;
+            cfgs.add(build(quad.arg1.toString(), ir.subList(i + 1, j)));
+            i = j + 1;
+        }
+        return cfgs;
+    }
+
+    private BasicBlock newBlock() {
+        BasicBlock block = new BasicBlock(blocks.size());
+        blocks.add(block);
+        return block;
+    }
+
+    private void link() {
+        for (int i = 0; i < blocks.size(); i++) {
+            BasicBlock block = blocks.get(i);
+            BasicBlock next = i + 1 < blocks.size() ? blocks.get(i + 1) : null;
+            Quad last = block.getTerminator();
+            if (last == null) {
+                if (next != null) block.addSucc(next);
+                continue;
+            }
+            switch (last.op) {
+                case J -> block.addSucc(target(last));
+                case BEZ -> {
+                    if (next != null) block.addSucc(next);
+                    block.addSucc(target(last));
+                }
+                default -> {}
+            }
+        }
+    }
+
+    private BasicBlock target(Quad jump) {
+        BasicBlock target = labelBlocks.get(jump.res);
+        if (target == null) {
+            throw new IllegalStateException(name + ": jump to undefined label " + jump.res);
+        }
+        return target;
+    }
+
+    // 从入口深度优先，后序逆过来；用显式栈，块再多也不会栈溢出
+    private void computeRpo() {
+        int n = blocks.size();
+        BasicBlock[] post = new BasicBlock[n];
+        int postSize = 0;
+        boolean[] visited = new boolean[n];
+        BasicBlock[] stack = new BasicBlock[n];
+        int[] nextSucc = new int[n];
+        int top = 0;
+        stack[top++] = getEntry();
+        visited[getEntry().getId()] = true;
+        while (top > 0) {
+            BasicBlock block = stack[top - 1];
+            List<BasicBlock> succs = block.getSuccs();
+            if (nextSucc[block.getId()] < succs.size()) {
+                BasicBlock succ = succs.get(nextSucc[block.getId()]++);
+                if (!visited[succ.getId()]) {
+                    visited[succ.getId()] = true;
+                    stack[top++] = succ;
+                }
+            } else {
+                post[postSize++] = block;
+                top--;
+            }
+        }
+        for (int i = postSize - 1; i >= 0; i--) {
+            post[i].rpoIndex = rpo.size();
+            rpo.add(post[i]);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public BasicBlock getEntry() {
+        return blocks.get(0);
+    }
+
+    // 全部块，按排列顺序，包括不可达的块
+    public List<BasicBlock> getBlocks() {
+        return blocks;
+    }
+
+    // 标签所在的块，不是本函数的标签时为 null
+    public BasicBlock getBlock(Operand label) {
+        return labelBlocks.get(label);
+    }
+
+    // 可达的块，按逆后序
+    public List<BasicBlock> reversePostOrder() {
+        return rpo;
+    }
+
+    public DominatorTree getDominators() {
+        if (dominators == null) {
+            dominators = DominatorTree.build(this);
+        }
+        return dominators;
+    }
+
+    public int getQuadCount() {
+        int count = 0;
+        for (BasicBlock block : blocks) {
+            count += block.getQuads().size();
+        }
+        return count;
+    }
+
+    public List<Quad> toQuads() {
+        List<Quad> quads = new ArrayList<>(getQuadCount());
+        for (BasicBlock block : blocks) {
+            quads.addAll(block.getQuads());
+        }
+        return quads;
+    }
+
+    // 调试用：每个块的前驱、后继、直接支配者与四元式
+    @Override
+    public String toString() {
+        DominatorTree dom = getDominators();
+        StringBuilder sb = new StringBuilder();
+        sb.append("cfg ").append(name).append('\n');
+        for (BasicBlock block : blocks) {
+            sb.append(block).append(": preds=").append(block.getPreds()).append(" succs=").append(block.getSuccs());
+            if (block.isReachable()) {
+                sb.append(" idom=").append(dom.getIdom(block));
+            } else {
+                sb.append(" unreachable");
+            }
+            sb.append('\n');
+            for (Quad quad : block.getQuads()) {
+                sb.append("    ").append(quad).append('\n');
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,146 @@
+package midend.cfg;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/*
+    支配树，只含从入口可达的块
+    直接支配者按 Cooper–Harvey–Kennedy 的迭代算法求：按逆后序反复求前驱的直接支配者的交，直到不变
+    之后对支配树做一次先序 / 后序编号，dominates 只比较编号
+    支配边界在第一次用到时按同一篇文章的做法求：从每个汇合点的各前驱沿直接支配者往上走，直到汇合点的直接支配者
+ */
+public class DominatorTree {
+    private final ControlFlowGraph cfg;
+    // 按块编号：直接支配者，入口为自身，不可达为 null
+    private final BasicBlock[] idom;
+    private final List<List<BasicBlock>> children;
+    private final int[] pre;
+    private final int[] post;
+    private List<List<BasicBlock>> frontiers;
+
+    private DominatorTree(ControlFlowGraph cfg) {
+        this.cfg = cfg;
+        int n = cfg.getBlocks().size();
+        this.idom = new BasicBlock[n];
+        this.children = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            children.add(new ArrayList<>());
+        }
+        this.pre = new int[n];
+        this.post = new int[n];
+    }
+
+    static DominatorTree build(ControlFlowGraph cfg) {
+        DominatorTree tree = new DominatorTree(cfg);
+        tree.computeIdom();
+        tree.number();
+        return tree;
+    }
+
+    private void computeIdom() {
+        List<BasicBlock> rpo = cfg.reversePostOrder();
+        BasicBlock entry = cfg.getEntry();
+        idom[entry.getId()] = entry;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int i = 1; i < rpo.size(); i++) {
+                BasicBlock block = rpo.get(i);
+                BasicBlock newIdom = null;
+                for (BasicBlock pred : block.getPreds()) {
+                    if (idom[pred.getId()] == null) continue;
+                    newIdom = newIdom == null ? pred : intersect(pred, newIdom);
+                }
+                if (newIdom != idom[block.getId()]) {
+                    idom[block.getId()] = newIdom;
+                    changed = true;
+                }
+            }
+        }
+        for (int i = 1; i < rpo.size(); i++) {
+            BasicBlock block = rpo.get(i);
+            children.get(idom[block.getId()].getId()).add(block);
+        }
+    }
+
+    private BasicBlock intersect(BasicBlock a, BasicBlock b) {
+        while (a != b) {
+            while (a.rpoIndex > b.rpoIndex) a = idom[a.getId()];
+            while (b.rpoIndex > a.rpoIndex) b = idom[b.getId()];
+        }
+        return a;
+    }
+
+    private void number() {
+        int n = cfg.getBlocks().size();
+        BasicBlock[] stack = new BasicBlock[n];
+        int[] nextChild = new int[n];
+        int top = 0;
+        int preCount = 0, postCount = 0;
+        BasicBlock entry = cfg.getEntry();
+        stack[top++] = entry;
+        pre[entry.getId()] = preCount++;
+        while (top > 0) {
+            BasicBlock block = stack[top - 1];
+            List<BasicBlock> kids = children.get(block.getId());
+            if (nextChild[block.getId()] < kids.size()) {
+                BasicBlock child = kids.get(nextChild[block.getId()]++);
+                pre[child.getId()] = preCount++;
+                stack[top++] = child;
+            } else {
+                post[block.getId()] = postCount++;
+                top--;
+            }
+        }
+    }
+
+    // 直接支配者；入口返回 null，不可达的块也返回 null
+    public BasicBlock getIdom(BasicBlock block) {
+        BasicBlock d = idom[block.getId()];
+        return d == block ? null : d;
+    }
+
+    // 在支配树上的子结点
+    public List<BasicBlock> getChildren(BasicBlock block) {
+        return children.get(block.getId());
+    }
+
+    // 支配边界：b 支配其某个前驱、但不严格支配它本身的块；不可达的块为空
+    public List<BasicBlock> getFrontier(BasicBlock block) {
+        if (frontiers == null) {
+            computeFrontiers();
+        }
+        return frontiers.get(block.getId());
+    }
+
+    private void computeFrontiers() {
+        int n = cfg.getBlocks().size();
+        frontiers = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            frontiers.add(new ArrayList<>());
+        }
+        // lastJoin[x]：最近一次加进 x 的边界的汇合点，避免重复
+        int[] lastJoin = new int[n];
+        Arrays.fill(lastJoin, -1);
+        for (BasicBlock join : cfg.reversePostOrder()) {
+            if (join.getPreds().size() < 2) continue;
+            BasicBlock stop = idom[join.getId()];
+            for (BasicBlock pred : join.getPreds()) {
+                if (!pred.isReachable()) continue;
+                BasicBlock runner = pred;
+                while (runner != stop && lastJoin[runner.getId()] != join.getId()) {
+                    frontiers.get(runner.getId()).add(join);
+                    lastJoin[runner.getId()] = join.getId();
+                    runner = idom[runner.getId()];
+                }
+            }
+        }
+    }
+
+    // a 支配 b（包括 a == b）；有一个不可达时为 false
+    public boolean dominates(BasicBlock a, BasicBlock b) {
+        if (!a.isReachable() || !b.isReachable()) return false;
+        return pre[a.getId()] <= pre[b.getId()] && post[b.getId()] <= post[a.getId()];
+    }
+}
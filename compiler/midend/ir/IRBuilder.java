@@ -1,7 +1,9 @@
 package midend.ir;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 public class IRBuilder {
     private final List<Quad> quads = new ArrayList<>();
@@ -9,11 +11,11 @@ public class IRBuilder {
     private int tempN=0;
     private int labelN=0;
 
-    public String newTemp() {
-        return "t"+(++tempN);
+    public Operand newTemp() {
+        return Operand.temp(++tempN);
     }
 
-    public String newLabel(String name){
+    public Operand newLabel(String name){
         String label="";
         if (name!=null){
             label=name.replaceAll("[^A=Za-z0-9]","_");
@@ -21,7 +23,7 @@ public class IRBuilder {
         if (!label.isEmpty()){
             label="_"+label;
         }
-        return "L"+(++labelN)+label;
+        return Operand.label(++labelN, label);
     }
 
     public Quad lastQuad(){
@@ -29,15 +31,56 @@ public class IRBuilder {
         return quads.get(quads.size()-1);
     }
 
-    public void emit(String op, String arg1, String arg2, String res) {
+    public void emit(Opcode op, Operand arg1, Operand arg2, Operand res) {
         quads.add(new Quad(op, arg1, arg2, res));
     }
 
-    public void emitGlobal(String op, String arg1, String arg2, String res) {
+    public void emitGlobal(Opcode op, Operand arg1, Operand arg2, Operand res) {
         globals.add(new Quad(op, arg1, arg2, res));
     }
 
 
+    /*
+        追加另一个 IRBuilder（并行生成的一个函数）的结果，其临时变量 tN 与标签 LN 接着本 builder 的编号
+        操作数不可变：part 中的每个临时变量与标签换成改了编号的新操作数（同一个操作数只建一次），四元式随之重建
+        之后 part 不能再使用
+     */
+    public void append(IRBuilder part){
+        if (tempN == 0 && labelN == 0){
+            globals.addAll(part.globals);
+            quads.addAll(part.quads);
+        } else {
+            Map<Operand,Operand> renumbered = new HashMap<>();
+            for (Quad quad : part.globals){
+                globals.add(renumber(quad, renumbered));
+            }
+            for (Quad quad : part.quads){
+                quads.add(renumber(quad, renumbered));
+            }
+        }
+        tempN += part.tempN;
+        labelN += part.labelN;
+    }
+
+    private Quad renumber(Quad quad, Map<Operand,Operand> renumbered){
+        Operand arg1 = renumber(quad.arg1, renumbered);
+        Operand arg2 = renumber(quad.arg2, renumbered);
+        Operand res = renumber(quad.res, renumbered);
+        if (arg1 == quad.arg1 && arg2 == quad.arg2 && res == quad.res){
+            return quad;
+        }
+        return new Quad(quad.op, arg1, arg2, res);
+    }
+
+    private Operand renumber(Operand operand, Map<Operand,Operand> renumbered){
+        if (operand == null) return null;
+        return switch (operand.getKind()){
+            case TEMP -> renumbered.computeIfAbsent(operand, t -> Operand.temp(t.getId() + tempN));
+            case LABEL -> renumbered.computeIfAbsent(operand, l -> Operand.label(l.getId() + labelN, l.getName()));
+            default -> operand;
+        };
+    }
+
     public List<Quad> getIr(){
         List<Quad> ir = new ArrayList<>(globals.size()+quads.size());
         ir.addAll(globals);
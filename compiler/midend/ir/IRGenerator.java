@@ -1,407 +1,304 @@
 package midend.ir;
 
-import frontend.ast.CompUnit;
-import frontend.ast.block.Block;
-import frontend.ast.block.BlockItem;
-import frontend.ast.decl.*;
-import frontend.ast.exp.*;
-import frontend.ast.exp.Number;
-import frontend.ast.func.*;
-import frontend.ast.stmt.*;
+import frontend.ast.ExpVisitor;
+import frontend.ast.NodeKind;
+import frontend.ast.StmtVisitor;
+import frontend.ast.SyntaxTree;
 import frontend.symbol.Symbol;
 import frontend.symbol.SymbolManager;
-import frontend.symbol.SymbolTable;
-import frontend.token.Token;
+import frontend.token.NameTable;
+import frontend.token.TokenType;
 
 import java.util.*;
 
-public class IRGenerator {
-    private final CompUnit compUnit;
+import static frontend.ast.SyntaxTree.NULL;
+
+public class IRGenerator implements StmtVisitor, ExpVisitor<Operand> {
+    private final SyntaxTree tree;
     private final SymbolManager symbolManager;
+    private final NameTable names;
     private final IRBuilder irBuilder;
-    private SymbolTable currentScope;
-    private final Map<SymbolTable, Integer> childIndex = new HashMap<>();
-    private final List<String> breakLabelStack = new ArrayList<>();
-    private final List<String> continueLabelStack = new ArrayList<>();
-    private final Map<String, Integer> constScalar = new HashMap<>();
-    private final Map<String, int[]> constArray = new HashMap<>();
-    private final Deque<Map<String,Symbol>> visible = new ArrayDeque<>();
-
-    public IRGenerator(CompUnit compUnit, SymbolManager symbolManager, IRBuilder irBuilder) {
-        this.compUnit = compUnit;
+    private final List<Operand> breakLabelStack = new ArrayList<>();
+    private final List<Operand> continueLabelStack = new ArrayList<>();
+    private final Map<Symbol, Integer> constScalar = new HashMap<>();
+    private final Map<Symbol, int[]> constArray = new HashMap<>();
+    // 并行生成时的全局生成器，函数中引用的全局常量到它那里取值（只读）
+    private final IRGenerator outer;
+    // 展开运算链时暂存的结点，嵌套的运算链接着往上放
+    private int[] chain = new int[16];
+    private int chainTop = 0;
+
+    public IRGenerator(SyntaxTree tree, SymbolManager symbolManager, IRBuilder irBuilder) {
+        this(tree, symbolManager, irBuilder, null);
+    }
+
+    private IRGenerator(SyntaxTree tree, SymbolManager symbolManager, IRBuilder irBuilder, IRGenerator outer) {
+        this.tree = tree;
         this.symbolManager = symbolManager;
+        this.names = symbolManager.getNames();
         this.irBuilder = irBuilder;
-        this.currentScope = symbolManager.getGlobalScope();
-        visible.push(new HashMap<>());
+        this.outer = outer;
     }
 
     // =================== 入口 ===================
     public void generate(){
-        genCompUnit(compUnit);
-    }
-
-    // ================== 工具函数 ==================
-    private void enterScope(){
-        List<SymbolTable> sons = currentScope.getSon();
-        int index = childIndex.getOrDefault(currentScope,0);
-        if (index>=sons.size()){
-            throw new IllegalStateException("enterScope: no child scope left for scope " + currentScope.getId());
-        }
-        childIndex.put(currentScope,index+1);
-        currentScope = sons.get(index);
-        visible.push(new HashMap<>());
-    }
-
-    private void exitScope(){
-        SymbolTable father = currentScope.getFather();
-        if (father==null){
-            throw new IllegalStateException("exitScope: already at global scope");
-        }
-        visible.pop();
-        currentScope = father;
+        genCompUnit(tree.getRoot());
     }
 
-    private Symbol lookupSymbol(String name){
-        SymbolTable symbolTable = currentScope;
-        while (symbolTable!=null){
-            Symbol symbol = symbolTable.lookupLocal(name);
-            if (symbol!=null){
-                return symbol;
+    /*
+        按函数并行生成（见 driver.FunctionParallel）：
+            generateGlobals 生成全局声明
+            forFunction 为每个函数建一个生成器，写入各自的 IRBuilder，可以并发地 generateFunction
+            完成后按源程序顺序 IRBuilder.append，临时变量与标签接着前面的编号，结果与顺序生成相同
+     */
+    public void generateGlobals(){
+        int compUnit = tree.getRoot();
+        for (int i = 0; i < tree.childCount(compUnit); i++){
+            int node = tree.child(compUnit, i);
+            if (tree.kind(node).isDecl()){
+                genDecl(node);
             }
-            symbolTable = symbolTable.getFather();
         }
-        return null;
     }
 
-    private Symbol lookupSymbolVisible(String name){
-        for (var map : visible){
-            Symbol symbol = map.get(name);
-            if (symbol !=null) return symbol;
-        }
-        return null;
+    public IRGenerator forFunction(IRBuilder builder){
+        return new IRGenerator(tree, symbolManager, builder, this);
     }
 
-    private void activateVisible(String name){
-        Symbol symbol = currentScope.lookupLocal(name);
-        if (symbol!=null){
-            if (visible.peek() != null) {
-                visible.peek().put(name,symbol);
-            }
+    public void generateFunction(int node){
+        if (tree.kind(node) == NodeKind.FUNC_DEF){
+            genFuncDef(node);
+        } else {
+            genMainFuncDef(node);
         }
     }
 
-    private Symbol lookupFunc(String name){
-        SymbolTable global = symbolManager.getGlobalScope();
-        return global.lookupLocal(name);
-    }
-
+    // ================== 工具函数 ==================
     private boolean isGlobal(Symbol symbol){
         if (symbol==null) return false;
         int globalId = symbolManager.getGlobalScope().getId();
         return symbol.getScopeId()==globalId || symbol.isStatic();
     }
 
-    private String irNameOf(Symbol symbol){
-        String base = symbol.getName();
-        int scopeId= symbol.getScopeId();
-        int globalId = symbolManager.getGlobalScope().getId();
-
-        //全局变量
-        if(scopeId==globalId){
-            return "g_" + base;
-        }
-
-        //形参
-        if(symbol.isParam()){
-            return "p"+scopeId+"_"+base;
-        }
-
-        //static局部
-        if(symbol.isStatic()){
-            return "s" + scopeId + "_"+base;
-        }
-
-        //普通局部
-        return "v"+scopeId+"_"+base;
+    // 定义或 LVal 结点上的变量在 IR 中的操作数，由 Visitor 在定义时创建；未解析时按源程序中的名字
+    private Operand operandOf(int node){
+        Symbol symbol = tree.symbol(node);
+        return symbol==null ? Operand.name(names.getName(tree.nameId(node))) : symbol.getIrOperand();
     }
 
     //编译单元 CompUnit → {Decl} {FuncDef} MainFuncDef
-    private void genCompUnit(CompUnit compUnit){
-        for (Decl decl:compUnit.getDecls()){
-            genDecl(decl);
-        }
-        for (FuncDef funcDef:compUnit.getFuncDefs()){
-            enterScope();
-            genFuncDef(funcDef);
-            exitScope();
-        }
-
-        MainFuncDef mainFuncDef=compUnit.getMainFuncDef();
-        if (mainFuncDef!=null){
-            enterScope();
-            genMainFuncDef(mainFuncDef);
-            exitScope();
+    private void genCompUnit(int compUnit){
+        for (int i = 0; i < tree.childCount(compUnit); i++){
+            int node = tree.child(compUnit, i);
+            switch (tree.kind(node)) {
+                case CONST_DECL, VAR_DECL -> genDecl(node);
+                case FUNC_DEF -> genFuncDef(node);
+                case MAIN_FUNC_DEF -> genMainFuncDef(node);
+                default -> {}
+            }
         }
     }
 
     //声明 Decl → ConstDecl | VarDecl
-    private void genDecl(Decl decl) {
-        if(decl instanceof ConstDecl constDecl){
-            genConstDecl(constDecl);
-        } else if(decl instanceof VarDecl varDecl){
-            genVarDecl(varDecl);
+    private void genDecl(int decl) {
+        if(tree.kind(decl) == NodeKind.CONST_DECL){
+            genConstDecl(decl);
+        } else {
+            genVarDecl(decl);
         }
     }
 
     //常量声明 ConstDecl → 'const' BType ConstDef { ',' ConstDef } ';'
-    private void genConstDecl(ConstDecl constDecl) {
-        if(constDecl==null) return;
-        for(ConstDef constDef: constDecl.getConstDefs()){
-            genConstDef(constDef);
+    private void genConstDecl(int constDecl) {
+        for (int i = 0; i < tree.childCount(constDecl); i++){
+            genConstDef(tree.child(constDecl, i));
         }
 
     }
 
     //常量定义 ConstDef → Ident [ '[' ConstExp ']' ] '=' ConstInitVal
-    private  void genConstDef(ConstDef constDef){
-        if(constDef==null) return;
-
-        String name = constDef.getIdent().getLexeme();
-        Symbol symbol = lookupSymbol(name);
-        String irName;
-        if(symbol==null){
-            irName = name;
-        } else {
-            irName=irNameOf(symbol);
-        }
+    private  void genConstDef(int constDef){
+        Symbol symbol = tree.symbol(constDef);
+        Operand irName = operandOf(constDef);
 
         int len=0;
-        boolean isArray = constDef.isArray();
+        boolean isArray = tree.isArray(constDef);
         boolean isGlobal = isGlobal(symbol);
 
         if(!isArray){
             if(isGlobal){
-                irBuilder.emitGlobal("gdecl",irName,"1",null);
+                irBuilder.emitGlobal(Opcode.GDECL,irName,Operand.imm(1),null);
             } else {
-                irBuilder.emit("decl",irName,"1",null);
+                irBuilder.emit(Opcode.DECL,irName,Operand.imm(1),null);
             }
 
         } else {
-            len = evalConstExp(constDef.getArray());
+            len = evalExp(tree.child(constDef, 0));
             if (isGlobal){
-                irBuilder.emitGlobal("gdecl",irName,Integer.toString(len),null);
+                irBuilder.emitGlobal(Opcode.GDECL,irName,Operand.imm(len),null);
             } else {
 
-                irBuilder.emit("decl",irName,Integer.toString(len),null);
+                irBuilder.emit(Opcode.DECL,irName,Operand.imm(len),null);
             }
 
         }
 
 
         //常量初值 ConstInitVal → ConstExp | '{' [ ConstExp { ',' ConstExp } ] '}'
-        ConstInitVal constInitVal = constDef.getConstInitVal();
-        if (constInitVal==null) return;
-
-        List<ConstExp> constExps = constInitVal.getConstExps();
-        if (constExps ==null || constExps.isEmpty()) return;
+        int constInitVal = tree.child(constDef, 1);
+        int count = tree.childCount(constInitVal);
+        if (count==0) return;
 
         if(!isArray){
-            int value = evalConstExp(constExps.get(0));
-            constScalar.put(irName, value);
+            int value = evalExp(tree.child(constInitVal, 0));
+            constScalar.put(symbol, value);
             if (isGlobal) {
-                irBuilder.emitGlobal("ginit", Integer.toString(value), null, irName);
+                irBuilder.emitGlobal(Opcode.GINIT, Operand.imm(value), null, irName);
             } else {
-                irBuilder.emit("move", Integer.toString(value), null, irName);
+                irBuilder.emit(Opcode.MOVE, Operand.imm(value), null, irName);
             }
 
         } else {
             int[] arr = new int[len];
-            for(int i = 0; i< constExps.size(); i++){
-                String index = Integer.toString(i);
-                int value = evalConstExp(constExps.get(i));
+            for(int i = 0; i< count; i++){
+                Operand index = Operand.imm(i);
+                int value = evalExp(tree.child(constInitVal, i));
                 arr[i] = value;
                 if(isGlobal){
-                    irBuilder.emitGlobal("ginitarr", Integer.toString(value), index, irName);
+                    irBuilder.emitGlobal(Opcode.GINITARR, Operand.imm(value), index, irName);
                 } else {
-                    irBuilder.emit("storearr", Integer.toString(value), index, irName);
+                    irBuilder.emit(Opcode.STOREARR, Operand.imm(value), index, irName);
                 }
             }
-            constArray.put(irName,arr);
+            constArray.put(symbol,arr);
         }
 
-        activateVisible(name);
-
     }
 
     //变量声明 VarDecl → [ 'static' ] BType VarDef { ',' VarDef } ';'
-    private  void genVarDecl(VarDecl varDecl){
-        if (varDecl==null) return;
-        for (VarDef varDef : varDecl.getVarDefs()){
-            genVarDef(varDef);
+    private  void genVarDecl(int varDecl){
+        for (int i = 0; i < tree.childCount(varDecl); i++){
+            genVarDef(tree.child(varDecl, i));
         }
     }
 
     //变量定义 VarDef → Ident [ '[' ConstExp ']' ] | Ident [ '[' ConstExp ']' ] '=' InitVal //
-    private void genVarDef(VarDef varDef){
-        Token ident = varDef.getIdent();
-        String name = ident.getLexeme();
-        Symbol symbol = lookupSymbol(name);
-
-        String irName;
-        if(symbol==null){
-            irName = name;
-        } else {
-            irName=irNameOf(symbol);
-        }
+    private void genVarDef(int varDef){
+        Symbol symbol = tree.symbol(varDef);
+
+        Operand irName = operandOf(varDef);
 
-        boolean isArray = varDef.isArray();
+        boolean isArray = tree.isArray(varDef);
         boolean isGlobal = isGlobal(symbol);
         if(!isArray){
             if (isGlobal){
-                irBuilder.emitGlobal("gdecl", irName,"1",null);
+                irBuilder.emitGlobal(Opcode.GDECL, irName,Operand.imm(1),null);
             } else {
-                irBuilder.emit("decl", irName,"1",null);
+                irBuilder.emit(Opcode.DECL, irName,Operand.imm(1),null);
             }
 
         } else {
-            int len = evalConstExp(varDef.getArray());
+            int len = evalExp(tree.child(varDef, 0));
             if (isGlobal){
-                irBuilder.emitGlobal("gdecl",irName,Integer.toString(len),null);
+                irBuilder.emitGlobal(Opcode.GDECL,irName,Operand.imm(len),null);
             } else {
-                irBuilder.emit("decl",irName,Integer.toString(len),null);
+                irBuilder.emit(Opcode.DECL,irName,Operand.imm(len),null);
             }
 
         }
-        InitVal initVal = varDef.getInitVal();
-        if (initVal==null) {
-            activateVisible(name);
-            return;
-        }
-
 
         //变量初值 InitVal → Exp | '{' [ Exp { ',' Exp } ] '}'
-        List<Exp> exps = initVal.getExps();
-        if (exps==null || exps.isEmpty()) {
-            activateVisible(name);
+        int initVal = tree.child(varDef, 1);
+        if (initVal==NULL || tree.childCount(initVal)==0) {
             return;
         }
 
         if(!isArray){
-            Exp exp =exps.get(0);
+            int exp = tree.child(initVal, 0);
             if (isGlobal){
-                int value = evalAddExp((AddExp)exp);
-                irBuilder.emitGlobal("ginit",Integer.toString(value),null,irName);
+                int value = evalExp(exp);
+                irBuilder.emitGlobal(Opcode.GINIT,Operand.imm(value),null,irName);
             } else {
-                String value = genExp(exp);
-                irBuilder.emit("move", value, null, irName);
+                Operand value = genExp(exp);
+                irBuilder.emit(Opcode.MOVE, value, null, irName);
             }
         } else {
-            for(int i=0; i<exps.size(); i++){
-                Exp exp = exps.get(i);
-                if(exp==null) continue;
-                String index = Integer.toString(i);
+            for(int i=0; i<tree.childCount(initVal); i++){
+                int exp = tree.child(initVal, i);
+                Operand index = Operand.imm(i);
                 if (isGlobal){
-                    int value = evalAddExp((AddExp) exps.get(i));
-                    irBuilder.emitGlobal("ginitarr",Integer.toString(value),index,irName);
+                    int value = evalExp(exp);
+                    irBuilder.emitGlobal(Opcode.GINITARR,Operand.imm(value),index,irName);
                 } else {
-                    String value = genExp(exp);
-                    irBuilder.emit("storearr", value, index, irName);
+                    Operand value = genExp(exp);
+                    irBuilder.emit(Opcode.STOREARR, value, index, irName);
                 }
             }
         }
-        activateVisible(name);
     }
 
     //函数定义 FuncDef → FuncType Ident '(' [FuncFParams] ')' Block
-    private void genFuncDef(FuncDef funcDef) {
-        if(funcDef==null) return;
-
-        String name=funcDef.getIdent().getLexeme();
-        irBuilder.emit("func",name,null,null);
+    private void genFuncDef(int funcDef) {
+        Operand name=Operand.name(names.getName(tree.nameId(funcDef)));
+        irBuilder.emit(Opcode.FUNC,name,null,null);
 
-        FuncFParams funcFParams = funcDef.getParams();
-        if (funcFParams!=null){
-            genFuncFParams(funcFParams);
+        //函数形参表 FuncFParams → FuncFParam { ',' FuncFParam }
+        int paramCount = tree.childCount(funcDef) - 1;
+        for (int i = 0; i < paramCount; i++){
+            genFuncFParam(tree.child(funcDef, i));
         }
 
-        Block block = funcDef.getBody();
-        genBlock(block, false);
+        visitBlock(tree.child(funcDef, paramCount));
 
         Quad last = irBuilder.lastQuad();
-        if (last==null || !last.op.equals("ret")){
-            irBuilder.emit("ret", "0", null, null);
+        if (last==null || last.op!=Opcode.RET){
+            irBuilder.emit(Opcode.RET, Operand.imm(0), null, null);
         }
 
-        irBuilder.emit("endfunc",name,null,null);
+        irBuilder.emit(Opcode.ENDFUNC,name,null,null);
     }
 
     //主函数定义 MainFuncDef → 'int' 'main' '(' ')' Block
-    private void genMainFuncDef(MainFuncDef mainFuncDef){
-        if (mainFuncDef==null) return;
+    private void genMainFuncDef(int mainFuncDef){
+        Operand name = Operand.name("main");
+        irBuilder.emit(Opcode.FUNC,name,null,null);
 
-        String name = "main";
-        irBuilder.emit("func",name,null,null);
-
-        Block block=mainFuncDef.getBody();
-        genBlock(block,false);
+        visitBlock(tree.child(mainFuncDef, 0));
 
         Quad last = irBuilder.lastQuad();
-        if (last==null || !last.op.equals("ret")){
-            irBuilder.emit("ret", "0", null, null);
+        if (last==null || last.op!=Opcode.RET){
+            irBuilder.emit(Opcode.RET, Operand.imm(0), null, null);
         }
 
-        irBuilder.emit("endfunc",name,null,null);
-    }
-
-    //函数形参表 FuncFParams → FuncFParam { ',' FuncFParam }
-    private void genFuncFParams(FuncFParams funcFParams){
-        if(funcFParams == null) return;
-        for (FuncFParam funcFParam : funcFParams.getFuncFParams()){
-            genFuncFParam(funcFParam);
-        }
+        irBuilder.emit(Opcode.ENDFUNC,name,null,null);
     }
 
     // 函数形参 FuncFParam → BType Ident ['[' ']']
-    private void genFuncFParam(FuncFParam funcFParam) {
-        if (funcFParam == null) return;
-        String name = funcFParam.getIdent().getLexeme();
-        Symbol symbol = lookupSymbol(name);
+    private void genFuncFParam(int funcFParam) {
+        Symbol symbol = tree.symbol(funcFParam);
         if (symbol==null) return;
 
-        String irName=irNameOf(symbol);
+        Operand irName=symbol.getIrOperand();
 
         if (symbol.isArray()){
-            irBuilder.emit("fparam_arr", irName, null, null);
+            irBuilder.emit(Opcode.FPARAM_ARR, irName, null, null);
         } else {
-            irBuilder.emit("fparam", irName, null, null);
+            irBuilder.emit(Opcode.FPARAM, irName, null, null);
         }
-
-        activateVisible(name);
     }
 
     //语句块 Block → '{' { BlockItem } '}'
-    private void genBlock(Block block, boolean newScope){
-        if (block==null) return;
-        if(newScope){
-            enterScope();
-        }
-        for(BlockItem blockItem:block.getBlockItems()){
-            genBlockItem(blockItem);
-        }
-        if (newScope){
-            exitScope();
-        }
-    }
-
     //语句块项 BlockItem → Decl | Stmt
-    private  void genBlockItem(BlockItem blockItem){
-        if (blockItem==null) return;
-        Decl decl = blockItem.getDecl();
-        Stmt stmt = blockItem.getStmt();
-        if (decl != null){
-            genDecl(decl);
-        } else if(stmt!=null){
-            genStmt(stmt);
+    @Override
+    public void visitBlock(int block){
+        if (block==NULL) return;
+        for (int i = 0; i < tree.childCount(block); i++){
+            int blockItem = tree.child(block, i);
+            if (tree.kind(blockItem).isDecl()){
+                genDecl(blockItem);
+            } else {
+                genStmt(blockItem);
+            }
         }
     }
 
@@ -416,179 +313,140 @@ public class IRGenerator {
                     | 'return' [Exp] ';'
                     | 'printf''('StringConst {','Exp}')'';'
      */
-    private void genStmt(Stmt stmt){
-        if (stmt==null) return;
-        if(stmt instanceof AssignStmt assignStmt){
-            genAssignStmt(assignStmt);
-        } else if(stmt instanceof  ExpStmt expStmt){
-            genExpStmt(expStmt);
-        } else if(stmt instanceof BlockStmt blockStmt) {
-            genBlockStmt(blockStmt);
-        } else if(stmt instanceof IfStmt ifStmt) {
-            genIfStmt(ifStmt);
-        } else if(stmt instanceof ForStmt forStmt){
-            genForStmt(forStmt);
-        } else if(stmt instanceof BreakStmt breakStmt){
-            genBreakStmt(breakStmt);
-        } else if(stmt instanceof ContinueStmt continueStmt){
-            genContinueStmt(continueStmt);
-        } else if(stmt instanceof ReturnStmt returnStmt){
-            genReturnStmt(returnStmt);
-        } else if(stmt instanceof  PrintfStmt printfStmt) {
-            genPrintfStmt(printfStmt);
-        }
+    private void genStmt(int stmt){
+        tree.acceptStmt(stmt, this);
     }
 
     // 语句 Stmt → LVal '=' Exp ';'
-    private void genAssignStmt(AssignStmt assignStmt){
-        if (assignStmt==null) return;
-        LVal lVal = assignStmt.getLVal();
-        Exp exp = assignStmt.getExp();
-
-        String value = genExp(exp);
-        String name = lVal.getIdent().getLexeme();
-        Symbol symbol = lookupSymbolVisible(name);
-        String irName;
-        if (symbol==null){
-            irName = name;
-        }else {
-            irName = irNameOf(symbol);
-        }
-
-        if (lVal.getIndex()==null){
-            irBuilder.emit("move",value,null,irName);
+    // 语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp } 中的一项
+    @Override
+    public void visitAssignStmt(int assignStmt){
+        int lVal = tree.child(assignStmt, 0);
+        int exp = tree.child(assignStmt, 1);
+
+        Operand value = genExp(exp);
+        Operand irName = operandOf(lVal);
+
+        int index = tree.child(lVal, 0);
+        if (index==NULL){
+            irBuilder.emit(Opcode.MOVE,value,null,irName);
         } else {
-            String place = genExp(lVal.getIndex());
-            irBuilder.emit("storearr", value, place,irName);
+            Operand place = genExp(index);
+            irBuilder.emit(Opcode.STOREARR, value, place,irName);
         }
     }
 
     // 语句 Stmt → [Exp] ';'
-    private void genExpStmt(ExpStmt expStmt){
-        if (expStmt==null) return;
-        Exp exp = expStmt.getExp();
-        if(exp!=null){
+    @Override
+    public void visitExpStmt(int expStmt){
+        int exp = tree.child(expStmt, 0);
+        if(exp!=NULL){
             genExp(exp);
         }
     }
 
-    // 语句 Stmt → Block
-    private void genBlockStmt(BlockStmt blockStmt){
-        if (blockStmt==null) return;
-        Block block= blockStmt.getBlock();
-        genBlock(block,true);
-    }
-
     // 语句 Stmt → 'if' '(' Cond ')' Stmt [ 'else' Stmt ]
-    private void genIfStmt(IfStmt ifStmt){
-        if(ifStmt == null) return;
-        Stmt thenStmt =ifStmt.getThenStmt();
-        Stmt elseStmt = ifStmt.getElseStmt();
-
-        if(elseStmt==null){
-            String endLabel =irBuilder.newLabel("if_end");
-            genCond(ifStmt.getCond(), endLabel);
+    @Override
+    public void visitIfStmt(int ifStmt){
+        int cond = tree.child(ifStmt, 0);
+        int thenStmt = tree.child(ifStmt, 1);
+        int elseStmt = tree.child(ifStmt, 2);
+
+        if(elseStmt==NULL){
+            Operand endLabel =irBuilder.newLabel("if_end");
+            genCond(cond, endLabel);
             genStmt(thenStmt);
-            irBuilder.emit("label",null,null, endLabel);
+            irBuilder.emit(Opcode.LABEL,null,null, endLabel);
         } else {
-            String elseLabel = irBuilder.newLabel("if_else");
-            String endLabel =irBuilder.newLabel("if_end");
-            genCond(ifStmt.getCond(),elseLabel);
+            Operand elseLabel = irBuilder.newLabel("if_else");
+            Operand endLabel =irBuilder.newLabel("if_end");
+            genCond(cond,elseLabel);
             genStmt(thenStmt);
-            irBuilder.emit("j",null,null,endLabel);
+            irBuilder.emit(Opcode.J,null,null,endLabel);
 
-            irBuilder.emit("label",null,null, elseLabel);
+            irBuilder.emit(Opcode.LABEL,null,null, elseLabel);
             genStmt(elseStmt);
 
-            irBuilder.emit("label",null,null, endLabel);
+            irBuilder.emit(Opcode.LABEL,null,null, endLabel);
 
         }
     }
 
     // 语句 Stmt → 'for' '(' [ForStmt] ';' [Cond] ';' [ForStmt] ')' Stmt
-    private void genForStmt(ForStmt forStmt){
-        if(forStmt==null) return;
+    @Override
+    public void visitForStmt(int forStmt){
+        int initCount = tree.value(forStmt);
+        int itemCount = tree.childCount(forStmt) - 2;
 
         //init
-        List<ForStmtItem> init = forStmt.getInit();
-        if (init !=null) {
-            for(ForStmtItem item: forStmt.getInit()){
-                genForStmtItem(item);
-            }
+        for (int i = 0; i < initCount; i++){
+            visitAssignStmt(tree.child(forStmt, i));
         }
 
-        Cond cond = forStmt.getCond();
-        Stmt body = forStmt.getBody();
-        List<ForStmtItem> updates = forStmt.getUpdate();
+        int cond = tree.child(forStmt, itemCount);
+        int body = tree.child(forStmt, itemCount + 1);
 
-        String condLabel = irBuilder.newLabel("for_cond");
-        String stepLabel = irBuilder.newLabel("for_step");
-        String endLabel = irBuilder.newLabel("for_end");
-        String continueTarget = (updates!=null && !updates.isEmpty()) ? stepLabel:condLabel;
+        Operand condLabel = irBuilder.newLabel("for_cond");
+        Operand stepLabel = irBuilder.newLabel("for_step");
+        Operand endLabel = irBuilder.newLabel("for_end");
+        Operand continueTarget = itemCount > initCount ? stepLabel:condLabel;
         breakLabelStack.add(endLabel);
         continueLabelStack.add(continueTarget);
-        irBuilder.emit("label", null, null, condLabel);
+        irBuilder.emit(Opcode.LABEL, null, null, condLabel);
 
-        if (cond!=null) genCond(cond,endLabel);
+        if (cond!=NULL) genCond(cond,endLabel);
         genStmt(body);
-        irBuilder.emit("label",null,null, stepLabel);
+        irBuilder.emit(Opcode.LABEL,null,null, stepLabel);
 
-        if (updates!=null) {
-            for (ForStmtItem item : updates){
-                genForStmtItem(item);
-            }
+        for (int i = initCount; i < itemCount; i++){
+            visitAssignStmt(tree.child(forStmt, i));
         }
-        irBuilder.emit("j", null, null, condLabel);
-        irBuilder.emit("label",null,null, endLabel);
+        irBuilder.emit(Opcode.J, null, null, condLabel);
+        irBuilder.emit(Opcode.LABEL,null,null, endLabel);
         breakLabelStack.remove(breakLabelStack.size()-1);
         continueLabelStack.remove(continueLabelStack.size()-1);
     }
 
-    // // 语句 Stmt → 'break' ';'
-    private void genBreakStmt(BreakStmt breakStmt){
-        if (breakStmt==null) return;
+    // 语句 Stmt → 'break' ';'
+    @Override
+    public void visitBreakStmt(int breakStmt){
         if (breakLabelStack.isEmpty()) return;
-        String target = breakLabelStack.get(breakLabelStack.size()-1);
-        irBuilder.emit("j", null, null, target);
+        Operand target = breakLabelStack.get(breakLabelStack.size()-1);
+        irBuilder.emit(Opcode.J, null, null, target);
     }
 
     // 语句 Stmt → 'continue' ';'
-    private void genContinueStmt(ContinueStmt continueStmt){
-        if (continueStmt==null) return;
+    @Override
+    public void visitContinueStmt(int continueStmt){
         if (continueLabelStack.isEmpty()) return;
-        String target = continueLabelStack.get(continueLabelStack.size()-1);
-        irBuilder.emit("j", null, null, target);
+        Operand target = continueLabelStack.get(continueLabelStack.size()-1);
+        irBuilder.emit(Opcode.J, null, null, target);
     }
 
     // 语句 Stmt → 'return' [Exp] ';'
-    private void genReturnStmt(ReturnStmt returnStmt){
-        if(returnStmt==null) return;
-        Exp exp = returnStmt.getExp();
-        if(exp!=null){
-            String place = genExp(exp);
-            irBuilder.emit("ret",place,null,null);
+    @Override
+    public void visitReturnStmt(int returnStmt){
+        int exp = tree.child(returnStmt, 0);
+        if(exp!=NULL){
+            Operand place = genExp(exp);
+            irBuilder.emit(Opcode.RET,place,null,null);
         } else {
-            irBuilder.emit("ret",null,null,null);
+            irBuilder.emit(Opcode.RET,null,null,null);
         }
     }
 
     // 语句 Stmt → 'printf''('StringConst {','Exp}')'';'
-    private void genPrintfStmt(PrintfStmt printfStmt){
-        if (printfStmt==null) return;
-        String content = printfStmt.getString().getLexeme();
+    @Override
+    public void visitPrintfStmt(int printfStmt){
+        String content = tree.literal(printfStmt);
         //去掉引号
         content = content.substring(1, content.length()-1);
 
-        List<Exp> args = printfStmt.getExps();
-        if (args==null){
-            args=List.of();
-        }
-
-        List<String> argsVal = new ArrayList<>();
-        for (Exp arg: args){
-            String val = genExp(arg);
-            String temp = irBuilder.newTemp();
-            irBuilder.emit("move", val, null, temp);
+        List<Operand> argsVal = new ArrayList<>();
+        for (int i = 0; i < tree.childCount(printfStmt); i++){
+            Operand val = genExp(tree.child(printfStmt, i));
+            Operand temp = irBuilder.newTemp();
+            irBuilder.emit(Opcode.MOVE, val, null, temp);
             argsVal.add(temp);
         }
 
@@ -599,12 +457,12 @@ public class IRGenerator {
             if (c=='%' && i+1<content.length() && content.charAt(i+1)=='d') {
                 //处理普通字符串
                 if(sb.length()>0){
-                    irBuilder.emit("print_str", sb.toString(), null,null);
+                    irBuilder.emit(Opcode.PRINT_STR, Operand.str(sb.toString()), null,null);
                     sb.setLength(0);
                 }
                 //处理%d
-                String value = argsVal.get(index++);
-                irBuilder.emit("print_int", value, null, null);
+                Operand value = argsVal.get(index++);
+                irBuilder.emit(Opcode.PRINT_INT, value, null, null);
                 i++;
             } else if (c=='\\' && i+1<content.length()){
                 char n = content.charAt(i+1);
@@ -620,117 +478,164 @@ public class IRGenerator {
         }
 
         if(sb.length()>0){
-            irBuilder.emit("print_str", sb.toString(),null,null);
+            irBuilder.emit(Opcode.PRINT_STR, Operand.str(sb.toString()),null,null);
         }
     }
 
+    /*
+        表达式 Exp → AddExp，结点为 BINARY_EXP / UNARY_EXP / CALL_EXP / LVAL / NUMBER
+        运算链沿左侧展开后从左到右生成：先算最左的运算数，之后每个右运算数算完再申请临时变量
+        与原先按 AddExp / MulExp 列表逐项生成的指令与编号相同
+     */
+    private Operand genExp(int exp){
+        return tree.acceptExp(exp, this);
+    }
 
-    //语句 ForStmt → LVal '=' Exp { ',' LVal '=' Exp }
-    private  void genForStmtItem(ForStmtItem forStmtItem){
-        if (forStmtItem==null) return;
-        LVal lVal = forStmtItem.getLVal();
-        Exp exp = forStmtItem.getExp();
-        if (lVal==null || exp==null) return;
-
-        String value = genExp(exp);
-        String name = lVal.getIdent().getLexeme();
-        Symbol symbol = lookupSymbolVisible(name);
-        String irName;
-        if(symbol==null){
-            irName=name;
-        } else {
-            irName=irNameOf(symbol);
-        }
+    @Override
+    public Operand visitMissingExp(int exp){
+        return null;
+    }
 
-        if(lVal.getIndex()==null){
-            irBuilder.emit("move", value, null, irName);
-        } else {
-            String index = genExp(lVal.getIndex());
-            irBuilder.emit("storearr", value, index, irName);
+    // 左结合运算链从上到下的结点压入 chain，最后一个结点的左子结点是最左运算数
+    private void pushLeftChain(int binaryExp){
+        int exp = binaryExp;
+        while (tree.kind(exp) == NodeKind.BINARY_EXP){
+            pushChain(exp);
+            exp = tree.child(exp, 0);
+        }
+    }
+
+    private void pushChain(int node){
+        if (chainTop == chain.length){
+            chain = Arrays.copyOf(chain, chainTop * 2);
+        }
+        chain[chainTop++] = node;
+    }
+
+    @Override
+    public Operand visitBinaryExp(int binaryExp){
+        int base = chainTop;
+        pushLeftChain(binaryExp);
+        int top = chainTop;
+        Operand left = genExp(tree.child(chain[top-1], 0));
+        for (int i = top-1; i>=base; i--){
+            int b = chain[i];
+            Operand right = genExp(tree.child(b, 1));
+            Operand temp = irBuilder.newTemp();
+            Opcode irOp = switch (tree.operator(b)) {
+                case MULT -> Opcode.MUL;
+                case DIV -> Opcode.DIV;
+                case MOD -> Opcode.MOD;
+                case PLUS -> Opcode.ADD;
+                case MINU -> Opcode.SUB;
+                case LSS -> Opcode.LT;
+                case LEQ -> Opcode.LE;
+                case GRE -> Opcode.GT;
+                case GEQ -> Opcode.GE;
+                case EQL -> Opcode.EQ;
+                case NEQ -> Opcode.NE;
+                default -> throw new IllegalStateException("Bad BinaryOp: " + tree.operator(b).getFixedLexeme());
+            };
+            irBuilder.emit(irOp, left, right, temp);
+            left = temp;
         }
+        chainTop = base;
+        return left;
     }
 
-    //表达式 Exp → AddExp
-    private String genExp(Exp exp){
-        if(exp==null) return null;
-        if(exp instanceof AddExp addExp){
-            return genAddExp(addExp);
+    private int evalExp(int exp){
+        switch (tree.kind(exp)) {
+            case NUMBER:
+                return tree.number(exp);
+            case LVAL:
+                return evalConstLVal(exp);
+            case UNARY_EXP:
+                return evalUnaryExp(exp);
+            case BINARY_EXP: {
+                int base = chainTop;
+                pushLeftChain(exp);
+                int top = chainTop;
+                int val = evalExp(tree.child(chain[top-1], 0));
+                for (int i = top-1; i>=base; i--){
+                    int b = chain[i];
+                    int right = evalExp(tree.child(b, 1));
+                    switch (tree.operator(b)){
+                        case MULT -> val *= right;
+                        case DIV -> val /= right;
+                        case MOD -> val %= right;
+                        case PLUS -> val += right;
+                        case MINU -> val -= right;
+                        default -> throw new IllegalStateException("not a const op: " + tree.operator(b).getFixedLexeme());
+                    }
+                }
+                chainTop = base;
+                return val;
+            }
+            default:
+                throw new IllegalStateException();
         }
-        throw new IllegalStateException("Bad Exp: " + exp.getClass());
     }
 
     //条件表达式 Cond → LOrExp
-    private void genCond(Cond cond, String falseLabel){
-        if(cond == null) return;
-        LOrExp lOrExp = cond.getlOrExp();
-        genLOrExp(lOrExp, falseLabel);
+    private void genCond(int cond, Operand falseLabel){
+        if(cond == NULL) return;
+        genLOrExp(cond, falseLabel);
     }
 
-    //左值表达式 LVal → Ident ['[' Exp ']']
-    private String genLVal(LVal lVal){
-        String name = lVal.getIdent().getLexeme();
-        Exp index=lVal.getIndex();
-        Symbol symbol = lookupSymbolVisible(name);
-
-        String irName;
-        if(symbol==null){
-            irName = name;
-        } else {
-            irName = irNameOf(symbol);
+    // 把 && / || 运算链展开成从左到右的运算数，压在 chain 上，返回个数
+    private int flatten(int exp, TokenType op){
+        int base = chainTop;
+        int cur = exp;
+        while (tree.kind(cur) == NodeKind.BINARY_EXP && tree.operator(cur)==op){
+            pushChain(tree.child(cur, 1));
+            cur = tree.child(cur, 0);
+        }
+        pushChain(cur);
+        for (int i = base, j = chainTop-1; i < j; i++, j--){
+            int t = chain[i];
+            chain[i] = chain[j];
+            chain[j] = t;
         }
+        return chainTop - base;
+    }
 
-        if (index==null){
-            String temp = irBuilder.newTemp();
-            irBuilder.emit("load",irName,null,temp);
+    //左值表达式 LVal → Ident ['[' Exp ']']
+    @Override
+    public Operand visitLVal(int lVal){
+        int index=tree.child(lVal, 0);
+        Symbol symbol = tree.symbol(lVal);
+        Operand irName = operandOf(lVal);
+
+        if (index==NULL){
+            Operand temp = irBuilder.newTemp();
+            irBuilder.emit(Opcode.LOAD,irName,null,temp);
             return temp;
         } else {
             if (symbol==null || !symbol.isArray()){
-                throw new IllegalStateException("indexing non-array: " + name);
+                throw new IllegalStateException("indexing non-array: " + names.getName(tree.nameId(lVal)));
             }
-            String place = genExp(index);
-            String temp= irBuilder.newTemp();
-            irBuilder.emit("loadarr",irName,place,temp);
+            Operand place = genExp(index);
+            Operand temp= irBuilder.newTemp();
+            irBuilder.emit(Opcode.LOADARR,irName,place,temp);
             return temp;
         }
     }
 
-    //基本表达式 PrimaryExp → '(' Exp ')' | LVal | Number
-    private String genPrimaryExp(PrimaryExp primaryExp){
-        Exp exp=primaryExp.getExp();
-        LVal lVal=primaryExp.getLVal();
-        Number number=primaryExp.getNumber();
-
-        if (exp!=null){
-            return genExp(exp);
-        } else if (lVal!=null){
-            return genLVal(lVal);
-        } else if (number!=null){
-            return genNumber(number);
-        }
-
-        return null;
-    }
-
-    private int evalPrimaryExp(PrimaryExp primaryExp){
-        if (primaryExp.getNumber()!=null) return primaryExp.getNumber().getValue();
-        if (primaryExp.getLVal()!=null) return evalConstLVal(primaryExp.getLVal());
-        if (primaryExp.getExp()!=null) return evalAddExp((AddExp) primaryExp.getExp());
-        throw new IllegalStateException();
-    }
-
-    private int evalConstLVal(LVal lVal){
-        String name = lVal.getIdent().getLexeme();
-        Symbol sym = lookupSymbolVisible(name);
+    private int evalConstLVal(int lVal){
+        String name = names.getName(tree.nameId(lVal));
+        Symbol sym = tree.symbol(lVal);
         if (sym == null) throw new IllegalStateException("const eval undefined: " + name);
-        String ir = irNameOf(sym);
 
-        if (lVal.getIndex() == null) {
-            Integer v = constScalar.get(ir);
+        int index = tree.child(lVal, 0);
+        if (index == NULL) {
+            Integer v = constScalar.get(sym);
+            if (v == null && outer != null) v = outer.constScalar.get(sym);
             if (v == null) throw new IllegalStateException("not a const scalar: " + name);
             return v;
         } else {
-            int idx = evalAddExp((AddExp) lVal.getIndex());  // 你的 Exp 实际就是 AddExp 体系
-            int[] arr = constArray.get(ir);
+            int idx = evalExp(index);
+            int[] arr = constArray.get(sym);
+            if (arr == null && outer != null) arr = outer.constArray.get(sym);
             if (arr == null) throw new IllegalStateException("not a const array: " + name);
             if (idx < 0 || idx >= arr.length) throw new IllegalStateException("const index out of range");
             return arr[idx];
@@ -738,368 +643,170 @@ public class IRGenerator {
     }
 
     //数值 Number → IntConst
-    private String genNumber(Number number){
-        int intConst = number.getValue();
-        return Integer.toString(intConst);
-    }
-
-    //一元表达式 UnaryExp → PrimaryExp | Ident '(' [FuncRParams] ')' | UnaryOp UnaryExp
-    private String genUnaryExp(UnaryExp unaryExp){
-        if (unaryExp==null) return null;
-
-        //PrimaryExp
-        PrimaryExp primaryExp = unaryExp.getPrimaryExp();
-        if (primaryExp!=null){
-            return genPrimaryExp(primaryExp);
-        }
-
-        //Ident '(' [FuncRParams] ')'
-        Token ident = unaryExp.getIdent();
-        if (ident!=null){
-            String funcName = ident.getLexeme();
-            FuncRParams funcRParams = unaryExp.getFuncRParams();
-
-            //getint()
-            if (funcName.equals("getint") && (funcRParams==null || funcRParams.getExps() == null || funcRParams.getExps().isEmpty())) {
-                String ret = irBuilder.newTemp();
-                irBuilder.emit("getint", null, null,ret);
-                return ret;
-            }
-
-            return genFuncRParams(funcRParams, funcName);
-        }
-
-        //UnaryOp UnaryExp
-        UnaryExp unary=unaryExp.getUnaryExp();
-        if (unary!=null){
-            String src = genUnaryExp(unary);
-            String op= unaryExp.getUnaryOp().getLexeme();
-
-            String temp= irBuilder.newTemp();
-            switch (op){
-                case "+":
-                    return src;
-                case "-":
-                    irBuilder.emit("neg",src,null,temp);
-                    return temp;
-                case "!":
-                    irBuilder.emit("not",src,null,temp);
-                    return temp;
+    @Override
+    public Operand visitNumber(int number){
+        int intConst = tree.number(number);
+        return Operand.imm(intConst);
+    }
+
+    //一元表达式 UnaryExp → UnaryOp UnaryExp
+    // 连续的一元运算先压入 chain，从最内层向外逐个生成，'+' 同样申请一个临时变量以保持编号不变
+    @Override
+    public Operand visitUnaryExp(int unaryExp){
+        int base = chainTop;
+        int operand = unaryExp;
+        while (tree.kind(operand) == NodeKind.UNARY_EXP){
+            pushChain(operand);
+            operand = tree.child(operand, 0);
+        }
+        Operand src = genExp(operand);
+        for (int i = chainTop-1; i>=base; i--){
+            Operand temp= irBuilder.newTemp();
+            switch (tree.operator(chain[i])){
+                case PLUS:
+                    break;
+                case MINU:
+                    irBuilder.emit(Opcode.NEG,src,null,temp);
+                    src = temp;
+                    break;
+                case NOT:
+                    irBuilder.emit(Opcode.NOT,src,null,temp);
+                    src = temp;
+                    break;
                 default:
-                    return null;
+                    src = null;
             }
         }
-
-        return null;
+        chainTop = base;
+        return src;
     }
 
-    private int evalUnaryExp(UnaryExp unaryExp){
-        if (unaryExp.getPrimaryExp()!=null) {
-            return evalPrimaryExp(unaryExp.getPrimaryExp());
+    private int evalUnaryExp(int unaryExp){
+        int base = chainTop;
+        int operand = unaryExp;
+        while (tree.kind(operand) == NodeKind.UNARY_EXP){
+            pushChain(operand);
+            operand = tree.child(operand, 0);
         }
-        if (unaryExp.getUnaryExp()!=null){
-            int value = evalUnaryExp(unaryExp.getUnaryExp());
-            String op = unaryExp.getUnaryOp().getLexeme();
-            return
-            switch (op){
-                case "+" -> value;
-                case "-" -> -value;
-                default -> throw new IllegalStateException("Unexpected value: " + op);
+        int value = evalExp(operand);
+        for (int i = chainTop-1; i>=base; i--){
+            TokenType op = tree.operator(chain[i]);
+            value = switch (op){
+                case PLUS -> value;
+                case MINU -> -value;
+                default -> throw new IllegalStateException("Unexpected value: " + op.getFixedLexeme());
             };
         }
-        throw new IllegalStateException();
+        chainTop = base;
+        return value;
+    }
+
+    //函数调用 UnaryExp → Ident '(' [FuncRParams] ')'
+    @Override
+    public Operand visitCallExp(int callExp){
+        String funcName = names.getName(tree.nameId(callExp));
+
+        //getint()
+        if (funcName.equals("getint") && tree.childCount(callExp)==0) {
+            Operand ret = irBuilder.newTemp();
+            irBuilder.emit(Opcode.GETINT, null, null,ret);
+            return ret;
+        }
+
+        return genFuncRParams(callExp, funcName);
     }
 
 
     private static class ArgPack{
         final boolean isAddr;
-        final String operand;
+        final Operand operand;
 
-        public ArgPack(boolean isAddr, String operand) {
+        public ArgPack(boolean isAddr, Operand operand) {
             this.isAddr = isAddr;
             this.operand = operand;
         }
     }
 
     //函数实参表达式 FuncRParams → Exp { ',' Exp }
-    private String genFuncRParams(FuncRParams funcRParams, String funcName){
-        List<Exp> exps;
-        if (funcRParams==null || funcRParams.getExps()==null){
-            exps = List.of();
-        } else {
-            exps=funcRParams.getExps();
-        }
-
+    private Operand genFuncRParams(int callExp, String funcName){
         //收集实参结果
         List<ArgPack> argPacks = new ArrayList<>();
 
-        for (Exp exp : exps){
-            LVal wholeArray = extractPlainLVal(exp);
-            if (wholeArray!=null && wholeArray.getIndex()==null){
-                String name = wholeArray.getIdent().getLexeme();
-                Symbol symbol = lookupSymbolVisible(name);
+        for (int i = 0; i < tree.childCount(callExp); i++){
+            int exp = tree.child(callExp, i);
+            // 整个数组作实参（括号不影响）
+            if (tree.kind(exp) == NodeKind.LVAL && tree.child(exp, 0)==NULL){
+                Symbol symbol = tree.symbol(exp);
                 if (symbol!=null && symbol.isArray()){
-                    String irName = irNameOf(symbol);
-                    argPacks.add(new ArgPack(true, irName));
+                    argPacks.add(new ArgPack(true, symbol.getIrOperand()));
                     continue;
                 }
             }
 
-            String value = genExp(exp);
+            Operand value = genExp(exp);
             argPacks.add(new ArgPack(false,value));
         }
 
         for(ArgPack argPack: argPacks){
             if (argPack.isAddr){
-                irBuilder.emit("param_addr", argPack.operand, null,null);
+                irBuilder.emit(Opcode.PARAM_ADDR, argPack.operand, null,null);
             } else {
-                irBuilder.emit("param_val", argPack.operand,null,null);
+                irBuilder.emit(Opcode.PARAM_VAL, argPack.operand,null,null);
             }
         }
 
-        Symbol funcSym = lookupFunc(funcName);
-        String size = Integer.toString(argPacks.size());
+        Symbol funcSym = tree.symbol(callExp);
+        Operand size = Operand.imm(argPacks.size());
         if(funcSym!=null && funcSym.isVoidFunc()){
-            irBuilder.emit("call",funcName,size,null);
+            irBuilder.emit(Opcode.CALL,Operand.name(funcName),size,null);
             return null;
         } else {
-            String ret =irBuilder.newTemp();
-            irBuilder.emit("call",funcName,size,ret);
+            Operand ret =irBuilder.newTemp();
+            irBuilder.emit(Opcode.CALL,Operand.name(funcName),size,ret);
             return ret;
         }
     }
 
-    private LVal extractPlainLVal(Exp exp) {
-        if (exp == null) return null;
-        if (!(exp instanceof AddExp addExp)) return null;
-        if (!addExp.getOperators().isEmpty() || addExp.getMulExps().size()!=1) return null;
-
-        Exp e1 = addExp.getMulExps().get(0);
-        if (!(e1 instanceof MulExp mulExp)) return null;
-
-        if (!mulExp.getOperators().isEmpty() || mulExp.getUnaryExps().size()!=1) return null;
-        Exp e2 = mulExp.getUnaryExps().get(0);
-        if (!(e2 instanceof UnaryExp unaryExp)) return null;
-
-        if (unaryExp.getPrimaryExp()==null || unaryExp.getIdent()!=null || unaryExp.getUnaryExp()!=null) return null;
-        PrimaryExp p = unaryExp.getPrimaryExp();
-
-        // PrimaryExp -> LVal
-        if (p.getLVal() != null && p.getExp() == null && p.getNumber() == null) {
-            return p.getLVal();
-        }
-
-        // PrimaryExp -> '(' Exp ')'
-        if (p.getExp() != null && p.getLVal() == null && p.getNumber() == null) {
-            return extractPlainLVal(p.getExp());
-        }
-        return null;
-    }
-
-    //乘除模表达式 MulExp → UnaryExp | MulExp ('*' | '/' | '%') UnaryExp
-    private String genMulExp(MulExp mulExp){
-        if(mulExp==null) return null;
-        List<Exp> factors = mulExp.getUnaryExps();
-        List<Token> ops = mulExp.getOperators();
-
-        String left = null;
-        if(!factors.isEmpty() && factors.get(0)instanceof UnaryExp uExp){
-            left = genUnaryExp(uExp);
-        }
-
-        for(int i=1; i<factors.size(); i++){
-            UnaryExp unaryExp = (UnaryExp) factors.get(i);
-            String right = genUnaryExp(unaryExp);
-            String temp = irBuilder.newTemp();
-            String op = ops.get(i-1).getLexeme();
-            switch (op){
-                case "*":
-                    irBuilder.emit("mul", left, right, temp);
-                    break;
-                case "/":
-                    irBuilder.emit("div", left, right, temp);
-                    break;
-                case "%":
-                    irBuilder.emit("mod", left, right, temp);
-                    break;
-                default:
-                    return null;
-            }
-            left = temp;
-        }
-        return left;
-    }
-
-    private int evalMulExp(MulExp mulExp){
-        int val = evalUnaryExp((UnaryExp)mulExp.getUnaryExps().get(0));
-        for (int i=1; i<mulExp.getUnaryExps().size();i++){
-            int right = evalUnaryExp((UnaryExp)mulExp.getUnaryExps().get(i));
-            String op = mulExp.getOperators().get(i-1).getLexeme();
-            switch (op){
-                case "*" -> val *= right;
-                case "/" -> val /= right;
-                case "%" -> val %= right;
-                default -> {}
-            }
-        }
-        return val;
-    }
-
-    //加减表达式 AddExp → MulExp | AddExp ('+' | '−') MulExp
-    private String genAddExp(AddExp addExp){
-        if(addExp==null)  return null;
-        List<Exp> terms = addExp.getMulExps();
-        List<Token> ops = addExp.getOperators();
-
-        String left = null;
-        if(!terms.isEmpty() && terms.get(0)instanceof MulExp mExp){
-            left = genMulExp(mExp);
-        }
-
-        for(int i = 1; i< terms.size(); i++){
-            MulExp mulExp = (MulExp) terms.get(i);
-            String right = genMulExp(mulExp);
-            String temp = irBuilder.newTemp();
-            String op = ops.get(i-1).getLexeme();
-            switch (op){
-                case "+":
-                    irBuilder.emit("add", left, right, temp);
-                    break;
-                case "-":
-                    irBuilder.emit("sub", left, right, temp);
-                    break;
-                default:
-                    return null;
-            }
-            left = temp;
-        }
-        return left;
-    }
-
-    private int evalAddExp(AddExp addExp){
-        int val = evalMulExp((MulExp)addExp.getMulExps().get(0));
-        for (int i=1; i<addExp.getMulExps().size();i++){
-            int right = evalMulExp((MulExp)addExp.getMulExps().get(i));
-            String op = addExp.getOperators().get(i-1).getLexeme();
-            val = op.equals("+") ? (val+right) : (val-right);
-        }
-        return val;
-    }
-
-    //关系表达式 RelExp → AddExp | RelExp ('<' | '>' | '<=' | '>=') AddExp
-    private String genRelExp(RelExp relExp){
-        if(relExp==null) return null;
-        List<Exp> addExps = relExp.getAddExps();
-        List<Token> ops =relExp.getOperators();
-        if (addExps.isEmpty()) return null;
-
-        String left = null;
-        if(addExps.get(0) instanceof AddExp addE){
-            left = genAddExp(addE);
-        }
-        if (ops.isEmpty()) return left;
-
-        for(int i=1; i<addExps.size(); i++){
-            AddExp addExp = (AddExp) addExps.get(i);
-            String right = genAddExp(addExp);
-            String temp = irBuilder.newTemp();
-            String op = ops.get(i-1).getLexeme();
-            String irOp = switch (op) {
-                case "<" -> "lt";
-                case "<=" -> "le";
-                case ">" -> "gt";
-                case ">=" -> "ge";
-                default -> throw new IllegalStateException("Bad RelOp");
-            };
-
-            irBuilder.emit(irOp, left, right, temp);
-            left=temp;
-        }
-        return left;
-    }
-
-    //相等性表达式 EqExp → RelExp | EqExp ('==' | '!=') RelExp
-    private String genEqExp(EqExp eqExp){
-        if(eqExp==null) return null;
-        List<Exp> relExps = eqExp.getRelExps();
-        List<Token> ops =eqExp.getOperators();
-        if (relExps.isEmpty()) return null;
-
-        String left = null;
-        if(relExps.get(0) instanceof RelExp relE){
-            left = genRelExp(relE);
-        }
-        if (ops.isEmpty()) return left;
-
-        for(int i=1; i<relExps.size(); i++){
-            RelExp relExp = (RelExp) relExps.get(i);
-            String right = genRelExp(relExp);
-            String temp = irBuilder.newTemp();
-            String op = ops.get(i-1).getLexeme();
-            String irOp = switch (op) {
-                case "==" -> "eq";
-                case "!=" -> "ne";
-                default -> throw new IllegalStateException("Bad EqOp");
-            };
-
-            irBuilder.emit(irOp, left, right, temp);
-            left=temp;
-        }
-        return left;
-    }
-
     //逻辑与表达式 LAndExp → EqExp | LAndExp '&&' EqExp
-    private void genLAndExp(LAndExp lAndExp, String falseLabel){
-        if (lAndExp==null) return;
-        List<Exp> eqExps0 = lAndExp.getEqExps();
-        if(eqExps0==null || eqExps0.isEmpty()) return;
-
-        for(Exp exp : eqExps0){
-            EqExp eqExp = (EqExp) exp;
-            String val = genEqExp(eqExp);
+    private void genLAndExp(int lAndExp, Operand falseLabel){
+        int base = chainTop;
+        int n = flatten(lAndExp, TokenType.AND);
+        for(int i=0; i<n; i++){
+            Operand val = genExp(chain[base+i]);
             // val=0 → false
-            irBuilder.emit("bez", val, null,falseLabel);
+            irBuilder.emit(Opcode.BEZ, val, null,falseLabel);
         }
+        chainTop = base;
     }
 
     //逻辑或表达式 LOrExp → LAndExp | LOrExp '||' LAndExp
-    private  void genLOrExp(LOrExp lOrExp, String falseLabel){
-        if (lOrExp==null) return;
-        List<Exp> ands0 = lOrExp.getLAndExps();
-        if(ands0 ==null || ands0.isEmpty() )  return;
-
-        List<LAndExp> ands=new ArrayList<>();
-        for (Exp exp:ands0){
-            ands.add((LAndExp) exp);
-        }
+    private  void genLOrExp(int lOrExp, Operand falseLabel){
+        int base = chainTop;
+        int n = flatten(lOrExp, TokenType.OR);
 
-        int n=ands.size();
         if (n==1){
-            genLAndExp(ands.get(0),falseLabel);
+            chainTop = base;
+            genLAndExp(lOrExp,falseLabel);
             return;
         }
-        String passLabel = irBuilder.newLabel("pass");
+        Operand passLabel = irBuilder.newLabel("pass");
 
         for(int i=0; i<n; i++){
-            LAndExp lAndExp = ands.get(i);
+            int lAndExp = chain[base+i];
             if(i!=n-1){
                 //false→下一个or
-                String nextLabel = irBuilder.newLabel("next");
+                Operand nextLabel = irBuilder.newLabel("next");
                 genLAndExp(lAndExp,nextLabel);
-                irBuilder.emit("j", null, null, passLabel);
-                irBuilder.emit("label", null, null, nextLabel);
+                irBuilder.emit(Opcode.J, null, null, passLabel);
+                irBuilder.emit(Opcode.LABEL, null, null, nextLabel);
 
             } else {
                 //最后一个or
                 genLAndExp(lAndExp,falseLabel);
             }
         }
-        irBuilder.emit("label", null, null, passLabel);
-    }
-
-    //常量表达式 ConstExp → AddExp
-    private int evalConstExp(ConstExp constExp){
-        return evalAddExp(constExp.getAddExp());
+        irBuilder.emit(Opcode.LABEL, null, null, passLabel);
+        chainTop = base;
     }
 
 }
@@ -0,0 +1,65 @@
+package midend.ir;
+
+/*
+    四元式的操作码，text 为 ir.txt 中的写法
+ */
+public enum Opcode {
+    // 声明与初值
+    DECL("decl"),
+    GDECL("gdecl"),
+    GINIT("ginit"),
+    GINITARR("ginitarr"),
+    // 数据移动
+    MOVE("move"),
+    LOAD("load"),
+    LOADARR("loadarr"),
+    STOREARR("storearr"),
+    // 运算
+    ADD("add"),
+    SUB("sub"),
+    MUL("mul"),
+    DIV("div"),
+    MOD("mod"),
+    LT("lt"),
+    LE("le"),
+    GT("gt"),
+    GE("ge"),
+    EQ("eq"),
+    NE("ne"),
+    NEG("neg"),
+    NOT("not"),
+    // 控制流
+    LABEL("label"),
+    J("j"),
+    BEZ("bez"),
+    // 函数
+    FUNC("func"),
+    ENDFUNC("endfunc"),
+    FPARAM("fparam"),
+    FPARAM_ARR("fparam_arr"),
+    PARAM_VAL("param_val"),
+    PARAM_ADDR("param_addr"),
+    CALL("call"),
+    RET("ret"),
+    // 输入输出
+    PRINT_INT("print_int"),
+    PRINT_STR("print_str"),
+    GETINT("getint"),
+    // SSA 形式中才有，见 Phi
+    PHI("phi");
+
+    private final String text;
+
+    Opcode(String text) {
+        this.text = text;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+}
@@ -0,0 +1,142 @@
+package midend.ir;
+
+/*
+    四元式的操作数，种类在构造时确定，后端按种类分派，不再由名字前缀或能否解析成整数来判断
+        TEMP    tN          临时变量，id 为编号
+        LOCAL   vN_x        普通局部变量，id 为作用域编号，name 为源程序中的名字
+        PARAM   pN_x        形参
+        STATIC  sN_x        static 局部变量
+        GLOBAL  g_x         全局变量
+        IMM     整数常量，id 即其值
+        LABEL   LN_name     标签，id 为编号，name 为后缀（可能为空）
+        NAME    函数名；未解析的名字也按原样放在这里
+        STR     print_str 输出的字符串
+    toString 与原先字符串形式的 IR 相同，ir.txt 不变
+    变量的操作数每个符号一个，由 Visitor 在定义时创建；临时变量与标签每次申请一个；小整数常量共用
+ */
+public final class Operand {
+    public enum Kind {
+        TEMP, LOCAL, PARAM, STATIC, GLOBAL, IMM, LABEL, NAME, STR
+    }
+
+    private static final int CACHE_LOW = -128;
+    private static final int CACHE_HIGH = 1024;
+    private static final Operand[] IMM_CACHE = new Operand[CACHE_HIGH - CACHE_LOW + 1];
+
+    static {
+        for (int i = 0; i < IMM_CACHE.length; i++) {
+            IMM_CACHE[i] = new Operand(Kind.IMM, CACHE_LOW + i, null, null);
+        }
+    }
+
+    private final Kind kind;
+    private final int id;
+    private final String name;
+    // 变量、函数名与字符串的 IR 写法，构造时拼好
+    private final String text;
+
+    private Operand(Kind kind, int id, String name, String text) {
+        this.kind = kind;
+        this.id = id;
+        this.name = name;
+        this.text = text;
+    }
+
+    public static Operand temp(int id) {
+        return new Operand(Kind.TEMP, id, null, null);
+    }
+
+    // suffix 为空串或 "_name"
+    public static Operand label(int id, String suffix) {
+        return new Operand(Kind.LABEL, id, suffix, null);
+    }
+
+    public static Operand local(int scopeId, String name) {
+        return new Operand(Kind.LOCAL, scopeId, name, "v" + scopeId + "_" + name);
+    }
+
+    public static Operand param(int scopeId, String name) {
+        return new Operand(Kind.PARAM, scopeId, name, "p" + scopeId + "_" + name);
+    }
+
+    public static Operand staticLocal(int scopeId, String name) {
+        return new Operand(Kind.STATIC, scopeId, name, "s" + scopeId + "_" + name);
+    }
+
+    public static Operand global(String name) {
+        return new Operand(Kind.GLOBAL, 0, name, "g_" + name);
+    }
+
+    public static Operand imm(int value) {
+        if (value >= CACHE_LOW && value <= CACHE_HIGH) {
+            return IMM_CACHE[value - CACHE_LOW];
+        }
+        return new Operand(Kind.IMM, value, null, null);
+    }
+
+    public static Operand name(String name) {
+        return new Operand(Kind.NAME, 0, name, name);
+    }
+
+    public static Operand str(String content) {
+        return new Operand(Kind.STR, 0, content, content);
+    }
+
+    public Kind getKind() {
+        return kind;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    // 常量的值
+    public int getValue() {
+        return id;
+    }
+
+    // 变量在源程序中的名字、标签后缀、函数名或字符串内容
+    public String getName() {
+        return name;
+    }
+
+    public boolean isImm() {
+        return kind == Kind.IMM;
+    }
+
+    public boolean isTemp() {
+        return kind == Kind.TEMP;
+    }
+
+    public boolean isParam() {
+        return kind == Kind.PARAM;
+    }
+
+    // 放在数据段、按标签访问：全局变量与 static 局部变量
+    public boolean isGlobal() {
+        return kind == Kind.GLOBAL || kind == Kind.STATIC;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Operand other)) return false;
+        if (kind != other.kind || id != other.id) return false;
+        return name == null ? other.name == null : name.equals(other.name);
+    }
+
+    @Override
+    public int hashCode() {
+        return (kind.ordinal() * 31 + id) * 31 + (name == null ? 0 : name.hashCode());
+    }
+
+    @Override
+    public String toString() {
+        return switch (kind) {
+            case TEMP -> "t" + id;
+            case LABEL -> "L" + id + name;
+            case IMM -> Integer.toString(id);
+            default -> text;
+        };
+    }
+}
@@ -0,0 +1,35 @@
+package midend.ir;
+
+/*
+    SSA 形式中的 φ 函数：res 取 args[i]，i 为控制从所在块的第 i 个前驱进入
+    只在 midend.ssa 构造与消去之间出现，后端不认识它
+    ir.txt 中写作 phi res, a0, a1, ...，按前驱顺序
+ */
+public class Phi extends Quad {
+    // 被替换的变量
+    private final Operand variable;
+    private final Operand[] args;
+
+    public Phi(Operand variable, Operand res, int predCount) {
+        super(Opcode.PHI, null, null, res);
+        this.variable = variable;
+        this.args = new Operand[predCount];
+    }
+
+    public Operand getVariable() {
+        return variable;
+    }
+
+    public Operand[] getArgs() {
+        return args;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("phi ").append(res);
+        for (Operand arg : args) {
+            sb.append(", ").append(arg);
+        }
+        return sb.toString();
+    }
+}
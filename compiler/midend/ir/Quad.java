@@ -1,43 +1,51 @@
 package midend.ir;
 
 public class Quad {
-    public final String op;
-    public final String arg1;
-    public final String arg2;
-    public final String res;
+    public final Opcode op;
+    public final Operand arg1;
+    public final Operand arg2;
+    public final Operand res;
 
-    public Quad(String op, String arg1, String arg2, String res) {
+    public Quad(Opcode op, Operand arg1, Operand arg2, Operand res) {
         this.op = op;
         this.arg1 = arg1;
         this.arg2 = arg2;
         this.res = res;
     }
 
+    // 写 res 的四元式；storearr 的 res 是数组，标签类的 res 是跳转目标，都不算
+    public boolean definesRes() {
+        return switch (op) {
+            case MOVE, LOAD, LOADARR, ADD, SUB, MUL, DIV, MOD, LT, LE, GT, GE, EQ, NE, NEG, NOT, CALL, GETINT, PHI -> res != null;
+            default -> false;
+        };
+    }
+
     @Override
     public String toString() {
         return switch (op){
-            case "decl","gdecl" -> op+" " + arg1 + ", " + (arg2==null ?"1":arg2) ;
-            case "move", "ginit" -> op +" " +arg1+ ", " + res;
-            case "storearr", "ginitarr"-> op +" " + arg1 + ", " + arg2 + ", "+res ;
-            case "load"-> "load " + arg1 + ", "+res ;
-            case "loadarr"->"loadarr "+arg1 + ", " + arg2 + ", "+res ;
-            case "add", "sub", "mul", "div", "mod", "lt", "le", "gt", "ge", "eq","ne"-> op+ " " + arg1+ ", " +arg2+ ", " + res;
-            case "neg" , "not" -> op+" " +arg1+ ", " + res;
-            case "label" -> res+":";
-            case "j" -> "j " + res;
-            case "bez" -> "bez " + arg1 + ", "+ res;
-            case "func" -> "func "+arg1;
-            case "endfunc" -> "endfunc " + arg1;
-            case "fparam" -> "fparam " + arg1;
-            case "fparam_arr" -> "fparam_arr " + arg1;
-            case "param_val" -> "param_val " + arg1;
-            case "param_addr" -> "param_addr " + arg1;
-            case "call" -> res==null ? ("call " + arg1 + ", "+arg2) : ("call " + arg1 + ", " + arg2 + ", " +res);
-            case "ret" -> arg1==null ? "ret" : "ret " + arg1;
-            case "print_int" -> "print_int " + arg1;
-            case "print_str" -> "print_str " + str(arg1);
-            case "getint" -> "getint() "+res;
-            default -> op+" "+arg1+", "+arg2+", "+res;
+            case DECL, GDECL -> op+" " + arg1 + ", " + (arg2==null ?"1":arg2) ;
+            case MOVE, GINIT -> op +" " +arg1+ ", " + res;
+            case STOREARR, GINITARR -> op +" " + arg1 + ", " + arg2 + ", "+res ;
+            case LOAD -> "load " + arg1 + ", "+res ;
+            case LOADARR ->"loadarr "+arg1 + ", " + arg2 + ", "+res ;
+            case ADD, SUB, MUL, DIV, MOD, LT, LE, GT, GE, EQ, NE -> op+ " " + arg1+ ", " +arg2+ ", " + res;
+            case NEG, NOT -> op+" " +arg1+ ", " + res;
+            case LABEL -> res+":";
+            case J -> "j " + res;
+            case BEZ -> "bez " + arg1 + ", "+ res;
+            case FUNC -> "func "+arg1;
+            case ENDFUNC -> "endfunc " + arg1;
+            case FPARAM -> "fparam " + arg1;
+            case FPARAM_ARR -> "fparam_arr " + arg1;
+            case PARAM_VAL -> "param_val " + arg1;
+            case PARAM_ADDR -> "param_addr " + arg1;
+            case CALL -> res==null ? ("call " + arg1 + ", "+arg2) : ("call " + arg1 + ", " + arg2 + ", " +res);
+            case RET -> arg1==null ? "ret" : "ret " + arg1;
+            case PRINT_INT -> "print_int " + arg1;
+            case PRINT_STR -> "print_str " + str(arg1==null ? null : arg1.getName());
+            case GETINT -> "getint() "+res;
+            case PHI -> "phi "+res;
         };
     }
 
@@ -0,0 +1,102 @@
+package midend.pass;
+
+import midend.cfg.BasicBlock;
+import midend.cfg.ControlFlowGraph;
+import midend.cfg.DominatorTree;
+import midend.ir.IRBuilder;
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/*
+    复制传播：只写一次的临时变量 t 由 move s, t 得到，s 为常量或只写一次、且定义支配这条 move 的临时变量时，
+    t 的每次读取都换成 s（沿 move 链取到底）；move 本身留给 dce 删除
+    读取的位置只限值操作数，数组、函数名、load 的变量都不换
+ */
+public class CopyPropagationPass extends FunctionPass {
+
+    @Override
+    public String getName() {
+        return "copyprop";
+    }
+
+    @Override
+    protected ControlFlowGraph runOnFunction(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        Map<Operand, Integer> defCount = new HashMap<>();
+        Map<Operand, BasicBlock> defBlock = new HashMap<>();
+        Map<Operand, Integer> defIndex = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            List<Quad> quads = block.getQuads();
+            for (int i = 0; i < quads.size(); i++) {
+                Quad quad = quads.get(i);
+                if (quad.definesRes() && quad.res.isTemp()) {
+                    defCount.merge(quad.res, 1, Integer::sum);
+                    defBlock.put(quad.res, block);
+                    defIndex.put(quad.res, i);
+                }
+            }
+        }
+
+        DominatorTree dom = cfg.getDominators();
+        Map<Operand, Operand> copies = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            List<Quad> quads = block.getQuads();
+            for (int i = 0; i < quads.size(); i++) {
+                Quad quad = quads.get(i);
+                if (quad.op != Opcode.MOVE || !quad.res.isTemp() || defCount.get(quad.res) != 1) continue;
+                Operand src = quad.arg1;
+                if (src.isImm()) {
+                    copies.put(quad.res, src);
+                } else if (src.isTemp() && defCount.getOrDefault(src, 0) == 1) {
+                    BasicBlock srcBlock = defBlock.get(src);
+                    boolean dominated = srcBlock == block ? defIndex.get(src) < i : dom.dominates(srcBlock, block);
+                    if (dominated) {
+                        copies.put(quad.res, src);
+                    }
+                }
+            }
+        }
+        if (copies.isEmpty()) {
+            return cfg;
+        }
+
+        for (BasicBlock block : cfg.getBlocks()) {
+            List<Quad> quads = block.getQuads();
+            for (int i = 0; i < quads.size(); i++) {
+                quads.set(i, rewrite(quads.get(i), copies));
+            }
+        }
+        return cfg;
+    }
+
+    private static Quad rewrite(Quad quad, Map<Operand, Operand> copies) {
+        Operand arg1 = quad.arg1, arg2 = quad.arg2;
+        switch (quad.op) {
+            case MOVE, NEG, NOT, BEZ, PARAM_VAL, RET, PRINT_INT -> arg1 = resolve(arg1, copies);
+            case ADD, SUB, MUL, DIV, MOD, LT, LE, GT, GE, EQ, NE, STOREARR -> {
+                arg1 = resolve(arg1, copies);
+                arg2 = resolve(arg2, copies);
+            }
+            case LOADARR -> arg2 = resolve(arg2, copies);
+            default -> {
+                return quad;
+            }
+        }
+        return arg1 == quad.arg1 && arg2 == quad.arg2 ? quad : new Quad(quad.op, arg1, arg2, quad.res);
+    }
+
+    // 源的定义支配复制，链上不会成环
+    private static Operand resolve(Operand operand, Map<Operand, Operand> copies) {
+        if (operand == null) return null;
+        Operand src = copies.get(operand);
+        while (src != null) {
+            operand = src;
+            src = copies.get(operand);
+        }
+        return operand;
+    }
+}
@@ -0,0 +1,84 @@
+package midend.pass;
+
+import midend.cfg.BasicBlock;
+import midend.cfg.ControlFlowGraph;
+import midend.ir.IRBuilder;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    删去结果没有被读取的临时变量的定义，只删没有副作用的四元式（call / getint 保留）
+    删掉一条后它读取的临时变量可能也不再被读取，用工作表一直删到不变
+ */
+public class DeadCodePass extends FunctionPass {
+
+    @Override
+    public String getName() {
+        return "dce";
+    }
+
+    @Override
+    protected ControlFlowGraph runOnFunction(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        Map<Operand, Integer> uses = new HashMap<>();
+        Map<Operand, List<Quad>> defs = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Quad quad : block.getQuads()) {
+                countUse(quad.arg1, uses, 1);
+                countUse(quad.arg2, uses, 1);
+                if (isPure(quad) && quad.res.isTemp()) {
+                    defs.computeIfAbsent(quad.res, k -> new ArrayList<>()).add(quad);
+                }
+            }
+        }
+
+        List<Operand> worklist = new ArrayList<>();
+        for (Operand temp : defs.keySet()) {
+            if (!uses.containsKey(temp)) worklist.add(temp);
+        }
+        if (worklist.isEmpty()) {
+            return cfg;
+        }
+        Set<Quad> dead = new HashSet<>();
+        while (!worklist.isEmpty()) {
+            Operand temp = worklist.remove(worklist.size() - 1);
+            for (Quad quad : defs.get(temp)) {
+                if (!dead.add(quad)) continue;
+                for (Operand arg : new Operand[]{quad.arg1, quad.arg2}) {
+                    if (countUse(arg, uses, -1) == 0 && defs.containsKey(arg)) {
+                        worklist.add(arg);
+                    }
+                }
+            }
+        }
+        for (BasicBlock block : cfg.getBlocks()) {
+            block.getQuads().removeIf(dead::contains);
+        }
+        return cfg;
+    }
+
+    private static boolean isPure(Quad quad) {
+        return switch (quad.op) {
+            case MOVE, LOAD, LOADARR, ADD, SUB, MUL, DIV, MOD, LT, LE, GT, GE, EQ, NE, NEG, NOT -> quad.res != null;
+            default -> false;
+        };
+    }
+
+    // 只统计临时变量，返回更新后的次数；不是临时变量时返回 -1
+    private static int countUse(Operand operand, Map<Operand, Integer> uses, int delta) {
+        if (operand == null || !operand.isTemp()) return -1;
+        int count = uses.getOrDefault(operand, 0) + delta;
+        if (count == 0) {
+            uses.remove(operand);
+        } else {
+            uses.put(operand, count);
+        }
+        return count;
+    }
+}
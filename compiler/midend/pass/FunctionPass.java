@@ -0,0 +1,44 @@
+package midend.pass;
+
+import midend.cfg.ControlFlowGraph;
+import midend.ir.IRBuilder;
+import midend.ir.Opcode;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    逐个函数处理的 pass：func 与 endfunc 之间的四元式建成 CFG 交给 runOnFunction，返回的 CFG 按块顺序拼回
+    全局部分与 func / endfunc 原样保留
+    CFG 的各块持有自己的四元式列表，runOnFunction 可以直接改动它们
+ */
+public abstract class FunctionPass implements IRPass {
+
+    @Override
+    public List<Quad> run(List<Quad> ir, IRBuilder irBuilder) {
+        List<Quad> result = new ArrayList<>(ir.size());
+        int i = 0, n = ir.size();
+        while (i < n) {
+            Quad quad = ir.get(i);
+            if (quad.op != Opcode.FUNC) {
+                result.add(quad);
+                i++;
+                continue;
+            }
+            int j = i + 1;
+            while (j < n && ir.get(j).op != Opcode.ENDFUNC) j++;
+            ControlFlowGraph cfg = ControlFlowGraph.build(quad.arg1.toString(), ir.subList(i + 1, j));
+            result.add(quad);
+            result.addAll(runOnFunction(cfg, irBuilder).toQuads());
+            if (j < n) {
+                result.add(ir.get(j));
+            }
+            i = j + 1;
+        }
+        return result;
+    }
+
+    // 返回处理后的 CFG，可以是 cfg 本身
+    protected abstract ControlFlowGraph runOnFunction(ControlFlowGraph cfg, IRBuilder irBuilder);
+}
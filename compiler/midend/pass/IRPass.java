@@ -0,0 +1,18 @@
+package midend.pass;
+
+import midend.ir.IRBuilder;
+import midend.ir.Quad;
+
+import java.util.List;
+
+/*
+    对整个程序 IR 的一次变换，由 PassManager 按顺序调用
+    输入与输出都是 getIr() 形式的四元式序列（全局部分在前，之后各函数）；新的临时变量与标签向 irBuilder 申请
+    不能修改输入的列表，需要改动时返回新的列表
+ */
+public interface IRPass {
+    // 命令行 --passes 与 ir 转储文件名中使用的名字
+    String getName();
+
+    List<Quad> run(List<Quad> ir, IRBuilder irBuilder);
+}
@@ -0,0 +1,134 @@
+package midend.pass;
+
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+    检查整个程序的 IR 是否能交给后端：
+        函数之外只有 gdecl / ginit / ginitarr；func 与 endfunc 成对、不嵌套
+        每条四元式的操作数齐全，写入的位置不是常量、标签或字符串；不能有 phi
+        标签全程序唯一，跳转目标是本函数中的标签
+        读取的临时变量在本函数中有定义
+    返回发现的问题，每条一行，没有问题时为空
+ */
+public final class IRVerifier {
+    private final List<String> problems = new ArrayList<>();
+    private final Set<Operand> allLabels = new HashSet<>();
+    private String function;
+
+    private IRVerifier() {
+    }
+
+    public static List<String> verify(List<Quad> ir) {
+        IRVerifier verifier = new IRVerifier();
+        verifier.verifyProgram(ir);
+        return verifier.problems;
+    }
+
+    private void verifyProgram(List<Quad> ir) {
+        int i = 0, n = ir.size();
+        while (i < n) {
+            Quad quad = ir.get(i);
+            if (quad.op != Opcode.FUNC) {
+                function = null;
+                switch (quad.op) {
+                    case GDECL -> require(quad, quad.arg1 != null, "missing variable");
+                    case GINIT, GINITARR -> require(quad, quad.arg1 != null && quad.res != null, "missing operand");
+                    default -> report(quad, "outside any function");
+                }
+                i++;
+                continue;
+            }
+            function = String.valueOf(quad.arg1);
+            int j = i + 1;
+            while (j < n && ir.get(j).op != Opcode.ENDFUNC && ir.get(j).op != Opcode.FUNC) j++;
+            if (j == n || ir.get(j).op == Opcode.FUNC) {
+                report(quad, "no matching endfunc");
+            } else if (!String.valueOf(ir.get(j).arg1).equals(function)) {
+                report(ir.get(j), "ends a different function");
+            }
+            verifyFunction(ir.subList(i + 1, j));
+            i = j < n && ir.get(j).op == Opcode.ENDFUNC ? j + 1 : j;
+        }
+    }
+
+    private void verifyFunction(List<Quad> body) {
+        Set<Operand> labels = new HashSet<>();
+        Set<Operand> defined = new HashSet<>();
+        for (Quad quad : body) {
+            if (quad.op == Opcode.LABEL) {
+                labels.add(quad.res);
+                if (!allLabels.add(quad.res)) {
+                    report(quad, "duplicate label");
+                }
+            }
+            if (quad.definesRes()) {
+                defined.add(quad.res);
+            }
+        }
+        for (Quad quad : body) {
+            verifyQuad(quad);
+            if ((quad.op == Opcode.J || quad.op == Opcode.BEZ) && quad.res != null && !labels.contains(quad.res)) {
+                report(quad, "jumps to a label outside the function");
+            }
+            for (Operand arg : new Operand[]{quad.arg1, quad.arg2}) {
+                if (arg != null && arg.isTemp() && !defined.contains(arg)) {
+                    report(quad, arg + " is never defined");
+                }
+            }
+        }
+    }
+
+    private void verifyQuad(Quad quad) {
+        switch (quad.op) {
+            case DECL -> require(quad, quad.arg1 != null, "missing variable");
+            case MOVE, LOAD, NEG, NOT -> {
+                require(quad, quad.arg1 != null, "missing operand");
+                require(quad, writable(quad.res), "bad result");
+            }
+            case ADD, SUB, MUL, DIV, MOD, LT, LE, GT, GE, EQ, NE, LOADARR -> {
+                require(quad, quad.arg1 != null && quad.arg2 != null, "missing operand");
+                require(quad, writable(quad.res), "bad result");
+            }
+            case STOREARR -> require(quad, quad.arg1 != null && quad.arg2 != null && writable(quad.res), "missing operand");
+            case LABEL, J -> require(quad, isLabel(quad.res), "bad label");
+            case BEZ -> {
+                require(quad, quad.arg1 != null, "missing condition");
+                require(quad, isLabel(quad.res), "bad label");
+            }
+            case FPARAM, FPARAM_ARR, PARAM_VAL, PARAM_ADDR, PRINT_INT -> require(quad, quad.arg1 != null, "missing operand");
+            case CALL -> require(quad, quad.arg1 != null && (quad.res == null || writable(quad.res)), "bad call");
+            case GETINT -> require(quad, writable(quad.res), "bad result");
+            case RET, PRINT_STR -> {}
+            case PHI -> report(quad, "phi outside SSA form");
+            case FUNC, ENDFUNC -> report(quad, "nested function");
+            case GDECL, GINIT, GINITARR -> report(quad, "global declaration inside a function");
+        }
+    }
+
+    private static boolean writable(Operand operand) {
+        if (operand == null) return false;
+        return switch (operand.getKind()) {
+            case IMM, LABEL, STR -> false;
+            default -> true;
+        };
+    }
+
+    private static boolean isLabel(Operand operand) {
+        return operand != null && operand.getKind() == Operand.Kind.LABEL;
+    }
+
+    private void require(Quad quad, boolean ok, String problem) {
+        if (!ok) report(quad, problem);
+    }
+
+    private void report(Quad quad, String problem) {
+        problems.add((function == null ? "" : function + ": ") + quad + ": " + problem);
+    }
+}
@@ -0,0 +1,68 @@
+package midend.pass;
+
+import midend.cfg.BasicBlock;
+import midend.cfg.ControlFlowGraph;
+import midend.ir.IRBuilder;
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/*
+    跳转化简：
+        目标就是紧跟着的标签（中间只隔着标签）的 j / bez 删去
+        没有跳转引用的标签删去，前后两块合成一块，后端在标签处不必再把寄存器全部写回
+        之后从入口不可达的块删去
+ */
+public class JumpCleanupPass extends FunctionPass {
+
+    @Override
+    public String getName() {
+        return "jumps";
+    }
+
+    @Override
+    protected ControlFlowGraph runOnFunction(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        List<Quad> quads = cfg.toQuads();
+        List<Quad> kept = new ArrayList<>(quads.size());
+        for (int i = 0; i < quads.size(); i++) {
+            Quad quad = quads.get(i);
+            if ((quad.op == Opcode.J || quad.op == Opcode.BEZ) && jumpsToNext(quads, i)) continue;
+            kept.add(quad);
+        }
+        Set<Operand> targets = new HashSet<>();
+        for (Quad quad : kept) {
+            if (quad.op == Opcode.J || quad.op == Opcode.BEZ) {
+                targets.add(quad.res);
+            }
+        }
+        kept.removeIf(quad -> quad.op == Opcode.LABEL && !targets.contains(quad.res));
+        if (kept.size() == quads.size()) {
+            return cfg;
+        }
+
+        ControlFlowGraph result = ControlFlowGraph.build(cfg.getName(), kept);
+        if (result.reversePostOrder().size() == result.getBlocks().size()) {
+            return result;
+        }
+        List<Quad> reachable = new ArrayList<>(kept.size());
+        for (BasicBlock block : result.getBlocks()) {
+            if (block.isReachable()) {
+                reachable.addAll(block.getQuads());
+            }
+        }
+        return ControlFlowGraph.build(cfg.getName(), reachable);
+    }
+
+    private static boolean jumpsToNext(List<Quad> quads, int i) {
+        Operand target = quads.get(i).res;
+        for (int k = i + 1; k < quads.size() && quads.get(k).op == Opcode.LABEL; k++) {
+            if (quads.get(k).res.equals(target)) return true;
+        }
+        return false;
+    }
+}
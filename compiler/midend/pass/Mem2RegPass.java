@@ -0,0 +1,23 @@
+package midend.pass;
+
+import midend.cfg.ControlFlowGraph;
+import midend.ir.IRBuilder;
+import midend.ssa.SsaConstructor;
+import midend.ssa.SsaDestructor;
+
+/*
+    局部标量变量提升为临时变量：转成 SSA 再立即消去，见 SsaConstructor / SsaDestructor
+    每次读变量不再 load 到新的临时变量，赋值多数直接并入产生值的四元式；不可达的块一并去掉
+ */
+public class Mem2RegPass extends FunctionPass {
+
+    @Override
+    public String getName() {
+        return "mem2reg";
+    }
+
+    @Override
+    protected ControlFlowGraph runOnFunction(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        return SsaDestructor.destruct(SsaConstructor.construct(cfg, irBuilder), irBuilder);
+    }
+}
@@ -0,0 +1,128 @@
+package midend.pass;
+
+import midend.ir.IRBuilder;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/*
+    位于 IRGenerator 与 MipsGenerator 之间，按顺序运行一组 IR pass
+        预设：-O0 不做变换，-O1 为 mem2reg，-O2 再加 copyprop、dce、jumps；也可以用 --passes 直接给出名字列表
+        每个 pass 记录耗时与前后的四元式数，见 getEntries
+        开启校验时在第一个 pass 之前与每个 pass 之后用 IRVerifier 检查，有问题时抛出 IllegalStateException，指明是哪个 pass 之后
+        dumpAfter 中的 pass（或 "all"）运行完后保留一份 IR，文件名为 ir.<序号>.<名字>.txt，见 getDumps
+ */
+public class PassManager {
+    public static final String DUMP_ALL = "all";
+    private static final Map<String, Supplier<IRPass>> PASSES = new LinkedHashMap<>();
+
+    static {
+        register(Mem2RegPass::new);
+        register(CopyPropagationPass::new);
+        register(DeadCodePass::new);
+        register(JumpCleanupPass::new);
+    }
+
+    private final List<IRPass> passes = new ArrayList<>();
+    private boolean verify = false;
+    private Set<String> dumpAfter = Set.of();
+    private final List<Entry> entries = new ArrayList<>();
+    private final Map<String, List<Quad>> dumps = new LinkedHashMap<>();
+
+    public static class Entry {
+        public final String pass;
+        public final long nanos;
+        public final int quadsBefore;
+        public final int quadsAfter;
+
+        Entry(String pass, long nanos, int quadsBefore, int quadsAfter) {
+            this.pass = pass;
+            this.nanos = nanos;
+            this.quadsBefore = quadsBefore;
+            this.quadsAfter = quadsAfter;
+        }
+    }
+
+    private static void register(Supplier<IRPass> factory) {
+        PASSES.put(factory.get().getName(), factory);
+    }
+
+    public static boolean isPass(String name) {
+        return PASSES.containsKey(name);
+    }
+
+    public static Set<String> getPassNames() {
+        return PASSES.keySet();
+    }
+
+    // 各优化级别的 pass 序列；超过 2 按 2 处理
+    public static List<String> preset(int level) {
+        if (level <= 0) return List.of();
+        if (level == 1) return List.of("mem2reg");
+        return List.of("mem2reg", "copyprop", "dce", "jumps");
+    }
+
+    public static PassManager of(List<String> names) {
+        PassManager manager = new PassManager();
+        for (String name : names) {
+            Supplier<IRPass> factory = PASSES.get(name);
+            if (factory == null) {
+                throw new IllegalArgumentException("unknown pass: " + name + ", expected one of " + PASSES.keySet());
+            }
+            manager.passes.add(factory.get());
+        }
+        return manager;
+    }
+
+    public PassManager setVerify(boolean verify) {
+        this.verify = verify;
+        return this;
+    }
+
+    public PassManager setDumpAfter(Set<String> dumpAfter) {
+        this.dumpAfter = dumpAfter;
+        return this;
+    }
+
+    public List<Quad> run(List<Quad> ir, IRBuilder irBuilder) {
+        if (verify) {
+            check(ir, "before the first pass");
+        }
+        for (int i = 0; i < passes.size(); i++) {
+            IRPass pass = passes.get(i);
+            int before = ir.size();
+            long start = System.nanoTime();
+            ir = pass.run(ir, irBuilder);
+            entries.add(new Entry(pass.getName(), System.nanoTime() - start, before, ir.size()));
+            if (verify) {
+                check(ir, "after pass " + pass.getName());
+            }
+            if (dumpAfter.contains(DUMP_ALL) || dumpAfter.contains(pass.getName())) {
+                dumps.put("ir." + (i + 1) + "." + pass.getName() + ".txt", ir);
+            }
+        }
+        return ir;
+    }
+
+    private static void check(List<Quad> ir, String when) {
+        List<String> problems = IRVerifier.verify(ir);
+        if (problems.isEmpty()) return;
+        int shown = Math.min(problems.size(), 10);
+        throw new IllegalStateException("invalid IR " + when + " (" + problems.size() + " problems):"
+                + System.lineSeparator() + String.join(System.lineSeparator(), problems.subList(0, shown)));
+    }
+
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    // 文件名 → 该 pass 之后的 IR，按运行顺序
+    public Map<String, List<Quad>> getDumps() {
+        return dumps;
+    }
+}
@@ -0,0 +1,344 @@
+package midend.ssa;
+
+import midend.cfg.BasicBlock;
+import midend.cfg.ControlFlowGraph;
+import midend.cfg.DominatorTree;
+import midend.ir.IRBuilder;
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Phi;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/*
+    把一个函数中的局部标量变量（vN_x，没有当作数组用过的）改写成 SSA 形式：
+        1. 去掉从入口不可达的块
+        2. 在定义所在块的迭代支配边界上放 φ，只为在某个块中先读后写（跨块活跃）的变量放
+        3. 沿支配树先序重命名，每个变量一个当前值：
+               move src, v    src 为常量或只写一次的临时变量时 v 的当前值直接取 src，这条 move 删去；否则写到新的临时变量
+               load v, t      改为 move 当前值, t
+               decl v         删去；此前没有赋值的读取得到 0
+           φ 的结果为新的临时变量，每个块处理完后填其后继中 φ 的对应参数
+        4. 反复删去结果没有被用到的 φ
+    之后这些变量不再出现；临时变量与标签都由 IRBuilder 接着全程序的编号申请
+    decl 不算赋值：循环体中声明的变量在下一轮仍是上一轮的值，与放在栈帧中时相同
+ */
+public final class SsaConstructor {
+    private final ControlFlowGraph cfg;
+    private final IRBuilder irBuilder;
+    private final Map<Operand, Integer> varIndex = new HashMap<>();
+    private final List<Operand> vars = new ArrayList<>();
+    // 被写过不止一次的临时变量（例如消去 φ 时加的复制），v 不能直接取它们的值
+    private final Set<Operand> reassignedTemps = new HashSet<>();
+    // 按块编号：块中的 φ
+    private final List<List<Phi>> phis = new ArrayList<>();
+
+    private SsaConstructor(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        this.cfg = cfg;
+        this.irBuilder = irBuilder;
+        for (int i = 0; i < cfg.getBlocks().size(); i++) {
+            phis.add(new ArrayList<>());
+        }
+    }
+
+    // 返回新的 CFG；没有可改写的变量时只去掉不可达的块
+    public static ControlFlowGraph construct(ControlFlowGraph input, IRBuilder irBuilder) {
+        ControlFlowGraph cfg = reachableOnly(input);
+        SsaConstructor constructor = new SsaConstructor(cfg, irBuilder);
+        constructor.collectVariables();
+        if (constructor.vars.isEmpty()) {
+            return cfg;
+        }
+        constructor.placePhis();
+        constructor.rename();
+        constructor.removeDeadPhis();
+        return cfg;
+    }
+
+    // 不可达的块前面一定是 j 或 ret，整块去掉不影响其余块的顺序落入
+    private static ControlFlowGraph reachableOnly(ControlFlowGraph cfg) {
+        if (cfg.reversePostOrder().size() == cfg.getBlocks().size()) {
+            return cfg;
+        }
+        List<Quad> quads = new ArrayList<>(cfg.getQuadCount());
+        for (BasicBlock block : cfg.getBlocks()) {
+            if (block.isReachable()) {
+                quads.addAll(block.getQuads());
+            }
+        }
+        return ControlFlowGraph.build(cfg.getName(), quads);
+    }
+
+    // 当作数组用过的局部变量（loadarr / storearr / param_addr）不改写
+    private void collectVariables() {
+        Set<Operand> arrays = new HashSet<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Quad quad : block.getQuads()) {
+                switch (quad.op) {
+                    case LOADARR, PARAM_ADDR -> arrays.add(quad.arg1);
+                    case STOREARR -> arrays.add(quad.res);
+                    default -> {}
+                }
+            }
+        }
+        Set<Operand> temps = new HashSet<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Quad quad : block.getQuads()) {
+                if (quad.definesRes() && quad.res.isTemp() && !temps.add(quad.res)) {
+                    reassignedTemps.add(quad.res);
+                }
+                addVariable(quad.arg1, arrays);
+                addVariable(quad.arg2, arrays);
+                addVariable(quad.res, arrays);
+            }
+        }
+    }
+
+    private void addVariable(Operand operand, Set<Operand> arrays) {
+        if (operand == null || operand.getKind() != Operand.Kind.LOCAL) return;
+        if (arrays.contains(operand) || varIndex.containsKey(operand)) return;
+        varIndex.put(operand, vars.size());
+        vars.add(operand);
+    }
+
+    private int indexOf(Operand operand) {
+        if (operand == null || operand.getKind() != Operand.Kind.LOCAL) return -1;
+        Integer index = varIndex.get(operand);
+        return index == null ? -1 : index;
+    }
+
+    private void placePhis() {
+        int n = cfg.getBlocks().size();
+        int varCount = vars.size();
+        List<List<BasicBlock>> defBlocks = new ArrayList<>(varCount);
+        for (int v = 0; v < varCount; v++) {
+            defBlocks.add(new ArrayList<>());
+        }
+        boolean[] crossBlock = new boolean[varCount];
+        // 按变量：最近一次在哪个块中被写（按块编号去重）
+        int[] lastDefBlock = new int[varCount];
+        Arrays.fill(lastDefBlock, -1);
+        for (BasicBlock block : cfg.reversePostOrder()) {
+            int id = block.getId();
+            for (Quad quad : block.getQuads()) {
+                if (quad.op == Opcode.DECL) continue;
+                markUse(quad.arg1, id, lastDefBlock, crossBlock);
+                markUse(quad.arg2, id, lastDefBlock, crossBlock);
+                int def = quad.definesRes() ? indexOf(quad.res) : -1;
+                if (def >= 0 && lastDefBlock[def] != id) {
+                    lastDefBlock[def] = id;
+                    defBlocks.get(def).add(block);
+                }
+            }
+        }
+
+        DominatorTree dom = cfg.getDominators();
+        int[] hasPhi = new int[n];
+        int[] queued = new int[n];
+        Arrays.fill(hasPhi, -1);
+        Arrays.fill(queued, -1);
+        List<BasicBlock> worklist = new ArrayList<>();
+        for (int v = 0; v < varCount; v++) {
+            if (!crossBlock[v]) continue;
+            worklist.clear();
+            for (BasicBlock block : defBlocks.get(v)) {
+                queued[block.getId()] = v;
+                worklist.add(block);
+            }
+            while (!worklist.isEmpty()) {
+                BasicBlock block = worklist.remove(worklist.size() - 1);
+                for (BasicBlock join : dom.getFrontier(block)) {
+                    if (hasPhi[join.getId()] == v) continue;
+                    hasPhi[join.getId()] = v;
+                    insertPhi(join, new Phi(vars.get(v), irBuilder.newTemp(), join.getPreds().size()));
+                    if (queued[join.getId()] != v) {
+                        queued[join.getId()] = v;
+                        worklist.add(join);
+                    }
+                }
+            }
+        }
+    }
+
+    // 读的时候本块还没有写过：值来自别的块
+    private void markUse(Operand operand, int blockId, int[] lastDefBlock, boolean[] crossBlock) {
+        int v = indexOf(operand);
+        if (v >= 0 && lastDefBlock[v] != blockId) {
+            crossBlock[v] = true;
+        }
+    }
+
+    // φ 放在块首标签之后、已有的 φ 之后
+    private void insertPhi(BasicBlock block, Phi phi) {
+        List<Phi> blockPhis = phis.get(block.getId());
+        int at = (block.getLabel() != null ? 1 : 0) + blockPhis.size();
+        block.getQuads().add(at, phi);
+        blockPhis.add(phi);
+    }
+
+    private void rename() {
+        int n = cfg.getBlocks().size();
+        Operand[] current = new Operand[vars.size()];
+        // 撤销日志：变量编号与被覆盖的值，每个块进入时记下日志长度
+        int[] undoVar = new int[16];
+        Operand[] undoValue = new Operand[16];
+        int undoSize = 0;
+        int[] marks = new int[n];
+        int[] nextChild = new int[n];
+        BasicBlock[] stack = new BasicBlock[n];
+        int top = 0;
+        DominatorTree dom = cfg.getDominators();
+
+        stack[top++] = cfg.getEntry();
+        marks[cfg.getEntry().getId()] = undoSize;
+        boolean entering = true;
+        while (top > 0) {
+            BasicBlock block = stack[top - 1];
+            if (entering) {
+                List<Quad> quads = block.getQuads();
+                List<Quad> renamed = new ArrayList<>(quads.size());
+                for (Quad quad : quads) {
+                    int def = -1;
+                    Operand value = null;
+                    Quad result = quad;
+                    if (quad instanceof Phi phi) {
+                        def = indexOf(phi.getVariable());
+                        value = phi.res;
+                    } else if (quad.op == Opcode.DECL && indexOf(quad.arg1) >= 0) {
+                        result = null;
+                    } else {
+                        Operand arg1 = valueOf(quad.arg1, current);
+                        Operand arg2 = valueOf(quad.arg2, current);
+                        Operand res = quad.res;
+                        def = quad.definesRes() ? indexOf(res) : -1;
+                        if (def >= 0) {
+                            if (quad.op == Opcode.MOVE && isValue(arg1)) {
+                                value = arg1;
+                                result = null;
+                            } else {
+                                value = irBuilder.newTemp();
+                                res = value;
+                            }
+                        }
+                        if (result != null) {
+                            Opcode op = quad.op == Opcode.LOAD && arg1 != quad.arg1 ? Opcode.MOVE : quad.op;
+                            if (op != quad.op || arg1 != quad.arg1 || arg2 != quad.arg2 || res != quad.res) {
+                                result = new Quad(op, arg1, arg2, res);
+                            }
+                        }
+                    }
+                    if (def >= 0) {
+                        if (undoSize == undoVar.length) {
+                            undoVar = Arrays.copyOf(undoVar, undoSize * 2);
+                            undoValue = Arrays.copyOf(undoValue, undoSize * 2);
+                        }
+                        undoVar[undoSize] = def;
+                        undoValue[undoSize++] = current[def];
+                        current[def] = value;
+                    }
+                    if (result != null) {
+                        renamed.add(result);
+                    }
+                }
+                quads.clear();
+                quads.addAll(renamed);
+
+                for (BasicBlock succ : block.getSuccs()) {
+                    int j = succ.getPreds().indexOf(block);
+                    for (Phi phi : phis.get(succ.getId())) {
+                        phi.getArgs()[j] = valueOf(phi.getVariable(), current);
+                    }
+                }
+            }
+
+            List<BasicBlock> children = dom.getChildren(block);
+            if (nextChild[block.getId()] < children.size()) {
+                BasicBlock child = children.get(nextChild[block.getId()]++);
+                marks[child.getId()] = undoSize;
+                stack[top++] = child;
+                entering = true;
+            } else {
+                int mark = marks[block.getId()];
+                while (undoSize > mark) {
+                    undoSize--;
+                    current[undoVar[undoSize]] = undoValue[undoSize];
+                    undoValue[undoSize] = null;
+                }
+                top--;
+                entering = false;
+            }
+        }
+    }
+
+    // 常量与只写一次的临时变量在其定义支配的范围内值不变
+    private boolean isValue(Operand operand) {
+        return operand != null && (operand.isImm() || operand.isTemp() && !reassignedTemps.contains(operand));
+    }
+
+    private Operand valueOf(Operand operand, Operand[] current) {
+        int v = indexOf(operand);
+        if (v < 0) return operand;
+        return current[v] == null ? Operand.imm(0) : current[v];
+    }
+
+    private void removeDeadPhis() {
+        Map<Operand, Phi> defs = new HashMap<>();
+        for (List<Phi> blockPhis : phis) {
+            for (Phi phi : blockPhis) {
+                defs.put(phi.res, phi);
+            }
+        }
+        Map<Operand, Integer> uses = new HashMap<>();
+        for (BasicBlock block : cfg.getBlocks()) {
+            for (Quad quad : block.getQuads()) {
+                if (quad instanceof Phi phi) {
+                    for (Operand arg : phi.getArgs()) {
+                        if (arg != phi.res) countUse(arg, defs, uses, 1);
+                    }
+                } else {
+                    countUse(quad.arg1, defs, uses, 1);
+                    countUse(quad.arg2, defs, uses, 1);
+                }
+            }
+        }
+        List<Phi> worklist = new ArrayList<>();
+        for (Phi phi : defs.values()) {
+            if (!uses.containsKey(phi.res)) worklist.add(phi);
+        }
+        Set<Phi> dead = new HashSet<>();
+        while (!worklist.isEmpty()) {
+            Phi phi = worklist.remove(worklist.size() - 1);
+            if (!dead.add(phi)) continue;
+            for (Operand arg : phi.getArgs()) {
+                if (arg == phi.res) continue;
+                if (countUse(arg, defs, uses, -1) == 0) {
+                    worklist.add(defs.get(arg));
+                }
+            }
+        }
+        if (dead.isEmpty()) return;
+        for (BasicBlock block : cfg.getBlocks()) {
+            block.getQuads().removeIf(dead::contains);
+            phis.get(block.getId()).removeIf(dead::contains);
+        }
+    }
+
+    // 只统计 φ 结果的使用次数，返回更新后的次数；不是 φ 的结果时返回 -1
+    private static int countUse(Operand operand, Map<Operand, Phi> defs, Map<Operand, Integer> uses, int delta) {
+        if (operand == null || !defs.containsKey(operand)) return -1;
+        int count = uses.getOrDefault(operand, 0) + delta;
+        if (count == 0) {
+            uses.remove(operand);
+        } else {
+            uses.put(operand, count);
+        }
+        return count;
+    }
+}
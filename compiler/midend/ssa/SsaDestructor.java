@@ -0,0 +1,156 @@
+package midend.ssa;
+
+import midend.cfg.BasicBlock;
+import midend.cfg.ControlFlowGraph;
+import midend.ir.IRBuilder;
+import midend.ir.Opcode;
+import midend.ir.Operand;
+import midend.ir.Phi;
+import midend.ir.Quad;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+    消去 SSA：每个 φ 换成各前驱边上的复制 move a_i, res
+        前驱以 bez 结尾时（关键边，或两条出边到同一个块）复制不能放在前驱块尾：
+            顺序落入的那条边：复制放在前驱块与汇合块之间，只在顺序落入时执行
+            跳转的那条边：新建 Lk_split: 复制; j 汇合块，放在函数末尾，bez 改为跳到它（拆开关键边）
+        其余前驱把复制放在块尾，有 j 时放在 j 之前
+    同一条边上的复制是并行的，按 sequentialize 排成顺序的 move
+ */
+public final class SsaDestructor {
+    private SsaDestructor() {
+    }
+
+    // 返回新的 CFG；没有 φ 时原样返回
+    public static ControlFlowGraph destruct(ControlFlowGraph cfg, IRBuilder irBuilder) {
+        List<BasicBlock> blocks = cfg.getBlocks();
+        int n = blocks.size();
+        List<List<Quad>> atEnd = new ArrayList<>(n);
+        List<List<Quad>> fallThrough = new ArrayList<>(n);
+        Operand[] splitTarget = new Operand[n];
+        for (int i = 0; i < n; i++) {
+            atEnd.add(null);
+            fallThrough.add(null);
+        }
+        List<Quad> splitBlocks = new ArrayList<>();
+        boolean hasPhi = false;
+
+        for (BasicBlock block : blocks) {
+            List<Phi> phis = phisOf(block);
+            if (phis.isEmpty()) continue;
+            hasPhi = true;
+            List<BasicBlock> preds = block.getPreds();
+            for (int j = 0; j < preds.size(); j++) {
+                BasicBlock pred = preds.get(j);
+                List<Operand> dsts = new ArrayList<>(phis.size());
+                List<Operand> srcs = new ArrayList<>(phis.size());
+                for (Phi phi : phis) {
+                    Operand arg = phi.getArgs()[j];
+                    dsts.add(phi.res);
+                    srcs.add(arg == null ? Operand.imm(0) : arg);
+                }
+                Quad last = pred.getTerminator();
+                if (last != null && last.op == Opcode.BEZ) {
+                    if (pred.getId() + 1 < n && blocks.get(pred.getId() + 1) == block) {
+                        fallThrough.set(pred.getId(), sequentialize(dsts, srcs, irBuilder));
+                    }
+                    if (last.res.equals(block.getLabel())) {
+                        Operand label = irBuilder.newLabel("split");
+                        splitTarget[pred.getId()] = label;
+                        splitBlocks.add(new Quad(Opcode.LABEL, null, null, label));
+                        splitBlocks.addAll(sequentialize(dsts, srcs, irBuilder));
+                        splitBlocks.add(new Quad(Opcode.J, null, null, block.getLabel()));
+                    }
+                } else {
+                    atEnd.set(pred.getId(), sequentialize(dsts, srcs, irBuilder));
+                }
+            }
+        }
+        if (!hasPhi) {
+            return cfg;
+        }
+
+        List<Quad> quads = new ArrayList<>(cfg.getQuadCount() + splitBlocks.size());
+        for (BasicBlock block : blocks) {
+            int id = block.getId();
+            List<Quad> body = block.getQuads();
+            Quad last = block.getTerminator();
+            for (Quad quad : body) {
+                if (quad instanceof Phi) continue;
+                if (quad == last) break;
+                quads.add(quad);
+            }
+            if (atEnd.get(id) != null) {
+                quads.addAll(atEnd.get(id));
+            }
+            if (last != null) {
+                quads.add(splitTarget[id] != null ? new Quad(Opcode.BEZ, last.arg1, null, splitTarget[id]) : last);
+            }
+            if (fallThrough.get(id) != null) {
+                quads.addAll(fallThrough.get(id));
+            }
+        }
+        if (!splitBlocks.isEmpty()) {
+            // 原来的最后一块若会落出函数，补一个 ret，拆出的块不能被落入
+            Quad last = quads.isEmpty() ? null : quads.get(quads.size() - 1);
+            if (last == null || last.op != Opcode.J && last.op != Opcode.RET) {
+                quads.add(new Quad(Opcode.RET, null, null, null));
+            }
+            quads.addAll(splitBlocks);
+        }
+        return ControlFlowGraph.build(cfg.getName(), quads);
+    }
+
+    private static List<Phi> phisOf(BasicBlock block) {
+        List<Phi> phis = new ArrayList<>();
+        for (Quad quad : block.getQuads()) {
+            if (quad instanceof Phi phi) {
+                phis.add(phi);
+            }
+        }
+        return phis;
+    }
+
+    /*
+        并行复制 dsts[i] ← srcs[i] 排成顺序的 move：
+            反复放出目标不再被其余复制读取的那些；
+            剩下的全在环上时，把其中一个目标先存到新的临时变量，读它的复制改读临时变量，环就断开了
+        目标互不相同；源与目标相同的复制直接去掉
+     */
+    static List<Quad> sequentialize(List<Operand> dsts, List<Operand> srcs, IRBuilder irBuilder) {
+        List<Operand> pendingDst = new ArrayList<>(dsts.size());
+        List<Operand> pendingSrc = new ArrayList<>(srcs.size());
+        for (int i = 0; i < dsts.size(); i++) {
+            if (!dsts.get(i).equals(srcs.get(i))) {
+                pendingDst.add(dsts.get(i));
+                pendingSrc.add(srcs.get(i));
+            }
+        }
+        List<Quad> moves = new ArrayList<>();
+        while (!pendingDst.isEmpty()) {
+            boolean progress = false;
+            for (int i = 0; i < pendingDst.size(); i++) {
+                Operand dst = pendingDst.get(i);
+                if (pendingSrc.contains(dst)) continue;
+                moves.add(new Quad(Opcode.MOVE, pendingSrc.get(i), null, dst));
+                pendingDst.remove(i);
+                pendingSrc.remove(i);
+                i--;
+                progress = true;
+            }
+            if (!progress) {
+                Operand saved = pendingDst.get(0);
+                Operand temp = irBuilder.newTemp();
+                moves.add(new Quad(Opcode.MOVE, saved, null, temp));
+                for (int i = 0; i < pendingSrc.size(); i++) {
+                    if (pendingSrc.get(i).equals(saved)) {
+                        pendingSrc.set(i, temp);
+                    }
+                }
+            }
+        }
+        return moves;
+    }
+}